@@ -1,35 +1,56 @@
 package com.smartinvoice.audit.controller;
 
-import com.smartinvoice.audit.entity.AuditLog;
-import com.smartinvoice.audit.repository.AuditLogRepository;
+import com.smartinvoice.audit.dto.AuditLogDto;
+import com.smartinvoice.audit.dto.AuditLogFilter;
+import com.smartinvoice.audit.service.AuditLogQueryService;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/audit-logs")
 @RequiredArgsConstructor
 public class AuditLogController {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogQueryService auditLogQueryService;
+    private final ExportService exportService;
 
     @GetMapping
-    public List<AuditLog> getLogs(
-            @RequestParam(required = false) String action,
-            @RequestParam(required = false) String entity
+    public CursorPage<AuditLogDto> getLogs(
+            @ModelAttribute AuditLogFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
-        if (action != null && entity != null) {
-            return auditLogRepository.findByActionAndEntityOrderByTimestampDesc(action, entity);
-        } else if (action != null) {
-            return auditLogRepository.findByActionOrderByTimestampDesc(action);
-        } else if (entity != null) {
-            return auditLogRepository.findByEntityOrderByTimestampDesc(entity);
-        } else {
-            return auditLogRepository.findAllByOrderByTimestampDesc();
+        validateRange(filter);
+        return auditLogQueryService.getLogPage(filter, cursor, limit);
+    }
+
+    /**
+     * Streams every matching entry as newline-delimited JSON for bulk pulls.
+     */
+    @GetMapping("/export")
+    public void exportLogs(
+            @ModelAttribute AuditLogFilter filter,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        validateRange(filter);
+        exportService.writeAttachment(response, "audit-logs", ExportFormat.NDJSON, gzip,
+                (writer, progress) -> auditLogQueryService.writeLogs(writer, filter, ExportFormat.NDJSON, progress));
+    }
+
+    private void validateRange(AuditLogFilter filter) {
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
         }
     }
 }
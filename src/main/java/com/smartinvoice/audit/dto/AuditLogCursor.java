@@ -0,0 +1,32 @@
+package com.smartinvoice.audit.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last audit entry on a page, ordered by {@code (timestamp desc, id desc)}.
+ * Encoded as an opaque URL-safe token so clients don't depend on its format.
+ */
+public record AuditLogCursor(LocalDateTime timestamp, Long id) {
+
+    public static AuditLogCursor of(AuditLogDto last) {
+        return new AuditLogCursor(last.timestamp(), last.id());
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AuditLogCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new AuditLogCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
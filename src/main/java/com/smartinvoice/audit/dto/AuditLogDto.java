@@ -0,0 +1,11 @@
+package com.smartinvoice.audit.dto;
+
+import java.time.LocalDateTime;
+
+public record AuditLogDto(
+        Long id,
+        String action,
+        String entity,
+        String entityId,
+        LocalDateTime timestamp
+) {}
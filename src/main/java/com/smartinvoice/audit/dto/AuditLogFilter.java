@@ -0,0 +1,16 @@
+package com.smartinvoice.audit.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for audit log queries. {@code from} is inclusive, {@code to} exclusive.
+ */
+public record AuditLogFilter(
+        String action,
+        String entity,
+        String entityId,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+) {}
@@ -0,0 +1,268 @@
+package com.smartinvoice.audit.partition;
+
+import com.smartinvoice.audit.service.AuditProperties;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.RecordWriter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Owns the {@code audit_logs} table, which is range-partitioned by month on {@code timestamp}. Keeps
+ * {@code monthsAhead} partitions ready for inserts and, once a partition is older than {@code retentionMonths},
+ * archives it to a gzip NDJSON file and drops it. Without an archive directory expired partitions are only dropped
+ * when {@code dropUnarchived} is set. Queries filtered on a time range only touch the partitions that overlap it.
+ * <p>
+ * A DEFAULT partition catches rows outside every monthly range, so inserts keep working if maintenance falls behind;
+ * its rows are moved into the monthly partition once that is created.
+ * <p>
+ * A plain {@code audit_logs} table from an earlier version is kept as the {@code audit_logs_legacy} partition
+ * covering everything up to the first monthly partition.
+ */
+@Slf4j
+@Component
+public class AuditPartitionManager {
+
+    static final String TABLE = "audit_logs";
+    static final String SEQUENCE = "audit_logs_seq";
+    static final String LEGACY_PARTITION = TABLE + "_legacy";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_[a-z0-9_]+");
+    private static final String[] ARCHIVE_FIELDS = {"id", "action", "entity", "entityId", "timestamp"};
+
+    record AuditPartition(String name, LocalDateTime upperBound) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExportService exportService;
+    private final AuditProperties properties;
+
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ExportService exportService,
+                                 AuditProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exportService = exportService;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            String kind = jdbcTemplate.query("SELECT relkind FROM pg_class WHERE oid = to_regclass(?::text)",
+                    rs -> rs.next() ? rs.getString(1) : null, TABLE);
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+
+            if (kind == null) {
+                createPartitionedTable();
+            } else if ("r".equals(kind)) {
+                convertPlainTable();
+            }
+        });
+        maintain();
+    }
+
+    @Scheduled(cron = "${audit.partition-maintenance-cron:0 30 0 * * *}")
+    public void maintain() {
+        maintain(LocalDate.now());
+    }
+
+    void maintain(LocalDate today) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF audit_logs DEFAULT");
+        List<AuditPartition> partitions = listPartitions();
+        createUpcomingPartitions(partitions, YearMonth.from(today));
+        if (properties.getRetentionMonths() > 0) {
+            LocalDateTime cutoff = YearMonth.from(today).minusMonths(properties.getRetentionMonths()).atDay(1).atStartOfDay();
+            partitions.stream()
+                    .filter(p -> p.upperBound() != null && !p.upperBound().isAfter(cutoff))
+                    .forEach(this::expire);
+        }
+    }
+
+    private void createPartitionedTable() {
+        jdbcTemplate.execute("""
+                CREATE TABLE audit_logs (
+                    id bigint NOT NULL DEFAULT nextval('audit_logs_seq'),
+                    action varchar(255),
+                    entity varchar(255),
+                    entity_id varchar(255),
+                    timestamp timestamp(6) NOT NULL,
+                    PRIMARY KEY (id, timestamp)
+                ) PARTITION BY RANGE (timestamp)
+                """);
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " OWNED BY audit_logs.id");
+        jdbcTemplate.execute("CREATE INDEX idx_audit_logs_timestamp_id ON audit_logs (timestamp, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_audit_logs_entity_action_timestamp ON audit_logs (entity, action, timestamp)");
+        jdbcTemplate.execute("CREATE INDEX idx_audit_logs_entity_id ON audit_logs (entity, entity_id)");
+        log.info("Created partitioned table {}", TABLE);
+    }
+
+    private void convertPlainTable() {
+        LocalDate firstMonthly = YearMonth.now().plusMonths(1).atDay(1);
+        jdbcTemplate.execute("ALTER TABLE audit_logs RENAME TO " + LEGACY_PARTITION);
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN id DROP DEFAULT");
+        // A partition may not have its own primary key; the parent's (id, timestamp) key replaces it
+        jdbcTemplate.queryForList("SELECT conname FROM pg_constraint WHERE conrelid = ?::regclass AND contype = 'p'",
+                        String.class, LEGACY_PARTITION)
+                .forEach(name -> jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT \"" + name + "\""));
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_audit_logs_timestamp_id");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_audit_logs_entity_action_timestamp");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_audit_logs_entity_id");
+        jdbcTemplate.update("UPDATE " + LEGACY_PARTITION + " SET timestamp = TIMESTAMP '1970-01-01' WHERE timestamp IS NULL");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN timestamp SET NOT NULL");
+        jdbcTemplate.query("SELECT setval('" + SEQUENCE + "', GREATEST(COALESCE(MAX(id), 0), 1)) FROM " + LEGACY_PARTITION,
+                rs -> {});
+
+        createPartitionedTable();
+        jdbcTemplate.execute("ALTER TABLE audit_logs ATTACH PARTITION " + LEGACY_PARTITION
+                + " FOR VALUES FROM (MINVALUE) TO ('" + firstMonthly + "')");
+        log.info("Converted {} to a partitioned table; existing rows are kept in {}", TABLE, LEGACY_PARTITION);
+    }
+
+    List<AuditPartition> listPartitions() {
+        return jdbcTemplate.query("""
+                        SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'audit_logs'::regclass
+                        """,
+                (rs, rowNum) -> new AuditPartition(rs.getString(1), upperBound(rs.getString(2))));
+    }
+
+    private void createUpcomingPartitions(List<AuditPartition> partitions, YearMonth current) {
+        YearMonth month = partitions.stream()
+                .map(AuditPartition::upperBound)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .map(YearMonth::from)
+                .filter(covered -> covered.isAfter(current))
+                .orElse(current);
+
+        YearMonth last = current.plusMonths(properties.getPartitionMonthsAhead());
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp >= ? AND timestamp < ?)", Boolean.class, from, to))) {
+                moveFromDefault(name, from, to);
+            } else {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF audit_logs FOR VALUES FROM ('"
+                        + from + "') TO ('" + to + "')");
+            }
+        }
+    }
+
+    /**
+     * Postgres refuses to create a partition whose range still has rows in the DEFAULT partition, so the month is
+     * built as a plain table, the rows are moved into it and it is attached, all in one transaction.
+     */
+    private void moveFromDefault(String name, LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE audit_logs INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE timestamp >= ? AND timestamp < ? RETURNING id, action, entity, entity_id, timestamp) "
+                    + "INSERT INTO " + name + " (id, action, entity, entity_id, timestamp) SELECT * FROM moved", from, to);
+            jdbcTemplate.execute("ALTER TABLE audit_logs ATTACH PARTITION " + name + " FOR VALUES FROM ('"
+                    + from + "') TO ('" + to + "')");
+            log.info("Moved {} audit entries from {} to {}", moved, DEFAULT_PARTITION, name);
+        });
+    }
+
+    private void expire(AuditPartition partition) {
+        if (!PARTITION_NAME.matcher(partition.name()).matches()) {
+            log.warn("Skipping unexpected audit partition {}", partition.name());
+            return;
+        }
+        boolean archived = properties.getArchiveDirectory() != null && !properties.getArchiveDirectory().isBlank();
+        if (!archived && !properties.isDropUnarchived()) {
+            log.warn("Keeping expired audit partition {}: set audit.archive-directory, or audit.drop-unarchived to "
+                    + "drop it without an archive", partition.name());
+            return;
+        }
+        try {
+            if (archived) {
+                archive(partition.name(), Paths.get(properties.getArchiveDirectory()));
+            }
+            jdbcTemplate.execute("DROP TABLE " + partition.name());
+            log.info("Dropped expired audit partition {}", partition.name());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to expire audit partition {}; it will be retried", partition.name(), e);
+        }
+    }
+
+    private void archive(String partition, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(exportService.fileName(partition, ExportFormat.NDJSON, true));
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+
+        long rows;
+        try (Writer writer = exportService.openOutput(Files.newOutputStream(part), true)) {
+            RecordWriter out = exportService.openWriter(ExportFormat.NDJSON, writer, ARCHIVE_FIELDS);
+            long[] written = {0};
+            // The cursor only streams inside a transaction; otherwise the driver buffers the whole partition
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT id, action, entity, entity_id, timestamp FROM " + partition + " ORDER BY timestamp, id");
+                ps.setFetchSize(1000);
+                return ps;
+            }, rs -> {
+                try {
+                    out.write(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getTimestamp(5).toLocalDateTime());
+                    written[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            out.flush();
+            rows = written[0];
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.info("Archived {} audit entries from {} to {}", rows, partition, target);
+    }
+
+    static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    static LocalDateTime upperBound(String bound) {
+        if (bound == null) {
+            return null;
+        }
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        return matcher.find() ? LocalDateTime.parse(matcher.group(1).replace(' ', 'T')) : null;
+    }
+}
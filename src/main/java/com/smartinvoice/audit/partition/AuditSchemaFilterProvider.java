@@ -0,0 +1,56 @@
+package com.smartinvoice.audit.partition;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+
+/**
+ * Keeps Hibernate's schema tooling away from the audit table. {@code audit_logs} is range-partitioned, which
+ * Hibernate cannot create or migrate, so {@link AuditPartitionManager} owns its DDL instead.
+ */
+public class AuditSchemaFilterProvider implements SchemaFilterProvider {
+
+    private static final SchemaFilter EXCLUDE_AUDIT = new SchemaFilter() {
+        @Override
+        public boolean includeNamespace(Namespace namespace) {
+            return true;
+        }
+
+        @Override
+        public boolean includeTable(Table table) {
+            return !AuditPartitionManager.TABLE.equalsIgnoreCase(table.getName());
+        }
+
+        @Override
+        public boolean includeSequence(Sequence sequence) {
+            return !AuditPartitionManager.SEQUENCE.equalsIgnoreCase(sequence.getName().getSequenceName().getText());
+        }
+    };
+
+    @Override
+    public SchemaFilter getCreateFilter() {
+        return EXCLUDE_AUDIT;
+    }
+
+    @Override
+    public SchemaFilter getDropFilter() {
+        return EXCLUDE_AUDIT;
+    }
+
+    @Override
+    public SchemaFilter getTruncatorFilter() {
+        return EXCLUDE_AUDIT;
+    }
+
+    @Override
+    public SchemaFilter getMigrateFilter() {
+        return EXCLUDE_AUDIT;
+    }
+
+    @Override
+    public SchemaFilter getValidateFilter() {
+        return EXCLUDE_AUDIT;
+    }
+}
@@ -1,15 +1,66 @@
 package com.smartinvoice.audit.repository;
 
+import com.smartinvoice.audit.dto.AuditLogDto;
 import com.smartinvoice.audit.entity.AuditLog;
-import org.springdoc.core.converters.models.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    List<AuditLog> findByActionOrderByTimestampDesc(String action);
-    List<AuditLog> findByEntityOrderByTimestampDesc(String entity);
-    List<AuditLog> findByActionAndEntityOrderByTimestampDesc(String action, String entity);
-    List<AuditLog> findAllByOrderByTimestampDesc();
-}
 
+    String LOG_SELECT = """
+                SELECT new com.smartinvoice.audit.dto.AuditLogDto(a.id, a.action, a.entity, a.entityId, a.timestamp)
+                FROM AuditLog a
+            """;
+
+    // Timestamp parameters are cast so Postgres can type them in the IS NULL checks
+    String LOG_FILTERS = """
+                WHERE (:action IS NULL OR a.action = :action)
+                  AND (:entity IS NULL OR a.entity = :entity)
+                  AND (:entityId IS NULL OR a.entityId = :entityId)
+                  AND (CAST(:from AS LocalDateTime) IS NULL OR a.timestamp >= :from)
+                  AND (CAST(:to AS LocalDateTime) IS NULL OR a.timestamp < :to)
+            """;
+
+    String NEWEST_FIRST = " ORDER BY a.timestamp DESC, a.id DESC";
+
+    @Query(LOG_SELECT + LOG_FILTERS + NEWEST_FIRST)
+    List<AuditLogDto> findFirstLogs(@Param("action") String action,
+                                    @Param("entity") String entity,
+                                    @Param("entityId") String entityId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    Limit limit);
+
+    @Query(LOG_SELECT + LOG_FILTERS + """
+                  AND a.timestamp <= :afterTimestamp
+                  AND (a.timestamp < :afterTimestamp OR a.id < :afterId)
+            """ + NEWEST_FIRST)
+    List<AuditLogDto> findLogsAfter(@Param("action") String action,
+                                    @Param("entity") String entity,
+                                    @Param("entityId") String entityId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                    @Param("afterId") Long afterId,
+                                    Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(LOG_SELECT + LOG_FILTERS + NEWEST_FIRST)
+    Stream<AuditLogDto> streamLogs(@Param("action") String action,
+                                   @Param("entity") String entity,
+                                   @Param("entityId") String entityId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,82 @@
+package com.smartinvoice.audit.service;
+
+import com.smartinvoice.audit.dto.AuditLogCursor;
+import com.smartinvoice.audit.dto.AuditLogDto;
+import com.smartinvoice.audit.dto.AuditLogFilter;
+import com.smartinvoice.audit.repository.AuditLogRepository;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.RecordWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class AuditLogQueryService {
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int FLUSH_INTERVAL = 1000;
+    private static final String[] EXPORT_FIELDS = {"id", "action", "entity", "entityId", "timestamp"};
+
+    private final AuditLogRepository auditLogRepository;
+    private final ExportService exportService;
+
+    public CursorPage<AuditLogDto> getLogPage(AuditLogFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to find out whether another page exists without a count query
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<AuditLogDto> logs;
+        if (cursor == null || cursor.isBlank()) {
+            logs = auditLogRepository.findFirstLogs(filter.action(), filter.entity(), filter.entityId(),
+                    filter.from(), filter.to(), fetchLimit);
+        } else {
+            AuditLogCursor after = AuditLogCursor.decode(cursor);
+            logs = auditLogRepository.findLogsAfter(filter.action(), filter.entity(), filter.entityId(),
+                    filter.from(), filter.to(), after.timestamp(), after.id(), fetchLimit);
+        }
+
+        boolean hasNext = logs.size() > pageSize;
+        List<AuditLogDto> page = hasNext ? logs.subList(0, pageSize) : logs;
+        String nextCursor = hasNext ? AuditLogCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPage<>(List.copyOf(page), nextCursor);
+    }
+
+    /**
+     * Writes every matching entry, newest first, through a forward-only cursor so bulk pulls don't load the table
+     * into memory.
+     */
+    @Transactional(readOnly = true)
+    public long writeLogs(Writer writer, AuditLogFilter filter, ExportFormat format,
+                          LongConsumer progress) throws IOException {
+        RecordWriter out = exportService.openWriter(format, writer, EXPORT_FIELDS);
+
+        long written = 0;
+        try (Stream<AuditLogDto> logs = auditLogRepository.streamLogs(filter.action(), filter.entity(),
+                filter.entityId(), filter.from(), filter.to())) {
+            Iterator<AuditLogDto> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                AuditLogDto log = iterator.next();
+                out.write(log.id(), log.action(), log.entity(), log.entityId(), log.timestamp());
+                if (++written % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                    progress.accept(written);
+                }
+            }
+            out.flush();
+        }
+        progress.accept(written);
+        return written;
+    }
+}
@@ -1,25 +1,38 @@
 package com.smartinvoice.audit.service;
 
-import com.smartinvoice.audit.entity.AuditLog;
-import com.smartinvoice.audit.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 
+/**
+ * Records audit events. In ASYNC mode events are handed to {@link AuditLogWriter} once the surrounding transaction
+ * commits, so rolled-back changes leave no trace and the request never waits for the insert. SYNC mode inserts the
+ * row in the caller's transaction instead.
+ */
 @Service
 @RequiredArgsConstructor
 public class AuditLogService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final AuditProperties properties;
 
     public void log(String action, String entity, String entityId) {
-        AuditLog log = AuditLog.builder()
-                .action(action)
-                .entity(entity)
-                .entityId(entityId)
-                .timestamp(LocalDateTime.now())
-                .build();
-        auditLogRepository.save(log);
+        LocalDateTime timestamp = LocalDateTime.now();
+
+        if (properties.getMode() == AuditProperties.Mode.SYNC) {
+            auditLogWriter.writeNow(action, entity, entityId, timestamp);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditLogWriter.enqueue(action, entity, entityId, timestamp);
+                }
+            });
+        } else {
+            auditLogWriter.enqueue(action, entity, entityId, timestamp);
+        }
     }
 }
@@ -0,0 +1,189 @@
+package com.smartinvoice.audit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes audit events in JDBC batches. Producers append to a bounded lock-free queue; a single background thread
+ * drains it whenever a batch fills up or {@code flushInterval} passes. Events that don't fit in the queue are
+ * dropped and counted rather than slowing down the request that produced them.
+ * <p>
+ * A batch that fails to insert goes back to the front of the queue and is retried with exponential backoff, so a
+ * database outage only loses events once the queue overflows. Rows the database rejects outright are not retried.
+ */
+@Slf4j
+@Component
+@DependsOn("auditPartitionManager")
+public class AuditLogWriter {
+
+    static final String INSERT_SQL = "INSERT INTO audit_logs (action, entity, entity_id, timestamp) VALUES (?, ?, ?, ?)";
+
+    record AuditEvent(String action, String entity, String entityId, LocalDateTime timestamp, long enqueuedAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditProperties properties;
+    private final Deque<AuditEvent> queue = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final Thread worker;
+    private volatile boolean running = true;
+    // Only touched by the worker thread
+    private long retryBackoffNanos;
+    private long retryAtNanos;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, AuditProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.writtenCounter = Counter.builder("audit.events.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.events.dropped").tag("reason", "queue_full").register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.events.dropped").tag("reason", "write_failed").register(meterRegistry);
+        this.lagTimer = Timer.builder("audit.events.lag").register(meterRegistry);
+        this.retryBackoffNanos = properties.getRetryBackoff().toNanos();
+        this.retryAtNanos = System.nanoTime();
+        Gauge.builder("audit.queue.size", pending, AtomicInteger::get).register(meterRegistry);
+
+        this.worker = new Thread(this::drainLoop, "audit-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues an event for the background writer. Returns false when the queue is full and the event was dropped.
+     */
+    public boolean enqueue(String action, String entity, String entityId, LocalDateTime timestamp) {
+        if (pending.incrementAndGet() > properties.getQueueCapacity()) {
+            pending.decrementAndGet();
+            droppedCounter.increment();
+            return false;
+        }
+        queue.offer(new AuditEvent(action, entity, entityId, timestamp, System.nanoTime()));
+        if (pending.get() >= properties.getBatchSize()) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    /**
+     * Inserts an event right away on the calling thread, joining its transaction if there is one.
+     */
+    public void writeNow(String action, String entity, String entityId, LocalDateTime timestamp) {
+        jdbcTemplate.update(INSERT_SQL, action, entity, entityId, Timestamp.valueOf(timestamp));
+        writtenCounter.increment();
+    }
+
+    int pending() {
+        return pending.get();
+    }
+
+    private void drainLoop() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running || pending.get() > 0) {
+            long backoff = retryAtNanos - System.nanoTime();
+            if (backoff > 0) {
+                LockSupport.parkNanos(this, backoff);
+                continue;
+            }
+            if (running && pending.get() < properties.getBatchSize()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything queued so far, one batch at a time. Stops at the first failed batch, which is re-queued.
+     */
+    void flush() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        AuditEvent event;
+        while ((event = queue.poll()) != null) {
+            pending.decrementAndGet();
+            batch.add(event);
+            if (batch.size() == properties.getBatchSize()) {
+                if (!writeBatch(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(properties.getBatchSize());
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+    }
+
+    private boolean writeBatch(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, e) -> {
+                ps.setString(1, e.action());
+                ps.setString(2, e.entity());
+                ps.setString(3, e.entityId());
+                ps.setTimestamp(4, Timestamp.valueOf(e.timestamp()));
+            });
+            writtenCounter.increment(batch.size());
+            lagTimer.record(System.nanoTime() - batch.get(0).enqueuedAt(), TimeUnit.NANOSECONDS);
+            retryBackoffNanos = properties.getRetryBackoff().toNanos();
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            failedCounter.increment(batch.size());
+            log.error("Audit database rejected {} events; they are dropped", batch.size(), e);
+            return true;
+        } catch (RuntimeException e) {
+            int requeued = requeue(batch);
+            log.warn("Failed to write {} audit events, retrying in {} ms ({} dropped)", batch.size(),
+                    TimeUnit.NANOSECONDS.toMillis(retryBackoffNanos), batch.size() - requeued, e);
+            retryAtNanos = System.nanoTime() + retryBackoffNanos;
+            retryBackoffNanos = Math.min(retryBackoffNanos * 2, properties.getMaxRetryBackoff().toNanos());
+            return false;
+        }
+    }
+
+    /**
+     * Puts a failed batch back at the head of the queue in its original order. When newer events have filled the
+     * queue in the meantime, the oldest events of the batch are kept and the rest are dropped.
+     */
+    private int requeue(List<AuditEvent> batch) {
+        int requeued = 0;
+        while (requeued < batch.size() && pending.incrementAndGet() <= properties.getQueueCapacity()) {
+            requeued++;
+        }
+        if (requeued < batch.size()) {
+            pending.decrementAndGet();
+            failedCounter.increment(batch.size() - requeued);
+        }
+        for (int i = requeued - 1; i >= 0; i--) {
+            queue.offerFirst(batch.get(i));
+        }
+        return requeued;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(properties.getShutdownTimeout().toMillis());
+        if (worker.isAlive()) {
+            log.warn("Audit writer did not drain within {}; {} events lost", properties.getShutdownTimeout(), pending.get());
+        }
+    }
+}
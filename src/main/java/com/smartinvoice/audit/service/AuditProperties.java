@@ -0,0 +1,39 @@
+package com.smartinvoice.audit.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "audit")
+public class AuditProperties {
+
+    public enum Mode { ASYNC, SYNC }
+
+    // ASYNC queues events for the background writer after commit, SYNC inserts them in the caller's transaction
+    private Mode mode = Mode.ASYNC;
+    // Events waiting to be written before new ones are dropped
+    private int queueCapacity = 10_000;
+    // Events inserted per JDBC batch; a full batch wakes the writer early
+    private int batchSize = 500;
+    // Longest time an event waits in the queue when batches don't fill up
+    private Duration flushInterval = Duration.ofMillis(200);
+    // Wait before retrying a failed batch, doubled on every further failure up to maxRetryBackoff
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofMinutes(1);
+    // How long shutdown waits for the queue to drain
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+    // Monthly partitions created ahead of the current month
+    private int partitionMonthsAhead = 3;
+    // Partitions older than this many months are archived and dropped; 0 keeps everything
+    private int retentionMonths = 0;
+    // Directory for gzip NDJSON archives of expired partitions; without one expired partitions are kept
+    private String archiveDirectory;
+    // Drop expired partitions even when no archive directory is configured
+    private boolean dropUnarchived = false;
+}
@@ -3,7 +3,12 @@ package com.smartinvoice.client.controller;
 import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.client.dto.ClientRequestDto;
 import com.smartinvoice.client.dto.ClientResponseDto;
+import com.smartinvoice.client.dto.ClientSearchResultDto;
+import com.smartinvoice.client.dto.ClientSuggestionDto;
+import com.smartinvoice.client.service.ClientSearchService;
 import com.smartinvoice.client.service.ClientService;
+import com.smartinvoice.client.service.ClientSuggestService;
+import com.smartinvoice.common.dto.ListingPage;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +22,8 @@ import java.util.List;
 public class ClientController {
 
     private final ClientService clientService;
+    private final ClientSearchService clientSearchService;
+    private final ClientSuggestService clientSuggestService;
 
     // Create a new client
     @PostMapping
@@ -42,6 +49,36 @@ public class ClientController {
         return clientService.getFilteredClients(filters);
     }
 
+    // One bounded page of clients; pass nextCursor back as cursor to continue, count=true to include the total
+    @GetMapping("/page")
+    public ListingPage<ClientResponseDto> getClientPage(
+            ClientFilterRequest filters,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean count
+    ) {
+        return clientService.getClientPage(filters, page, cursor, limit, count);
+    }
+
+    // Ranked search over name, email and company, best matches first
+    @GetMapping("/search")
+    public List<ClientSearchResultDto> searchClients(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return clientSearchService.search(q, limit);
+    }
+
+    // Autocomplete on name, company and email prefixes, served from memory
+    @GetMapping("/suggest")
+    public List<ClientSuggestionDto> suggestClients(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return clientSuggestService.suggest(q, limit);
+    }
+
 
     // Get a single client by ID
     @GetMapping("/{id}")
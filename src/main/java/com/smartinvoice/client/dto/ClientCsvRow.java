@@ -0,0 +1,12 @@
+package com.smartinvoice.client.dto;
+
+public record ClientCsvRow(
+        Long id,
+        String name,
+        String email,
+        String companyName,
+        String address,
+        String city,
+        String country,
+        String postcode
+) {}
@@ -0,0 +1,14 @@
+package com.smartinvoice.client.dto;
+
+/**
+ * A client matching a search, with {@code score} higher for better matches (0 when the LIKE fallback is used).
+ */
+public record ClientSearchResultDto(
+        Long id,
+        String name,
+        String email,
+        String companyName,
+        String city,
+        String country,
+        double score
+) {}
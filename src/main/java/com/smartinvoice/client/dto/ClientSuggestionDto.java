@@ -0,0 +1,11 @@
+package com.smartinvoice.client.dto;
+
+/**
+ * Typeahead entry for a client, matched on name, company and email.
+ */
+public record ClientSuggestionDto(
+        Long id,
+        String name,
+        String companyName,
+        String email
+) {}
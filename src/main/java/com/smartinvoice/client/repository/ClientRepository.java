@@ -1,8 +1,62 @@
 package com.smartinvoice.client.repository;
 
+import com.smartinvoice.client.dto.ClientCsvRow;
+import com.smartinvoice.client.dto.ClientSearchResultDto;
+import com.smartinvoice.client.dto.ClientSuggestionDto;
 import com.smartinvoice.client.entity.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface ClientRepository extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client> {
+
+    /**
+     * CSV rows for the client filters, read forward-only in fetch-size batches. {@code keyword} is a lower-case
+     * LIKE pattern, {@code city} and {@code country} lower-case exact matches. Must be consumed inside a
+     * transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+                SELECT new com.smartinvoice.client.dto.ClientCsvRow(
+                    c.id, c.name, c.email, c.companyName, c.address, c.city, c.country, c.postcode)
+                FROM Client c
+                WHERE (:keyword IS NULL OR LOWER(c.name) LIKE :keyword
+                        OR LOWER(c.email) LIKE :keyword OR LOWER(c.companyName) LIKE :keyword)
+                  AND (:city IS NULL OR LOWER(c.city) = :city)
+                  AND (:country IS NULL OR LOWER(c.country) = :country)
+                ORDER BY c.id
+            """)
+    Stream<ClientCsvRow> streamCsvRows(@Param("keyword") String keyword,
+                                       @Param("city") String city,
+                                       @Param("country") String country);
+
+    /**
+     * Portable client search for databases without {@code pg_trgm}. {@code pattern} is a lower-case, escaped
+     * LIKE pattern; matches are ordered by name.
+     */
+    @Query("""
+                SELECT new com.smartinvoice.client.dto.ClientSearchResultDto(
+                    c.id, c.name, c.email, c.companyName, c.city, c.country, 0.0)
+                FROM Client c
+                WHERE LOWER(c.name) LIKE :pattern ESCAPE '!'
+                   OR LOWER(c.email) LIKE :pattern ESCAPE '!'
+                   OR LOWER(c.companyName) LIKE :pattern ESCAPE '!'
+                ORDER BY c.name, c.id
+            """)
+    List<ClientSearchResultDto> searchByPattern(@Param("pattern") String pattern, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.smartinvoice.client.dto.ClientSuggestionDto(c.id, c.name, c.companyName, c.email) FROM Client c")
+    List<ClientSuggestionDto> findAllSuggestions();
 }
@@ -0,0 +1,153 @@
+package com.smartinvoice.client.service;
+
+import com.smartinvoice.client.dto.ClientSearchResultDto;
+import com.smartinvoice.client.repository.ClientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked, typo-tolerant client search. On PostgreSQL, trigram GIN indexes on the lower-cased name, email and
+ * company are created at startup; searches then match substrings and similar spellings through the index and
+ * rank by similarity, with prefix matches first. The same indexes also serve the {@code LIKE '%kw%'} filters in
+ * {@link ClientService}. Where {@code pg_trgm} is not available the search falls back to a plain LIKE query.
+ * Indexes still being built elsewhere at startup are checked again on a schedule, and trigram search is switched
+ * on once they are all valid.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientSearchService {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+
+    // Built concurrently so a first start on a large table does not block writes to clients
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_clients_name_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_name_trgm ON clients USING gin (lower(name) gin_trgm_ops)",
+            "idx_clients_email_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_email_trgm ON clients USING gin (lower(email) gin_trgm_ops)",
+            "idx_clients_company_name_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_company_name_trgm ON clients USING gin (lower(company_name) gin_trgm_ops)"
+    );
+
+    // A concurrent build that failed or was cancelled leaves an INVALID index behind, which IF NOT EXISTS would
+    // keep forever. One that another instance is still building is left alone.
+    static final String INVALID_INDEX_SQL = """
+            SELECT count(*) > 0 FROM pg_index i
+            WHERE i.indexrelid = to_regclass(?) AND NOT i.indisvalid
+              AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = i.indexrelid)
+            """;
+
+    static final String VALID_INDEX_SQL = "SELECT count(*) > 0 FROM pg_index WHERE indexrelid = to_regclass(?) AND indisvalid";
+
+    // % (whole-value similarity) and <% (similarity to any word) are the indexed pg_trgm operators; LIKE with the
+    // escaped substring pattern is served by the same indexes. Name prefixes rank first, then company prefixes.
+    static final String TRIGRAM_SQL = """
+            SELECT id, name, email, company_name, city, country,
+                   CASE WHEN lower(name) LIKE :prefix ESCAPE '!' THEN 2
+                        WHEN lower(company_name) LIKE :prefix ESCAPE '!' THEN 1
+                        ELSE 0 END
+                   + GREATEST(similarity(lower(name), :term), word_similarity(:term, lower(name)),
+                              word_similarity(:term, lower(email)),
+                              COALESCE(word_similarity(:term, lower(company_name)), 0)) AS score
+            FROM clients
+            WHERE lower(name) % :term OR :term <% lower(name) OR :term <% lower(email)
+               OR :term <% lower(company_name)
+               OR lower(name) LIKE :contains ESCAPE '!' OR lower(email) LIKE :contains ESCAPE '!'
+               OR lower(company_name) LIKE :contains ESCAPE '!'
+            ORDER BY score DESC, name, id
+            LIMIT :limit
+            """;
+
+    private static final RowMapper<ClientSearchResultDto> ROW_MAPPER = (rs, rowNum) -> new ClientSearchResultDto(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getString("company_name"),
+            rs.getString("city"),
+            rs.getString("country"),
+            rs.getDouble("score"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ClientRepository repository;
+
+    private volatile boolean trigramEnabled;
+    private volatile boolean indexesPending;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void createIndexes() {
+        indexesPending = false;
+        try {
+            JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+            String database = jdbc.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(database)) {
+                log.info("Client search uses LIKE matching on {}", database);
+                return;
+            }
+            jdbc.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                if (Boolean.TRUE.equals(jdbc.queryForObject(INVALID_INDEX_SQL, Boolean.class, index.getKey()))) {
+                    log.warn("Rebuilding invalid index {}", index.getKey());
+                    jdbc.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.getKey());
+                }
+                jdbc.execute(index.getValue());
+                if (!Boolean.TRUE.equals(jdbc.queryForObject(VALID_INDEX_SQL, Boolean.class, index.getKey()))) {
+                    log.warn("Index {} is not ready yet, client search uses LIKE matching", index.getKey());
+                    indexesPending = true;
+                    return;
+                }
+            }
+            trigramEnabled = true;
+            log.info("Trigram client search enabled");
+        } catch (DataAccessException e) {
+            log.warn("pg_trgm is not available, client search falls back to LIKE matching: {}", e.getMessage());
+        }
+    }
+
+    // Another instance may still be building an index, or a build failed and left it invalid for us to rebuild
+    @Scheduled(initialDelayString = "${client.search.index-check-delay:60000}",
+            fixedDelayString = "${client.search.index-check-delay:60000}")
+    void recheckIndexes() {
+        if (indexesPending && !trigramEnabled) {
+            createIndexes();
+        }
+    }
+
+    public List<ClientSearchResultDto> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        String term = query.trim().toLowerCase();
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        String escaped = escapeLike(term);
+        String contains = "%" + escaped + "%";
+
+        if (!trigramEnabled) {
+            return repository.searchByPattern(contains, Limit.of(size));
+        }
+        return jdbcTemplate.query(TRIGRAM_SQL, Map.of(
+                "term", term,
+                "prefix", escaped + "%",
+                "contains", contains,
+                "limit", size), ROW_MAPPER);
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
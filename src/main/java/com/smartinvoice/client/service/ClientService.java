@@ -1,31 +1,69 @@
 package com.smartinvoice.client.service;
 
 import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.dto.ClientCsvRow;
 import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.client.dto.ClientRequestDto;
 import com.smartinvoice.client.dto.ClientResponseDto;
 import com.smartinvoice.client.entity.Client;
 import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.listing.ListingDefinition;
+import com.smartinvoice.common.listing.ListingQueryService;
+import com.smartinvoice.common.listing.ListingSort;
+import com.smartinvoice.exception.ResourceInUseException;
 import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.RecordWriter;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
 import org.springframework.data.domain.Sort;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ClientService {
 
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+    private static final int CSV_FLUSH_INTERVAL = 1000;
+    private static final String[] EXPORT_FIELDS =
+            {"id", "name", "email", "companyName", "address", "city", "country", "postcode"};
+    private static final ListingDefinition<Client, ClientResponseDto> LISTING = new ListingDefinition<>(
+            Client.class,
+            ClientResponseDto.class,
+            List.of("id", "name", "email", "companyName", "address", "city", "country", "postcode"),
+            ClientResponseDto::id,
+            Map.of(
+                    "name", ListingSort.ascending("name", ClientResponseDto::name),
+                    "city", ListingSort.ascending("city", ClientResponseDto::city),
+                    "country", ListingSort.ascending("country", ClientResponseDto::country)
+            ),
+            50,
+            200
+    );
+
     private final ClientRepository repository;
     private final AuditLogService auditLogService;
+    private final ExportService exportService;
+    private final ClientSuggestService clientSuggestService;
+    private final ListingQueryService listingQueryService;
+    private final RecurringInvoiceRepository recurringInvoiceRepository;
 
     // Create a new client
     public ClientResponseDto createClient(ClientRequestDto dto) {
@@ -40,6 +78,7 @@ public class ClientService {
                 .build();
 
         Client saved = repository.save(client);
+        clientSuggestService.put(saved);
 
         auditLogService.log("CREATE", "Client", String.valueOf(saved.getId()));
 
@@ -72,6 +111,7 @@ public class ClientService {
         existingClient.setAddress(dto.address());
 
         Client updatedClient = repository.save(existingClient);
+        clientSuggestService.put(updatedClient);
 
         auditLogService.log("UPDATE", "Client", String.valueOf(updatedClient.getId()));
 
@@ -84,10 +124,14 @@ public class ClientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Client not found"));
 
         if (!existingClient.getInvoices().isEmpty()) {
-            throw new IllegalStateException("Client has invoices and cannot be deleted.");
+            throw new ResourceInUseException("Client has invoices and cannot be deleted.");
+        }
+        if (recurringInvoiceRepository.existsByClientId(id)) {
+            throw new ResourceInUseException("Client has recurring invoices and cannot be deleted.");
         }
 
         repository.delete(existingClient);
+        clientSuggestService.remove(existingClient.getId());
 
         auditLogService.log("DELETE", "Client", String.valueOf(existingClient.getId()));
     }
@@ -98,6 +142,13 @@ public class ClientService {
                 .collect(Collectors.toList());
     }
 
+    // Get one bounded page of filtered clients, addressed by page number or by the cursor of the previous page
+    public ListingPage<ClientResponseDto> getClientPage(ClientFilterRequest filters, Integer page, String cursor,
+                                                        Integer limit, boolean count) {
+        String sortBy = filters.sortBy() == null ? null : filters.sortBy().toLowerCase();
+        return listingQueryService.page(LISTING, withFilters(filters), sortBy, page, cursor, limit, count);
+    }
+
     private Specification<Client> withFilters(ClientFilterRequest filters) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -133,30 +184,61 @@ public class ClientService {
     }
 
 
+    /**
+     * Streams the filtered clients as RFC 4180 CSV. Rows are projections read through a forward-only cursor and
+     * written through one buffered printer, so memory stays flat regardless of the number of clients.
+     */
+    @Transactional(readOnly = true)
     public void writeClientsToCsv(HttpServletResponse response, ClientFilterRequest filters) throws IOException {
-        List<Client> clients = repository.findAll(withFilters(filters));
-
         response.setContentType("text/csv");
         response.setHeader("Content-Disposition", "attachment; filename=clients.csv");
 
-        try (PrintWriter writer = response.getWriter()) {
-            writer.println("id,name,email,companyName,address,city,country,postcode");
-
-            clients.forEach(client -> writer.printf("%d,%s,%s,%s,%s,%s,%s,%s%n",
-                    client.getId(),
-                    escapeCsv(client.getName()),
-                    escapeCsv(client.getEmail()),
-                    escapeCsv(client.getCompanyName()),
-                    escapeCsv(client.getAddress()),
-                    escapeCsv(client.getCity()),
-                    escapeCsv(client.getCountry()),
-                    escapeCsv(client.getPostcode())
-            ));
+        try (Writer writer = new BufferedWriter(response.getWriter(), CSV_BUFFER_SIZE)) {
+            writeClients(writer, filters, ExportFormat.CSV, rows -> {});
+        }
+    }
+
+    /**
+     * Writes the filtered clients to {@code writer} in {@code format}, reporting the number of rows written so far
+     * to {@code progress} after every flush. Returns the total number of rows.
+     */
+    @Transactional(readOnly = true)
+    public long writeClients(Writer writer, ClientFilterRequest filters, ExportFormat format,
+                             LongConsumer progress) throws IOException {
+        String keyword = filters.keyword() != null && !filters.keyword().isBlank()
+                ? "%" + filters.keyword().toLowerCase() + "%"
+                : null;
+        RecordWriter out = exportService.openWriter(format, writer, EXPORT_FIELDS);
+
+        long written = 0;
+        try (Stream<ClientCsvRow> rows = repository.streamCsvRows(keyword, lowerOrNull(filters.city()),
+                lowerOrNull(filters.country()))) {
+            Iterator<ClientCsvRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                ClientCsvRow row = iterator.next();
+                out.write(
+                        row.id(),
+                        row.name(),
+                        row.email(),
+                        row.companyName(),
+                        row.address(),
+                        row.city(),
+                        row.country(),
+                        row.postcode()
+                );
+                if (++written % CSV_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                    progress.accept(written);
+                }
+            }
+            out.flush();
         }
+        progress.accept(written);
+        return written;
     }
 
-    private String escapeCsv(String input) {
-        return input != null ? input.replace("\"", "\"\"") : "";
+    private String lowerOrNull(String value) {
+        return value != null && !value.isBlank() ? value.toLowerCase() : null;
     }
 
     private ClientResponseDto mapToDto(Client client) {
@@ -0,0 +1,59 @@
+package com.smartinvoice.client.service;
+
+import com.smartinvoice.client.dto.ClientSuggestionDto;
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.suggest.PrefixIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Client autocomplete served from memory. The index is loaded from a projection at startup, updated by
+ * {@link ClientService} on every write and reloaded periodically to pick up changes made by other instances.
+ */
+@Slf4j
+@Service
+public class ClientSuggestService {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final ClientRepository repository;
+    private final PrefixIndex<ClientSuggestionDto> index = new PrefixIndex<>("clients", ClientSuggestionDto::id,
+            client -> Arrays.asList(client.name(), client.companyName(), client.email()));
+
+    public ClientSuggestService(ClientRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        index.bindTo(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${invoice.suggest.reload-delay:600000}",
+            fixedDelayString = "${invoice.suggest.reload-delay:600000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        index.reload(repository::findAllSuggestions);
+        log.info("Loaded {} clients into the suggest index in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<ClientSuggestionDto> suggest(String q, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return index.search(q, size);
+    }
+
+    public void put(Client client) {
+        index.put(new ClientSuggestionDto(client.getId(), client.getName(), client.getCompanyName(),
+                client.getEmail()));
+    }
+
+    public void remove(Long id) {
+        index.remove(id);
+    }
+}
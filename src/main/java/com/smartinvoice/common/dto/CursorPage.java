@@ -0,0 +1,11 @@
+package com.smartinvoice.common.dto;
+
+import java.util.List;
+
+/**
+ * A single page of a keyset-paginated listing. {@code nextCursor} is null on the last page.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {}
@@ -0,0 +1,26 @@
+package com.smartinvoice.common.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row on a listing page: the sort it was issued for, that row's sort value and its id.
+ * Encoded as an opaque URL-safe token so clients don't depend on its format.
+ */
+public record ListingCursor(String sort, String value, Long id) {
+
+    public String encode() {
+        String raw = sort + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ListingCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 3);
+            return new ListingCursor(parts[0], parts[2], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartinvoice.common.dto;
+
+import java.util.List;
+
+/**
+ * A page of a sortable listing. {@code nextCursor} is null on the last page; {@code totalCount} is only filled in
+ * when the caller asked for it.
+ */
+public record ListingPage<T>(
+        List<T> items,
+        String nextCursor,
+        Long totalCount
+) {}
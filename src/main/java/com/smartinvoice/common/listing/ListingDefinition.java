@@ -0,0 +1,19 @@
+package com.smartinvoice.common.listing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * What a listing selects: the entity {@code columns} passed, in order, to the constructor of {@code resultClass},
+ * and the sorts callers may ask for by name. Without a known sort the listing is in id order.
+ */
+public record ListingDefinition<T, R>(
+        Class<T> entityClass,
+        Class<R> resultClass,
+        List<String> columns,
+        Function<R, Long> idOf,
+        Map<String, ListingSort<R>> sorts,
+        int defaultPageSize,
+        int maxPageSize
+) {}
@@ -0,0 +1,176 @@
+package com.smartinvoice.common.listing;
+
+import com.smartinvoice.common.dto.ListingCursor;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.money.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded listings over an entity. Rows are selected straight into DTOs, so no entity or lazy collection is
+ * loaded. Pages are addressed either by number, for shallow pages, or by the keyset cursor returned with every
+ * page, which stays fast at any depth. Sort keys are backed by the indexes in {@link ListingSortIndexes}. The total
+ * count is a separate query and only runs on request.
+ */
+@Service
+@RequiredArgsConstructor
+public class ListingQueryService {
+
+    static final long MAX_OFFSET = 10_000;
+
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T, R> ListingPage<R> page(ListingDefinition<T, R> listing, Specification<T> filter, String sortBy,
+                                      Integer page, String cursor, Integer limit, boolean count) {
+        boolean hasCursor = cursor != null && !cursor.isBlank();
+        if (hasCursor && page != null) {
+            throw new IllegalArgumentException("Use either page or cursor, not both");
+        }
+        int pageSize = limit == null ? listing.defaultPageSize() : Math.min(Math.max(limit, 1), listing.maxPageSize());
+        String sortKey = sortBy != null && listing.sorts().containsKey(sortBy) ? sortBy : "";
+        ListingSort<R> sort = listing.sorts().get(sortKey);
+
+        ListingCursor after = null;
+        long offset = 0;
+        if (hasCursor) {
+            after = ListingCursor.decode(cursor);
+            if (!after.sort().equals(sortKey)) {
+                throw new IllegalArgumentException("Cursor does not match the sort order");
+            }
+        } else if (page != null) {
+            if (page < 0) {
+                throw new IllegalArgumentException("Page must not be negative");
+            }
+            offset = (long) page * pageSize;
+            if (offset > MAX_OFFSET) {
+                throw new IllegalArgumentException("Page is too deep, continue with the cursor instead");
+            }
+        }
+
+        // Fetch one extra row to find out whether another page exists
+        List<R> rows = find(listing, filter, sort, after, offset, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<R> items = hasNext ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            R last = items.get(items.size() - 1);
+            Object value = sort == null ? null : sort.valueOf().apply(last);
+            nextCursor = new ListingCursor(sortKey, value == null ? "" : value.toString(), listing.idOf().apply(last))
+                    .encode();
+        }
+        Long totalCount = count ? count(listing, filter) : null;
+
+        return new ListingPage<>(List.copyOf(items), nextCursor, totalCount);
+    }
+
+    private <T, R> List<R> find(ListingDefinition<T, R> listing, Specification<T> filter, ListingSort<R> sort,
+                                ListingCursor after, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(listing.resultClass());
+        Root<T> root = query.from(listing.entityClass());
+        query.select(cb.construct(listing.resultClass(),
+                listing.columns().stream().map(root::get).toArray(Selection[]::new)));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate matches = filter.toPredicate(root, query, cb);
+        if (matches != null) {
+            predicates.add(matches);
+        }
+        if (after != null) {
+            predicates.add(after(root, cb, sort, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        Path<Long> id = root.get("id");
+        if (sort == null) {
+            query.orderBy(cb.asc(id));
+        } else {
+            Expression<?> key = sortKey(root, cb, sort);
+            query.orderBy(order(cb, key, sort.descending()), order(cb, id, sort.descending()));
+        }
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private <T> long count(ListingDefinition<T, ?> listing, Specification<T> filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(listing.entityClass());
+        query.select(cb.count(root));
+        Predicate matches = filter.toPredicate(root, query, cb);
+        if (matches != null) {
+            query.where(matches);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> Predicate after(Root<T> root, CriteriaBuilder cb, ListingSort<?> sort, ListingCursor after) {
+        Path<Long> id = root.get("id");
+        boolean descending = sort != null && sort.descending();
+        Predicate idBeyond = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        if (sort == null) {
+            return idBeyond;
+        }
+        Expression key = sortKey(root, cb, sort);
+        Comparable value = parse(key.getJavaType(), after.value());
+        Predicate keyBeyond = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+        return cb.or(keyBeyond, cb.and(cb.equal(key, value), idBeyond));
+    }
+
+    // The '' is a literal rather than a bound parameter, so the SQL matches the expression indexes in ListingSortIndexes
+    @SuppressWarnings("unchecked")
+    private <T> Expression<?> sortKey(Root<T> root, CriteriaBuilder cb, ListingSort<?> sort) {
+        Path<?> path = root.get(sort.property());
+        return path.getJavaType() == String.class ? cb.coalesce((Expression<String>) path, cb.literal("")) : path;
+    }
+
+    private Order order(CriteriaBuilder cb, Expression<?> expression, boolean descending) {
+        return descending ? cb.desc(expression) : cb.asc(expression);
+    }
+
+    private Comparable<?> parse(Class<?> type, String value) {
+        try {
+            if (type == String.class) {
+                return value;
+            } else if (type == Double.class || type == double.class) {
+                return Double.valueOf(value);
+            } else if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            } else if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            } else if (type == Money.class) {
+                return Money.of(new BigDecimal(value));
+            } else if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        throw new IllegalStateException("Unsupported sort type " + type.getName());
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartinvoice.common.listing;
+
+import java.util.function.Function;
+
+/**
+ * Sort order of a listing on one entity property, with ties broken by id in the same direction. {@code valueOf}
+ * reads the property back from a result row to build the next cursor. String properties are compared with nulls
+ * as empty strings so that the keyset stays total.
+ */
+public record ListingSort<R>(String property, boolean descending, Function<R, Object> valueOf) {
+
+    public static <R> ListingSort<R> ascending(String property, Function<R, Object> valueOf) {
+        return new ListingSort<>(property, false, valueOf);
+    }
+
+    public static <R> ListingSort<R> descending(String property, Function<R, Object> valueOf) {
+        return new ListingSort<>(property, true, valueOf);
+    }
+}
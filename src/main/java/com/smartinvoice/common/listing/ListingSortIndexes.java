@@ -0,0 +1,65 @@
+package com.smartinvoice.common.listing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Indexes behind the sortable client and product listings. Text sorts order by {@code coalesce(column, '')}, which
+ * a plain column index cannot serve, so on PostgreSQL matching {@code (coalesce(column, ''), id)} expression indexes
+ * are created at startup. Every page, first or reached by cursor, is then an index range scan that stops after
+ * {@code limit} rows. The price sort is a plain column and is indexed on the entity.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ListingSortIndexes {
+
+    // Built concurrently so a first start on a large table does not block writes
+    static final Map<String, String> INDEXES = Map.of(
+            "idx_clients_name_sort",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_name_sort ON clients ((coalesce(name, '')), id)",
+            "idx_clients_city_sort",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_city_sort ON clients ((coalesce(city, '')), id)",
+            "idx_clients_country_sort",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_country_sort ON clients ((coalesce(country, '')), id)",
+            "idx_products_name_sort",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_sort ON products ((coalesce(name, '')), id)"
+    );
+
+    // A concurrent build that failed leaves an INVALID index behind, which IF NOT EXISTS would keep forever
+    static final String INVALID_INDEX_SQL = """
+            SELECT count(*) > 0 FROM pg_index i
+            WHERE i.indexrelid = to_regclass(?) AND NOT i.indisvalid
+              AND NOT EXISTS (SELECT 1 FROM pg_stat_progress_create_index p WHERE p.index_relid = i.indexrelid)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    void createIndexes() {
+        try {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(database)) {
+                return;
+            }
+            for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(INVALID_INDEX_SQL, Boolean.class, index.getKey()))) {
+                    log.warn("Rebuilding invalid index {}", index.getKey());
+                    jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.getKey());
+                }
+                jdbcTemplate.execute(index.getValue());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not create listing sort indexes, sorted listings scan the table: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.smartinvoice.common.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.Function;
+
+/**
+ * An exact amount of money held as a {@code long} number of minor units (pence). Addition and multiplication by a
+ * quantity never round and allocate nothing beyond the result, so summing large batches of lines stays exact and
+ * cheap. Rounding happens only when a decimal enters the type or a rate is applied, and is always half-even.
+ * In JSON it is a plain decimal number of pounds.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long BASIS_POINTS = 10_000;
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    }
+
+    public static <T> Money sum(Iterable<T> items, Function<? super T, Money> amount) {
+        long total = 0;
+        for (T item : items) {
+            total = Math.addExact(total, amount.apply(item).minorUnits);
+        }
+        return ofMinor(total);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    /**
+     * Returns the share of this amount at {@code basisPoints} (2000 for 20% tax), rounded half-even to the penny.
+     */
+    public Money atRate(long basisPoints) {
+        return ofMinor(divideHalfEven(Math.multiplyExact(minorUnits, basisPoints), BASIS_POINTS));
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long twiceRemainder = Math.abs(dividend % divisor) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartinvoice.common.money;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Converts amount columns that earlier versions created as {@code double precision} to {@code numeric(19,2)}.
+ * Hibernate's schema update adds columns but never changes the type of an existing one, so without this the amounts
+ * {@link Money} writes would still be stored, and summed, as binary floating point. Existing values are rounded to
+ * the penny. A no-op once every column is numeric.
+ * <p>
+ * The {@code EntityManagerFactory} depends on this bean, so the conversion runs while the context is still being
+ * built: before Hibernate's schema update, the scheduled jobs and the web server. The table rewrites therefore never
+ * lock tables under live traffic, and no request is served against the float columns.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MoneyColumnMigration {
+
+    static final Set<String> AMOUNT_COLUMNS = Set.of(
+            "invoices.total_amount",
+            "invoice_lines.unit_price",
+            "invoice_lines.line_total",
+            "products.price",
+            "recurring_invoice_lines.price",
+            "invoice_stats.total_amount",
+            "revenue_daily.issued_amount",
+            "revenue_daily.paid_amount"
+    );
+
+    static final String FLOAT_COLUMNS_SQL = """
+            SELECT table_name, column_name FROM information_schema.columns
+            WHERE table_schema = current_schema() AND data_type IN ('double precision', 'real')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @PostConstruct
+    void initialize() {
+        migrate();
+    }
+
+    public int migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return 0;
+        }
+
+        Map<String, List<String>> columnsByTable = jdbcTemplate.query(FLOAT_COLUMNS_SQL,
+                        (rs, rowNum) -> rs.getString("table_name") + "." + rs.getString("column_name")).stream()
+                .filter(AMOUNT_COLUMNS::contains)
+                .collect(Collectors.groupingBy(column -> column.substring(0, column.indexOf('.')), TreeMap::new,
+                        Collectors.mapping(column -> column.substring(column.indexOf('.') + 1), Collectors.toList())));
+        if (columnsByTable.isEmpty()) {
+            return 0;
+        }
+
+        // One statement per table, so each table is rewritten once
+        columnsByTable.forEach((table, columns) -> jdbcTemplate.execute("ALTER TABLE " + table + " "
+                + columns.stream()
+                .map(column -> "ALTER COLUMN " + column + " TYPE numeric(19,2)")
+                .collect(Collectors.joining(", "))));
+
+        // Statements prepared against the old column types fail once; start over with fresh connections
+        if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            hikari.getHikariPoolMXBean().softEvictConnections();
+        }
+        int migrated = columnsByTable.values().stream().mapToInt(List::size).sum();
+        log.info("Converted {} amount column(s) to numeric: {}", migrated, columnsByTable);
+        return migrated;
+    }
+
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMigration() {
+            super(MoneyColumnMigration.class);
+        }
+    }
+}
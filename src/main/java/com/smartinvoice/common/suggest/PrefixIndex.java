@@ -0,0 +1,224 @@
+package com.smartinvoice.common.suggest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory typeahead index. Every word of every indexed field, and each whole field, is stored lower-cased in a
+ * sorted skip list keyed by {@code token + '\0' + id}, so a prefix lookup is a range scan that stops after
+ * {@code limit} distinct entries. Lookups never block. Writes are serialised, so two updates of the same entry
+ * cannot interleave their token changes. {@link #reload} builds a fresh index while writes continue against the
+ * current one, then replays those writes onto the fresh index and swaps it in, so no update is lost to a reload.
+ */
+public class PrefixIndex<T> implements MeterBinder {
+
+    private static final char SEPARATOR = '\0';
+    // Rough per-key cost of a skip list node, its key string and the boxed id
+    private static final int KEY_OVERHEAD_BYTES = 96;
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final String name;
+    private final Function<T, Long> idOf;
+    private final Function<T, List<String>> fieldsOf;
+    private volatile State<T> state = new State<>();
+    private final Object writeLock = new Object();
+    private final Object reloadLock = new Object();
+    // Writes made while a reload is loading and building, replayed onto the fresh state; guarded by writeLock
+    private List<Consumer<State<T>>> pendingWrites;
+    private Timer lookupTimer;
+
+    public PrefixIndex(String name, Function<T, Long> idOf, Function<T, List<String>> fieldsOf) {
+        this.name = name;
+        this.idOf = idOf;
+        this.fieldsOf = fieldsOf;
+    }
+
+    public void put(T entry) {
+        write(target -> put(target, entry));
+    }
+
+    public void remove(Long id) {
+        write(target -> remove(target, id));
+    }
+
+    public void replaceAll(Collection<T> entries) {
+        reload(() -> entries);
+    }
+
+    /**
+     * Replaces the index with the entries returned by {@code loader}. Writes made while the loader runs are applied
+     * on top of its result, so an entry saved after the loader read its snapshot is not lost.
+     */
+    public void reload(Supplier<? extends Collection<T>> loader) {
+        synchronized (reloadLock) {
+            synchronized (writeLock) {
+                pendingWrites = new ArrayList<>();
+            }
+            try {
+                State<T> fresh = new State<>();
+                for (T entry : loader.get()) {
+                    put(fresh, entry);
+                }
+                synchronized (writeLock) {
+                    pendingWrites.forEach(write -> write.accept(fresh));
+                    state = fresh;
+                }
+            } finally {
+                synchronized (writeLock) {
+                    pendingWrites = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entries having a word or field that starts with {@code prefix}, ordered by the
+     * matching token.
+     */
+    public List<T> search(String prefix, int limit) {
+        long start = System.nanoTime();
+        try {
+            String normalized = prefix == null ? "" : prefix.trim().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty() || limit < 1) {
+                return List.of();
+            }
+            State<T> current = state;
+            ConcurrentNavigableMap<String, Long> range =
+                    current.tokens.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+
+            Set<Long> ids = new LinkedHashSet<>();
+            for (Long id : range.values()) {
+                if (ids.add(id) && ids.size() == limit) {
+                    break;
+                }
+            }
+            List<T> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                T entry = current.entries.get(id);
+                if (entry != null) {
+                    results.add(entry);
+                }
+            }
+            return results;
+        } finally {
+            if (lookupTimer != null) {
+                lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public int size() {
+        return state.entries.size();
+    }
+
+    /**
+     * Approximate heap used by the index, in bytes.
+     */
+    public long estimatedBytes() {
+        State<T> current = state;
+        return current.tokenChars.get() + (long) current.tokens.size() * KEY_OVERHEAD_BYTES
+                + (long) current.entries.size() * ENTRY_OVERHEAD_BYTES;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("suggest.index.entries", this, PrefixIndex::size)
+                .tag("index", name)
+                .register(registry);
+        Gauge.builder("suggest.index.tokens", this, index -> index.state.tokens.size())
+                .tag("index", name)
+                .register(registry);
+        Gauge.builder("suggest.index.memory", this, PrefixIndex::estimatedBytes)
+                .tag("index", name)
+                .baseUnit("bytes")
+                .register(registry);
+        lookupTimer = Timer.builder("suggest.lookup")
+                .tag("index", name)
+                .description("Typeahead prefix lookup latency")
+                .register(registry);
+    }
+
+    private void write(Consumer<State<T>> write) {
+        synchronized (writeLock) {
+            write.accept(state);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+
+    private void put(State<T> target, T entry) {
+        Long id = idOf.apply(entry);
+        T previous = target.entries.put(id, entry);
+        if (previous != null) {
+            removeTokens(target, previous, id);
+        }
+        addTokens(target, entry, id);
+    }
+
+    private void remove(State<T> target, Long id) {
+        T previous = target.entries.remove(id);
+        if (previous != null) {
+            removeTokens(target, previous, id);
+        }
+    }
+
+    private void addTokens(State<T> target, T entry, Long id) {
+        for (String token : tokens(entry)) {
+            String key = token + SEPARATOR + id;
+            if (target.tokens.put(key, id) == null) {
+                target.tokenChars.addAndGet(key.length());
+            }
+        }
+    }
+
+    private void removeTokens(State<T> target, T entry, Long id) {
+        for (String token : tokens(entry)) {
+            String key = token + SEPARATOR + id;
+            if (target.tokens.remove(key) != null) {
+                target.tokenChars.addAndGet(-key.length());
+            }
+        }
+    }
+
+    private Set<String> tokens(T entry) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fieldsOf.apply(entry)) {
+            if (field == null || field.isBlank()) {
+                continue;
+            }
+            String value = field.trim().toLowerCase(Locale.ROOT);
+            tokens.add(value);
+            for (String word : value.split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    tokens.add(word);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static final class State<T> {
+        private final ConcurrentSkipListMap<String, Long> tokens = new ConcurrentSkipListMap<>();
+        private final Map<Long, T> entries = new ConcurrentHashMap<>();
+        private final AtomicLong tokenChars = new AtomicLong();
+    }
+}
@@ -0,0 +1,11 @@
+package com.smartinvoice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ResourceInUseException extends IllegalStateException {
+    public ResourceInUseException(String message) {
+        super(message);
+    }
+}
@@ -4,7 +4,9 @@ import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.client.service.ClientService;
 import com.smartinvoice.export.dto.ExportClientFilterRequest;
 import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
 import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.InvoicePdfArchiveService;
 import com.smartinvoice.invoice.service.InvoiceService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +27,7 @@ public class ExportController {
     private final ClientService clientService;
     private final InvoiceService invoiceService;
     private final ExportService exportService;
+    private final InvoicePdfArchiveService invoicePdfArchiveService;
 
     @GetMapping("/clients/csv")
     public void exportClientsToCsv(
@@ -39,6 +42,25 @@ public class ExportController {
         clientService.writeClientsToCsv(response, adapted);
     }
 
+    /**
+     * Same filters as {@code /clients/csv}, in any {@link ExportFormat} and optionally gzip-compressed.
+     */
+    @GetMapping("/clients")
+    public void exportClients(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String companyName,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        ClientFilterRequest filters = exportService.mapToClientFilter(
+                new ExportClientFilterRequest(name, companyName, city, country));
+        exportService.writeAttachment(response, "clients", format, gzip,
+                (writer, progress) -> clientService.writeClients(writer, filters, format, progress));
+    }
+
     @GetMapping("/invoices/csv")
     public void exportInvoicesToCsv(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDate,
@@ -51,4 +73,36 @@ public class ExportController {
         InvoiceFilterRequest filters = new InvoiceFilterRequest(issueDate, dueDate, clientId, isPaid);
         invoiceService.exportInvoicesToCsv(response, filters);
     }
+
+    /**
+     * Same filters as {@code /invoices/csv}, in any {@link ExportFormat} and optionally gzip-compressed.
+     */
+    @GetMapping("/invoices")
+    public void exportInvoices(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Boolean isPaid,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        exportService.validateInvoiceDates(issueDate, dueDate);
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(issueDate, dueDate, clientId, isPaid);
+        exportService.writeAttachment(response, "invoices", format, gzip,
+                (writer, progress) -> invoiceService.writeInvoices(writer, filters, format, progress));
+    }
+
+    @GetMapping("/invoices/pdf.zip")
+    public void exportInvoicePdfs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Boolean isPaid,
+            HttpServletResponse response) throws IOException {
+
+        exportService.validateInvoiceDates(issueDate, dueDate);
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(issueDate, dueDate, clientId, isPaid);
+        invoicePdfArchiveService.writeInvoicePdfZip(response, filters);
+    }
 }
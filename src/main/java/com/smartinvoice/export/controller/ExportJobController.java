@@ -0,0 +1,89 @@
+package com.smartinvoice.export.controller;
+
+import com.smartinvoice.client.dto.ClientFilterRequest;
+import com.smartinvoice.client.service.ClientService;
+import com.smartinvoice.export.dto.ExportClientFilterRequest;
+import com.smartinvoice.export.dto.ExportJobResponseDto;
+import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportJob;
+import com.smartinvoice.export.service.ExportJobService;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.invoice.service.InvoiceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/export/jobs")
+@RequiredArgsConstructor
+public class ExportJobController {
+
+    private final ClientService clientService;
+    private final InvoiceService invoiceService;
+    private final ExportService exportService;
+    private final ExportJobService exportJobService;
+
+    @PostMapping("/clients")
+    public ResponseEntity<ExportJobResponseDto> submitClientExport(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String companyName,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ClientFilterRequest filters = exportService.mapToClientFilter(
+                new ExportClientFilterRequest(name, companyName, city, country));
+        ExportJobResponseDto job = exportJobService.submit("clients", format, gzip,
+                (writer, progress) -> clientService.writeClients(writer, filters, format, progress));
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @PostMapping("/invoices")
+    public ResponseEntity<ExportJobResponseDto> submitInvoiceExport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate issueDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDate,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Boolean isPaid,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        exportService.validateInvoiceDates(issueDate, dueDate);
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(issueDate, dueDate, clientId, isPaid);
+        ExportJobResponseDto job = exportJobService.submit("invoices", format, gzip,
+                (writer, progress) -> invoiceService.writeInvoices(writer, filters, format, progress));
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ExportJobResponseDto getJob(@PathVariable String jobId) {
+        return exportJobService.getJob(jobId);
+    }
+
+    /**
+     * Serves the finished file. Range requests are answered with 206 Partial Content, so interrupted downloads can
+     * be resumed.
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> download(@PathVariable String jobId) {
+        ExportJob job = exportJobService.getCompletedJob(jobId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportService.contentType(job.getFormat(), job.isGzip())))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(new FileSystemResource(job.getFile()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartinvoice.export.dto;
+
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportJob;
+
+import java.time.LocalDateTime;
+
+public record ExportJobResponseDto(
+        String jobId,
+        String type,
+        ExportFormat format,
+        ExportJob.Status status,
+        long rowsWritten,
+        Long sizeBytes,
+        String fileName,
+        LocalDateTime createdAt,
+        LocalDateTime completedAt,
+        LocalDateTime expiresAt,
+        String error
+) {}
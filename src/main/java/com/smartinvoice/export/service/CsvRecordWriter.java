@@ -0,0 +1,26 @@
+package com.smartinvoice.export.service;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class CsvRecordWriter implements RecordWriter {
+
+    private final CSVPrinter printer;
+
+    CsvRecordWriter(Writer out, String... columns) throws IOException {
+        this.printer = new CSVPrinter(out, CSVFormat.RFC4180.builder().setHeader(columns).build());
+    }
+
+    @Override
+    public void write(Object... values) throws IOException {
+        printer.printRecord(values);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        printer.flush();
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartinvoice.export.service;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * In-memory state of a background export. Fields are written by the worker thread and read by status requests,
+ * hence volatile.
+ */
+@Getter
+public class ExportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String type;
+    private final ExportFormat format;
+    private final boolean gzip;
+    private final Path file;
+    private final LocalDateTime createdAt;
+    private volatile Status status = Status.QUEUED;
+    private volatile long rowsWritten;
+    private volatile Long sizeBytes;
+    private volatile String error;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime completedAt;
+    private volatile LocalDateTime expiresAt;
+
+    ExportJob(String id, String type, ExportFormat format, boolean gzip, Path file, LocalDateTime createdAt) {
+        this.id = id;
+        this.type = type;
+        this.format = format;
+        this.gzip = gzip;
+        this.file = file;
+        this.createdAt = createdAt;
+    }
+
+    public String getFileName() {
+        return file.getFileName().toString();
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void progress(long rows) {
+        rowsWritten = rows;
+    }
+
+    void complete(long rows, long size, LocalDateTime expiresAt) {
+        this.rowsWritten = rows;
+        this.sizeBytes = size;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error, LocalDateTime expiresAt) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+        this.status = Status.FAILED;
+    }
+}
@@ -0,0 +1,175 @@
+package com.smartinvoice.export.service;
+
+import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.export.dto.ExportJobResponseDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs exports in the background so large downloads don't hold a request thread. Each job writes to a spool file
+ * (optionally gzip-compressed) that stays downloadable until {@code jobTtl} after it finished.
+ */
+@Slf4j
+@Service
+public class ExportJobService {
+
+    private final ExportProperties properties;
+    private final ExportService exportService;
+    private final Path spoolDirectory;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ExportJobService(ExportProperties properties, ExportService exportService) {
+        this.properties = properties;
+        this.exportService = exportService;
+        this.spoolDirectory = Paths.get(properties.getSpoolDirectory());
+        try {
+            Files.createDirectories(spoolDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create export spool directory " + spoolDirectory, e);
+        }
+        this.executor = new ThreadPoolExecutor(properties.getJobThreads(), properties.getJobThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getJobQueueCapacity()),
+                new CustomizableThreadFactory("export-job-"));
+    }
+
+    public ExportJobResponseDto submit(String type, ExportFormat format, boolean gzip, ExportTask task) {
+        String id = UUID.randomUUID().toString();
+        String fileName = exportService.fileName(type + "-" + id, format, gzip);
+        ExportJob job = new ExportJob(id, type, format, gzip, spoolDirectory.resolve(fileName), LocalDateTime.now());
+        jobs.put(id, job);
+
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many export jobs in progress");
+        }
+        return toDto(job);
+    }
+
+    public ExportJobResponseDto getJob(String id) {
+        return toDto(findJob(id));
+    }
+
+    /**
+     * Returns a job whose file is ready to download.
+     */
+    public ExportJob getCompletedJob(String id) {
+        ExportJob job = findJob(id);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Export job is " + job.getStatus());
+        }
+        return job;
+    }
+
+    private ExportJob findJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export job not found");
+        }
+        return job;
+    }
+
+    private void run(ExportJob job, ExportTask task) {
+        job.start();
+        Path part = job.getFile().resolveSibling(job.getFileName() + ".part");
+        try {
+            long rows;
+            try (Writer writer = exportService.openOutput(Files.newOutputStream(part), job.isGzip())) {
+                rows = task.write(writer, job::progress);
+            }
+            Files.move(part, job.getFile(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            job.complete(rows, Files.size(job.getFile()), LocalDateTime.now().plus(properties.getJobTtl()));
+            log.info("Export job {} finished: {} rows, {} bytes", job.getId(), rows, job.getSizeBytes());
+        } catch (Exception e) {
+            log.error("Export job {} failed", job.getId(), e);
+            deleteQuietly(part);
+            job.fail(e.getClass().getSimpleName() + ": " + e.getMessage(),
+                    LocalDateTime.now().plus(properties.getJobTtl()));
+        }
+    }
+
+    /**
+     * Forgets expired jobs and deletes their files, including files left behind by a previous run of the
+     * application. Returns the number of files deleted.
+     */
+    @Scheduled(fixedDelayString = "${invoice.export.job-purge-delay:600000}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = 0;
+        for (ExportJob job : jobs.values()) {
+            if (job.getExpiresAt() != null && job.getExpiresAt().isBefore(now)) {
+                jobs.remove(job.getId());
+                if (deleteQuietly(job.getFile())) {
+                    deleted++;
+                }
+            }
+        }
+
+        Instant cutoff = Instant.now().minus(properties.getJobTtl());
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && deleteQuietly(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to scan export spool directory {}", spoolDirectory, e);
+        }
+        return deleted;
+    }
+
+    private boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete export file {}", file, e);
+            return false;
+        }
+    }
+
+    private ExportJobResponseDto toDto(ExportJob job) {
+        return new ExportJobResponseDto(
+                job.getId(),
+                job.getType(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getRowsWritten(),
+                job.getSizeBytes(),
+                job.getFileName(),
+                job.getCreatedAt(),
+                job.getCompletedAt(),
+                job.getExpiresAt(),
+                job.getError()
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
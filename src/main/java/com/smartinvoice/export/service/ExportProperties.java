@@ -0,0 +1,29 @@
+package com.smartinvoice.export.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "invoice.export")
+public class ExportProperties {
+    // Rows read from the database per round-trip
+    private int chunkSize = 200;
+    // Threads rendering PDFs for archive exports
+    private int pdfThreads = Runtime.getRuntime().availableProcessors();
+    // PDFs rendered ahead of the one being written to the archive
+    private int pdfWindow = 2 * Runtime.getRuntime().availableProcessors();
+    // Background export jobs running at the same time
+    private int jobThreads = 2;
+    // Export jobs waiting for a free thread before new submissions are rejected
+    private int jobQueueCapacity = 20;
+    // Directory holding finished export files
+    private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/smart-invoice-exports";
+    // How long a finished export stays downloadable
+    private Duration jobTtl = Duration.ofHours(24);
+}
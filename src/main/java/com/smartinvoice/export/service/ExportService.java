@@ -2,12 +2,23 @@ package com.smartinvoice.export.service;
 
 import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.export.dto.ExportClientFilterRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public ClientFilterRequest mapToClientFilter(ExportClientFilterRequest req) {
         String keyword = buildKeyword(req.name(), req.companyName());
         return new ClientFilterRequest(keyword, req.city(), req.country(), null);
@@ -19,6 +30,46 @@ public class ExportService {
         }
     }
 
+    /**
+     * Opens a row writer for {@code format}. CSV gets a header line, NDJSON uses the columns as field names.
+     */
+    public RecordWriter openWriter(ExportFormat format, Writer out, String... columns) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvRecordWriter(out, columns);
+            case NDJSON -> new NdjsonRecordWriter(out, columns);
+        };
+    }
+
+    /**
+     * Wraps {@code out} in a buffered UTF-8 writer, gzip-compressed when asked. Closing the writer finishes the
+     * gzip trailer and closes {@code out}.
+     */
+    public Writer openOutput(OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+        return new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    public String fileName(String baseName, ExportFormat format, boolean gzip) {
+        return baseName + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    public String contentType(ExportFormat format, boolean gzip) {
+        return gzip ? "application/gzip" : format.getContentType();
+    }
+
+    /**
+     * Streams an export straight to the response as a file attachment.
+     */
+    public long writeAttachment(HttpServletResponse response, String baseName, ExportFormat format, boolean gzip,
+                                ExportTask task) throws IOException {
+        response.setContentType(contentType(format, gzip));
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName(baseName, format, gzip));
+
+        try (Writer writer = openOutput(response.getOutputStream(), gzip)) {
+            return task.write(writer, rows -> {});
+        }
+    }
+
     private String buildKeyword(String name, String companyName) {
         if (name == null && companyName == null) return null;
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,14 @@
+package com.smartinvoice.export.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.LongConsumer;
+
+/**
+ * Writes an export to {@code writer}, reporting the rows written so far to {@code progress}. Returns the total
+ * number of rows.
+ */
+@FunctionalInterface
+public interface ExportTask {
+    long write(Writer writer, LongConsumer progress) throws IOException;
+}
@@ -0,0 +1,129 @@
+package com.smartinvoice.export.service;
+
+import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the PDFs of all invoices matching the export filters into a ZIP archive on the response. Invoices are read
+ * in id-ordered chunks and rendered on a bounded pool; at most {@code pdfWindow} rendered documents are held while
+ * waiting for their turn, so memory does not grow with the number of invoices. Cached PDFs are reused, but the
+ * documents rendered here are not added to the cache.
+ */
+@Slf4j
+@Service
+public class InvoicePdfArchiveService {
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfCache invoicePdfCache;
+    private final ExportProperties properties;
+    private final ExecutorService renderPool;
+
+    public InvoicePdfArchiveService(InvoiceRepository invoiceRepository,
+                                    InvoicePdfCache invoicePdfCache,
+                                    ExportProperties properties) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoicePdfCache = invoicePdfCache;
+        this.properties = properties;
+        this.renderPool = Executors.newFixedThreadPool(properties.getPdfThreads(),
+                new CustomizableThreadFactory("export-pdf-"));
+    }
+
+    public void writeInvoicePdfZip(HttpServletResponse response, InvoiceFilterRequest filters) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader("Content-Disposition", "attachment; filename=invoices.zip");
+
+        Deque<RenderedPdf> window = new ArrayDeque<>();
+        int written = 0;
+
+        // Not closed on failure, so an aborted export never ends with a central directory that looks complete
+        ZipOutputStream zip = new ZipOutputStream(response.getOutputStream());
+        // PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        try {
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                ids = invoiceRepository.findExportIdsAfter(filters.issueDate(), filters.dueDate(), filters.clientId(),
+                        filters.isPaid(), afterId, Limit.of(properties.getChunkSize()));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                afterId = ids.get(ids.size() - 1);
+
+                List<Invoice> invoices = invoiceRepository.findAllWithDetailsByIdIn(ids).stream()
+                        .sorted(Comparator.comparing(Invoice::getId))
+                        .toList();
+                for (Invoice invoice : invoices) {
+                    window.addLast(new RenderedPdf(entryName(invoice),
+                            CompletableFuture.supplyAsync(() -> invoicePdfCache.getCachedOrRender(invoice), renderPool)));
+                    if (window.size() >= properties.getPdfWindow()) {
+                        writeEntry(zip, window.removeFirst());
+                        written++;
+                    }
+                }
+            } while (ids.size() == properties.getChunkSize());
+
+            while (!window.isEmpty()) {
+                writeEntry(zip, window.removeFirst());
+                written++;
+            }
+            zip.finish();
+        } finally {
+            window.forEach(pending -> pending.pdf().cancel(false));
+        }
+
+        log.info("Exported {} invoice PDF(s) as ZIP", written);
+    }
+
+    private void writeEntry(ZipOutputStream zip, RenderedPdf pending) throws IOException {
+        byte[] pdf;
+        try {
+            pdf = pending.pdf().join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to render " + pending.name(), e.getCause());
+        }
+        zip.putNextEntry(new ZipEntry(pending.name()));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    /**
+     * Invoice numbers are not unique and sanitising can merge distinct ones, so the id keeps every entry name unique;
+     * a duplicate would otherwise abort the archive after the response has started.
+     */
+    private String entryName(Invoice invoice) {
+        if (invoice.getInvoiceNumber() == null) {
+            return "Invoice-" + invoice.getId() + ".pdf";
+        }
+        return "Invoice-" + invoice.getInvoiceNumber().replaceAll("[^A-Za-z0-9._-]", "_") + "-" + invoice.getId() + ".pdf";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdown();
+    }
+
+    private record RenderedPdf(String name, CompletableFuture<byte[]> pdf) {}
+}
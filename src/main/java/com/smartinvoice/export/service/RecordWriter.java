@@ -0,0 +1,12 @@
+package com.smartinvoice.export.service;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes export rows one at a time in a particular {@link ExportFormat}. The underlying writer is owned by the
+ * caller and is not closed.
+ */
+public interface RecordWriter extends Flushable {
+    void write(Object... values) throws IOException;
+}
@@ -1,8 +1,11 @@
 package com.smartinvoice.invoice.controller;
 
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.invoice.dto.EmailJobResponseDto;
 import com.smartinvoice.invoice.dto.InvoiceSearchFilter;
 import com.smartinvoice.invoice.dto.InvoiceRequestDto;
 import com.smartinvoice.invoice.dto.InvoiceResponseDto;
+import com.smartinvoice.invoice.email.EmailOutboxService;
 import com.smartinvoice.invoice.service.InvoiceService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -19,6 +23,7 @@ import java.util.List;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final EmailOutboxService emailOutboxService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -34,6 +39,15 @@ public class InvoiceController {
     }
 
 
+    @GetMapping("/page")
+    public CursorPage<InvoiceResponseDto> getInvoicePage(
+            @ModelAttribute InvoiceSearchFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return invoiceService.getInvoicePage(filter, cursor, limit);
+    }
+
     @GetMapping("/{id}")
     public InvoiceResponseDto getInvoiceById(@PathVariable Long id) {
         return invoiceService.getInvoiceById(id);
@@ -46,8 +60,8 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> getInvoicePdf(@PathVariable Long id) {
-        byte[] pdf = invoiceService.getInvoicePdf(id);
+    public ResponseEntity<StreamingResponseBody> getInvoicePdf(@PathVariable Long id) {
+        StreamingResponseBody pdf = invoiceService.streamInvoicePdf(id);
         return ResponseEntity.ok()
                 .header("Content-Disposition", "attachment; filename=invoice-" + id + ".pdf")
                 .contentType(MediaType.APPLICATION_PDF)
@@ -55,9 +69,14 @@ public class InvoiceController {
     }
 
     @PostMapping("/{id}/email")
-    @ResponseStatus(HttpStatus.OK)
-    public void emailInvoiceToClient(@PathVariable Long id) {
-        invoiceService.emailInvoiceToClient(id);
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public EmailJobResponseDto emailInvoiceToClient(@PathVariable Long id) {
+        return invoiceService.emailInvoiceToClient(id);
+    }
+
+    @GetMapping("/email-jobs/{jobId}")
+    public EmailJobResponseDto getEmailJob(@PathVariable Long jobId) {
+        return emailOutboxService.getJob(jobId);
     }
 
     @PatchMapping("/{id}/mark-paid")
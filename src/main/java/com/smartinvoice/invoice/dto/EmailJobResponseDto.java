@@ -0,0 +1,13 @@
+package com.smartinvoice.invoice.dto;
+
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+
+import java.time.LocalDateTime;
+
+public record EmailJobResponseDto(
+        Long jobId,
+        Long invoiceId,
+        EmailOutboxMessage.DeliveryStatus status,
+        int attempts,
+        LocalDateTime sentAt
+) {}
@@ -0,0 +1,15 @@
+package com.smartinvoice.invoice.dto;
+
+import com.smartinvoice.common.money.Money;
+
+import java.time.LocalDate;
+
+public record InvoiceCsvRow(
+        Long id,
+        String invoiceNumber,
+        LocalDate issueDate,
+        LocalDate dueDate,
+        String clientName,
+        Money totalAmount,
+        Boolean isPaid
+) {}
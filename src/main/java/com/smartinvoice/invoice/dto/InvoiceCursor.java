@@ -0,0 +1,32 @@
+package com.smartinvoice.invoice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last invoice on a page, ordered by {@code (issueDate desc, id desc)}.
+ * Encoded as an opaque URL-safe token so clients don't depend on its format.
+ */
+public record InvoiceCursor(LocalDate issueDate, Long id) {
+
+    public static InvoiceCursor of(InvoiceSummary last) {
+        return new InvoiceCursor(last.issueDate(), last.id());
+    }
+
+    public String encode() {
+        String raw = issueDate + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static InvoiceCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            return new InvoiceCursor(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.smartinvoice.invoice.dto;
+
+public record InvoiceProductRef(
+        Long invoiceId,
+        Long productId
+) {}
@@ -1,5 +1,6 @@
 package com.smartinvoice.invoice.dto;
 
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.invoice.entity.Invoice;
 
 import java.time.LocalDate;
@@ -12,7 +13,7 @@ public record InvoiceResponseDto(
         String invoiceNumber,
         LocalDate issueDate,
         LocalDate dueDate,
-        double totalAmount,
+        Money totalAmount,
         Long clientId,
         List<Long> productIds,
         Boolean isPaid,
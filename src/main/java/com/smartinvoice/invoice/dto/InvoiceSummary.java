@@ -0,0 +1,22 @@
+package com.smartinvoice.invoice.dto;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.entity.Invoice;
+
+import java.time.LocalDate;
+
+/**
+ * Flat projection of the invoice columns needed for listings, selected in one query together with the client.
+ */
+public record InvoiceSummary(
+        Long id,
+        String clientName,
+        String email,
+        String invoiceNumber,
+        LocalDate issueDate,
+        LocalDate dueDate,
+        Money totalAmount,
+        Long clientId,
+        Boolean isPaid,
+        Invoice.InvoiceStatus status
+) {}
@@ -1,7 +1,11 @@
 package com.smartinvoice.invoice.dto;
 
+import com.smartinvoice.common.money.Money;
+import jakarta.validation.constraints.NotNull;
+
 public record ProductDto(
         Long productId,
         int quantity,
-        double price
+        @NotNull(message = "Price is required")
+        Money price
 ) {}
@@ -0,0 +1,250 @@
+package com.smartinvoice.invoice.email;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage.DeliveryStatus;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
+import com.smartinvoice.invoice.repository.EmailOutboxRepository;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the email outbox in batches. Each batch is claimed with {@code SKIP LOCKED}, its PDFs are rendered in
+ * parallel and the messages are then split across at most {@code mailConcurrency} SMTP connections on a separate
+ * sender pool. The next batch is only claimed once the current one is sent, so {@code batchSize} bounds the
+ * messages rendered but not yet delivered. Failed messages are retried with exponential backoff until
+ * {@code maxAttempts}, after which they are marked FAILED.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final List<DeliveryStatus> CLAIMABLE = List.of(DeliveryStatus.PENDING, DeliveryStatus.SENDING);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfCache invoicePdfCache;
+    private final EmailService emailService;
+    private final AuditLogService auditLogService;
+    private final EmailOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService renderPool;
+    private final ExecutorService mailPool;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 InvoiceRepository invoiceRepository,
+                                 InvoicePdfCache invoicePdfCache,
+                                 EmailService emailService,
+                                 AuditLogService auditLogService,
+                                 EmailOutboxProperties properties,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.invoicePdfCache = invoicePdfCache;
+        this.emailService = emailService;
+        this.auditLogService = auditLogService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.renderPool = Executors.newFixedThreadPool(properties.getRenderThreads(),
+                new CustomizableThreadFactory("email-render-"));
+        this.mailPool = Executors.newFixedThreadPool(properties.getMailConcurrency(),
+                new CustomizableThreadFactory("email-mail-"));
+        this.sentCounter = Counter.builder("invoice.email.sent").register(meterRegistry);
+        this.retriedCounter = Counter.builder("invoice.email.retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("invoice.email.failed").register(meterRegistry);
+    }
+
+    /**
+     * Sends batches until the outbox has nothing due. Returns the number of messages delivered.
+     */
+    @Scheduled(fixedDelayString = "${invoice.email.outbox.poll-delay:5000}")
+    public int dispatchPending() {
+        int delivered = 0;
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            if (!batch.isEmpty()) {
+                delivered += deliver(batch);
+            }
+        } while (batch.size() == properties.getBatchSize());
+        return delivered;
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutboxMessage> batch = outboxRepository.findDueForDelivery(CLAIMABLE, now,
+                    Limit.of(properties.getBatchSize()));
+            for (EmailOutboxMessage message : batch) {
+                message.setStatus(DeliveryStatus.SENDING);
+                message.setNextAttemptAt(now.plus(properties.getSendingTimeout()));
+            }
+            return outboxRepository.saveAll(batch);
+        });
+    }
+
+    private int deliver(List<EmailOutboxMessage> batch) {
+        Map<Long, Invoice> invoices = invoiceRepository.findAllWithDetailsByIdIn(
+                        batch.stream().map(EmailOutboxMessage::getInvoiceId).toList())
+                .stream()
+                .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+
+        Map<EmailOutboxMessage, String> errors = new ConcurrentHashMap<>();
+        Set<EmailOutboxMessage> undeliverable = ConcurrentHashMap.newKeySet();
+        Map<MimeMessage, EmailOutboxMessage> outgoing = new IdentityHashMap<>();
+        List<CompletableFuture<MimeMessage>> rendering = new ArrayList<>(batch.size());
+
+        for (EmailOutboxMessage message : batch) {
+            Invoice invoice = invoices.get(message.getInvoiceId());
+            if (invoice == null) {
+                errors.put(message, "Invoice not found");
+                undeliverable.add(message);
+                continue;
+            }
+            rendering.add(CompletableFuture.supplyAsync(() -> toMimeMessage(message, invoice), renderPool)
+                    .whenComplete((mime, error) -> {
+                        synchronized (outgoing) {
+                            if (error != null) {
+                                errors.put(message, describe(error));
+                            } else {
+                                outgoing.put(mime, message);
+                            }
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(rendering.toArray(new CompletableFuture<?>[0]))
+                .exceptionally(error -> null)
+                .join();
+
+        if (!outgoing.isEmpty()) {
+            send(outgoing, errors);
+        }
+
+        List<EmailOutboxMessage> sent = batch.stream().filter(m -> !errors.containsKey(m)).toList();
+        transactionTemplate.executeWithoutResult(status -> recordOutcome(batch, errors, undeliverable));
+        sent.stream()
+                .filter(m -> m.getInvoiceId() != null)
+                .forEach(m -> auditLogService.log("EMAIL_SENT", "Invoice", String.valueOf(m.getInvoiceId())));
+
+        log.info("Email batch finished: {} sent, {} failed", sent.size(), errors.size());
+        return sent.size();
+    }
+
+    private MimeMessage toMimeMessage(EmailOutboxMessage message, Invoice invoice) {
+        byte[] pdf = invoicePdfCache.getOrRender(invoice);
+        return emailService.createInvoiceMessage(message.getRecipient(), message.getSubject(), message.getBody(),
+                pdf, message.getAttachmentName());
+    }
+
+    /**
+     * Splits the rendered batch into up to {@code mailConcurrency} contiguous chunks, each sent over its own
+     * connection, and waits for all of them.
+     */
+    private void send(Map<MimeMessage, EmailOutboxMessage> outgoing, Map<EmailOutboxMessage, String> errors) {
+        List<MimeMessage> messages = new ArrayList<>(outgoing.keySet());
+        int connections = Math.min(properties.getMailConcurrency(), messages.size());
+        int chunkSize = (messages.size() + connections - 1) / connections;
+
+        List<CompletableFuture<Void>> sending = new ArrayList<>(connections);
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<MimeMessage> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            sending.add(CompletableFuture.runAsync(() -> sendChunk(chunk, outgoing, errors), mailPool));
+        }
+        CompletableFuture.allOf(sending.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void sendChunk(List<MimeMessage> chunk, Map<MimeMessage, EmailOutboxMessage> outgoing,
+                           Map<EmailOutboxMessage, String> errors) {
+        try {
+            emailService.sendAll(chunk);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                chunk.forEach(mime -> errors.put(outgoing.get(mime), describe(e)));
+            } else {
+                e.getFailedMessages().forEach((mime, error) -> {
+                    if (chunk.contains(mime)) {
+                        errors.put(outgoing.get(mime), describe(error));
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to send email batch", e);
+            chunk.forEach(mime -> errors.put(outgoing.get(mime), describe(e)));
+        }
+    }
+
+    private void recordOutcome(List<EmailOutboxMessage> batch, Map<EmailOutboxMessage, String> errors,
+                               Set<EmailOutboxMessage> undeliverable) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutboxMessage message : batch) {
+            message.setAttempts(message.getAttempts() + 1);
+            String error = errors.get(message);
+
+            if (error == null) {
+                message.setStatus(DeliveryStatus.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+                sentCounter.increment();
+            } else if (undeliverable.contains(message) || message.getAttempts() >= properties.getMaxAttempts()) {
+                message.setStatus(DeliveryStatus.FAILED);
+                message.setLastError(error);
+                failedCounter.increment();
+                log.warn("Giving up on email {} to {}: {}", message.getId(), message.getRecipient(), error);
+            } else {
+                message.setStatus(DeliveryStatus.PENDING);
+                message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+                message.setLastError(error);
+                retriedCounter.increment();
+            }
+        }
+        outboxRepository.saveAll(batch);
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String text = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return text.length() > 1000 ? text.substring(0, 1000) : text;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderPool.shutdown();
+        mailPool.shutdown();
+    }
+}
@@ -0,0 +1,26 @@
+package com.smartinvoice.invoice.email;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "invoice.email.outbox")
+public class EmailOutboxProperties {
+    // Messages claimed per round; the next batch is not claimed until this one is sent
+    private int batchSize = 50;
+    // Threads rendering PDF attachments for a batch
+    private int renderThreads = Runtime.getRuntime().availableProcessors();
+    // SMTP connections a batch is split across; all mail goes through the one configured host, so this is the per-host limit
+    private int mailConcurrency = 4;
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMinutes(1);
+    private Duration maxBackoff = Duration.ofHours(1);
+    // A message left in SENDING longer than this (e.g. after a crash) is picked up again
+    private Duration sendingTimeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,56 @@
+package com.smartinvoice.invoice.email;
+
+import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.invoice.dto.EmailJobResponseDto;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository repository;
+
+    public EmailOutboxMessage enqueueInvoiceEmail(Long invoiceId, String to, String subject, String body, String attachmentName) {
+        return repository.save(newMessage(invoiceId, to, subject, body, attachmentName));
+    }
+
+    public List<EmailOutboxMessage> enqueueAll(List<EmailOutboxMessage> messages) {
+        return repository.saveAll(messages);
+    }
+
+    public EmailOutboxMessage newMessage(Long invoiceId, String to, String subject, String body, String attachmentName) {
+        LocalDateTime now = LocalDateTime.now();
+        return EmailOutboxMessage.builder()
+                .invoiceId(invoiceId)
+                .recipient(to)
+                .subject(subject)
+                .body(body)
+                .attachmentName(attachmentName)
+                .status(EmailOutboxMessage.DeliveryStatus.PENDING)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+
+    public EmailJobResponseDto getJob(Long jobId) {
+        EmailOutboxMessage message = repository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Email job not found"));
+        return toJobDto(message);
+    }
+
+    public EmailJobResponseDto toJobDto(EmailOutboxMessage message) {
+        return new EmailJobResponseDto(
+                message.getId(),
+                message.getInvoiceId(),
+                message.getStatus(),
+                message.getAttempts(),
+                message.getSentAt()
+        );
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
@@ -15,6 +17,10 @@ public class EmailService {
     private final JavaMailSender mailSender;
 
     public void sendInvoiceEmail(String to, String subject, String body, byte[] pdfBytes, String fileName) {
+        mailSender.send(createInvoiceMessage(to, subject, body, pdfBytes, fileName));
+    }
+
+    public MimeMessage createInvoiceMessage(String to, String subject, String body, byte[] pdfBytes, String fileName) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true);
@@ -26,9 +32,17 @@ public class EmailService {
             ByteArrayResource attachment = new ByteArrayResource(pdfBytes);
             helper.addAttachment(fileName, attachment);
 
-            mailSender.send(message);
+            return message;
         } catch (MessagingException e) {
             throw new RuntimeException("Failed to send email", e);
         }
     }
+
+    /**
+     * Sends all messages over a single SMTP connection. A {@link org.springframework.mail.MailSendException}
+     * lists the messages that were rejected; the others were delivered.
+     */
+    public void sendAll(List<MimeMessage> messages) {
+        mailSender.send(messages.toArray(new MimeMessage[0]));
+    }
 }
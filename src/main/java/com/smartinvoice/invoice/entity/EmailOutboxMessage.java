@@ -0,0 +1,60 @@
+package com.smartinvoice.invoice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An invoice email waiting in (or delivered from) the outbox. The PDF attachment is rendered when the
+ * message is dispatched, so queuing it is a single insert.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_seq")
+    @SequenceGenerator(name = "email_outbox_seq", sequenceName = "email_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    private Long invoiceId;
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "text")
+    private String body;
+
+    private String attachmentName;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private DeliveryStatus status = DeliveryStatus.PENDING;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    public enum DeliveryStatus {
+        PENDING,  // Waiting for (another) delivery attempt
+        SENDING,  // Claimed by a dispatcher
+        SENT,     // Accepted by the SMTP server
+        FAILED    // Gave up after the maximum number of attempts
+    }
+}
@@ -2,17 +2,24 @@ package com.smartinvoice.invoice.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.product.entity.Product;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_issue_date_id", columnList = "issue_date, id"),
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_invoices_invoice_number", columnNames = "invoice_number")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -30,7 +37,9 @@ public class Invoice {
 
     private LocalDate dueDate;
 
-    private double totalAmount;
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money totalAmount = Money.ZERO;
 
     @Column(name = "is_paid", nullable = false)
     private Boolean isPaid;
@@ -50,6 +59,7 @@ public class Invoice {
     @JsonBackReference
     private Client client;
 
+    // Product links of invoices issued before line items existed; InvoiceLineBackfill turns them into lines
     @ManyToMany
     @JoinTable(
             name = "invoice_products",
@@ -58,6 +68,11 @@ public class Invoice {
     )
     private List<Product> products;
 
+    @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineIndex")
+    @Builder.Default
+    private List<InvoiceLine> lines = new ArrayList<>();
+
     @ElementCollection
     @CollectionTable(name = "invoice_reminders", joinColumns = @JoinColumn(name = "invoice_id"))
     @Column(name = "reminder_date")
@@ -70,13 +85,15 @@ public class Invoice {
         PARTIALLY_PAID // For future use
     }
 
-    // Ensure status stays in sync with isPaid
+    // Ensure status stays in sync with isPaid. The paid date is kept once set: revenue is booked on it.
     @PreUpdate
     @PrePersist
     private void syncStatus() {
         if (Boolean.TRUE.equals(isPaid)) {
             this.status = InvoiceStatus.PAID;
-            this.paidDate = LocalDate.now();
+            if (this.paidDate == null) {
+                this.paidDate = LocalDate.now();
+            }
         } else if (this.status != InvoiceStatus.OVERDUE) {
             this.status = InvoiceStatus.PENDING;
         }
@@ -0,0 +1,51 @@
+package com.smartinvoice.invoice.entity;
+
+import com.smartinvoice.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One billed line of an invoice. Name and unit price are snapshots taken when the invoice was issued, so later
+ * product edits or deletions never change what was billed. Ids come from a pooled sequence, which lets Hibernate
+ * batch the inserts.
+ */
+@Entity
+@Table(name = "invoice_lines", indexes = {
+        @Index(name = "idx_invoice_lines_invoice_id", columnList = "invoice_id, line_index")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_lines_seq")
+    @SequenceGenerator(name = "invoice_lines_seq", sequenceName = "invoice_lines_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "invoice_id", nullable = false)
+    private Invoice invoice;
+
+    @Column(name = "line_index", nullable = false)
+    private int lineIndex;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "unit_price", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money unitPrice = Money.ZERO;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "line_total", nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money lineTotal = Money.ZERO;
+}
@@ -0,0 +1,38 @@
+package com.smartinvoice.invoice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Per-tenant, per-year counter holding the next invoice sequence value that has not been handed out yet.
+ */
+@Entity
+@Table(name = "invoice_number_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceNumberSequence {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "tenant", nullable = false)
+        private String tenant;
+
+        @Column(name = "sequence_year", nullable = false)
+        private int year;
+    }
+}
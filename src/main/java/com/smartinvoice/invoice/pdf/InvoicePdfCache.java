@@ -0,0 +1,486 @@
+package com.smartinvoice.invoice.pdf;
+
+import com.smartinvoice.company.CompanyProperties;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Rendered invoice PDFs keyed by a SHA-256 fingerprint of everything that ends up on the page: invoice fields,
+ * client, product lines, company details and the layout version. Any change to those inputs produces a new key,
+ * so stale documents are never served; the entry for an invoice's previous fingerprint is dropped when its new one
+ * is stored. Both tiers are LRUs bounded by total bytes: memory by {@code maxMemory} and the optional disk tier,
+ * which keeps PDFs across restarts, by {@code maxDisk}. An invoice is only tracked while one of the tiers holds its
+ * document.
+ * <p>
+ * Disk files are named {@code v<layout>-<invoice id>-<fingerprint>.pdf}. At startup files from other layout
+ * versions, superseded fingerprints and unfinished writes are deleted, and the rest are indexed oldest first.
+ */
+@Slf4j
+@Component
+public class InvoicePdfCache {
+
+    private static final char SEPARATOR = '\u001F';
+    private static final String FILE_PREFIX = "v" + PdfGeneratorService.LAYOUT_VERSION + "-";
+    private static final Pattern CURRENT_FILE = Pattern.compile(
+            Pattern.quote(FILE_PREFIX) + "(\\d+|x)-([0-9a-f]{64})\\.pdf");
+    // Files this cache wrote under an older layout version or naming scheme
+    private static final Pattern OWN_FILE = Pattern.compile("(v\\d+-(\\d+|x)-)?[0-9a-f]{64}(\\.pdf|.*\\.tmp)");
+
+    private record CachedPdf(Long invoiceId, byte[] pdf) {}
+
+    private record DiskEntry(Long invoiceId, long size) {}
+
+    private final PdfGeneratorService pdfGeneratorService;
+    private final CompanyProperties company;
+    private final PdfCacheProperties properties;
+    private final Path diskDirectory;
+    // All guarded by this
+    private final LinkedHashMap<String, CachedPdf> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, DiskEntry> disk = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, String> fingerprintsByInvoice = new HashMap<>();
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    public InvoicePdfCache(PdfGeneratorService pdfGeneratorService,
+                           CompanyProperties company,
+                           PdfCacheProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.pdfGeneratorService = pdfGeneratorService;
+        this.company = company;
+        this.properties = properties;
+        this.diskDirectory = StringUtils.hasText(properties.getDiskDirectory())
+                ? createDirectory(Path.of(properties.getDiskDirectory()))
+                : null;
+        this.memoryHits = Counter.builder("invoice.pdf.cache.hits").tag("tier", "memory").register(meterRegistry);
+        this.diskHits = Counter.builder("invoice.pdf.cache.hits").tag("tier", "disk").register(meterRegistry);
+        this.misses = Counter.builder("invoice.pdf.cache.misses").register(meterRegistry);
+        Gauge.builder("invoice.pdf.cache.memory.bytes", this, InvoicePdfCache::memoryBytes).register(meterRegistry);
+        Gauge.builder("invoice.pdf.cache.disk.bytes", this, InvoicePdfCache::diskBytes).register(meterRegistry);
+        if (diskDirectory != null) {
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * Returns the PDF for the invoice, rendering it only when no document with the same fingerprint is cached.
+     * The returned array is shared and must not be modified.
+     */
+    public byte[] getOrRender(Invoice invoice) {
+        if (!properties.isEnabled()) {
+            return pdfGeneratorService.generateInvoicePdf(invoice);
+        }
+
+        String fingerprint = fingerprint(invoice);
+
+        byte[] pdf = getFromMemory(fingerprint);
+        if (pdf != null) {
+            memoryHits.increment();
+            return pdf;
+        }
+
+        pdf = readFromDisk(fingerprint);
+        if (pdf != null) {
+            diskHits.increment();
+        } else {
+            misses.increment();
+            pdf = pdfGeneratorService.generateInvoicePdf(invoice);
+            writeToDisk(invoice.getId(), fingerprint, pdf);
+        }
+
+        store(invoice.getId(), fingerprint, pdf);
+        return pdf;
+    }
+
+    /**
+     * Returns the cached PDF for the invoice if either tier holds it, otherwise renders it without storing the result.
+     * Meant for bulk paths such as archive exports, whose one-off documents would otherwise push the entries that
+     * single downloads and emails reuse out of both tiers.
+     */
+    public byte[] getCachedOrRender(Invoice invoice) {
+        if (!properties.isEnabled()) {
+            return pdfGeneratorService.generateInvoicePdf(invoice);
+        }
+
+        String fingerprint = fingerprint(invoice);
+
+        byte[] pdf = getFromMemory(fingerprint);
+        if (pdf != null) {
+            memoryHits.increment();
+            return pdf;
+        }
+
+        pdf = readFromDisk(fingerprint);
+        if (pdf != null) {
+            diskHits.increment();
+            return pdf;
+        }
+
+        misses.increment();
+        return pdfGeneratorService.generateInvoicePdf(invoice);
+    }
+
+    /**
+     * Writes the PDF for the invoice to {@code out} without materialising it more than once. Cached documents are
+     * copied straight from memory or disk; on a miss the document is rendered into {@code out} and captured for
+     * the cache as it goes, unless it grows beyond {@code maxStreamedEntry}.
+     */
+    public void writeTo(Invoice invoice, OutputStream out) throws IOException {
+        if (!properties.isEnabled()) {
+            pdfGeneratorService.writeInvoicePdf(invoice, out);
+            return;
+        }
+
+        String fingerprint = fingerprint(invoice);
+
+        byte[] pdf = getFromMemory(fingerprint);
+        if (pdf != null) {
+            memoryHits.increment();
+            out.write(pdf);
+            return;
+        }
+
+        Path file = diskFile(fingerprint);
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(file)) {
+                diskHits.increment();
+                in.transferTo(out);
+                return;
+            } catch (NoSuchFileException e) {
+                dropFromDisk(fingerprint);
+            }
+        }
+
+        misses.increment();
+        CapturingOutputStream capture = new CapturingOutputStream(out, properties.getMaxStreamedEntry().toBytes());
+        pdfGeneratorService.writeInvoicePdf(invoice, capture);
+        byte[] captured = capture.captured();
+        if (captured != null) {
+            writeToDisk(invoice.getId(), fingerprint, captured);
+            store(invoice.getId(), fingerprint, captured);
+        }
+    }
+
+    public synchronized void evict(Long invoiceId) {
+        String fingerprint = fingerprintsByInvoice.remove(invoiceId);
+        if (fingerprint != null) {
+            remove(fingerprint);
+        }
+    }
+
+    String fingerprint(Invoice invoice) {
+        StringBuilder key = new StringBuilder(256);
+        append(key, PdfGeneratorService.LAYOUT_VERSION);
+
+        append(key, invoice.getId());
+        append(key, invoice.getInvoiceNumber());
+        append(key, invoice.getIssueDate());
+        append(key, invoice.getDueDate());
+        append(key, invoice.getIsPaid());
+        append(key, invoice.getTotalAmount());
+
+        var client = invoice.getClient();
+        append(key, client.getName());
+        append(key, client.getAddress());
+        append(key, client.getCity());
+        append(key, client.getCountry());
+        append(key, client.getPostcode());
+
+        for (InvoiceLine line : invoice.getLines()) {
+            append(key, line.getProductName());
+            append(key, line.getUnitPrice());
+            append(key, line.getQuantity());
+            append(key, line.getLineTotal());
+        }
+
+        append(key, company.getName());
+        append(key, company.getAddress());
+        append(key, company.getCity());
+        append(key, company.getCountry());
+        append(key, company.getPostCode());
+        append(key, company.getPhone());
+        append(key, company.getEmail());
+        if (company.getBank() != null) {
+            append(key, company.getBank().getHolder());
+            append(key, company.getBank().getAccount());
+            append(key, company.getBank().getSortCode());
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private synchronized void store(Long invoiceId, String fingerprint, byte[] pdf) {
+        putInMemory(invoiceId, fingerprint, pdf);
+        if (invoiceId == null || !(memory.containsKey(fingerprint) || disk.containsKey(fingerprint))) {
+            return;
+        }
+        String previous = fingerprintsByInvoice.put(invoiceId, fingerprint);
+        if (previous != null && !previous.equals(fingerprint)) {
+            remove(previous);
+        }
+    }
+
+    private static void append(StringBuilder key, Object value) {
+        key.append(value == null ? "\u0000" : value.toString()).append(SEPARATOR);
+    }
+
+    private synchronized byte[] getFromMemory(String fingerprint) {
+        CachedPdf cached = memory.get(fingerprint);
+        return cached != null ? cached.pdf() : null;
+    }
+
+    private void putInMemory(Long invoiceId, String fingerprint, byte[] pdf) {
+        long limit = properties.getMaxMemory().toBytes();
+        if (pdf.length > limit) {
+            return;
+        }
+
+        CachedPdf replaced = memory.put(fingerprint, new CachedPdf(invoiceId, pdf));
+        memoryBytes += pdf.length - (replaced == null ? 0 : replaced.pdf().length);
+
+        Iterator<Map.Entry<String, CachedPdf>> eldest = memory.entrySet().iterator();
+        while (memoryBytes > limit && eldest.hasNext()) {
+            Map.Entry<String, CachedPdf> entry = eldest.next();
+            memoryBytes -= entry.getValue().pdf().length;
+            eldest.remove();
+            forgetIfUncached(entry.getValue().invoiceId(), entry.getKey());
+        }
+    }
+
+    /**
+     * Removes the fingerprint from both tiers. Callers hold the lock and update the invoice mapping themselves.
+     */
+    private void remove(String fingerprint) {
+        CachedPdf removed = memory.remove(fingerprint);
+        if (removed != null) {
+            memoryBytes -= removed.pdf().length;
+        }
+        DiskEntry onDisk = disk.remove(fingerprint);
+        if (onDisk != null) {
+            diskBytes -= onDisk.size();
+            deleteFile(diskPath(onDisk.invoiceId(), fingerprint));
+        }
+    }
+
+    private void forgetIfUncached(Long invoiceId, String fingerprint) {
+        if (invoiceId != null && !memory.containsKey(fingerprint) && !disk.containsKey(fingerprint)) {
+            fingerprintsByInvoice.remove(invoiceId, fingerprint);
+        }
+    }
+
+    private synchronized Path diskFile(String fingerprint) {
+        DiskEntry entry = disk.get(fingerprint);
+        return entry != null ? diskPath(entry.invoiceId(), fingerprint) : null;
+    }
+
+    private synchronized void dropFromDisk(String fingerprint) {
+        DiskEntry entry = disk.remove(fingerprint);
+        if (entry != null) {
+            diskBytes -= entry.size();
+            forgetIfUncached(entry.invoiceId(), fingerprint);
+        }
+    }
+
+    private byte[] readFromDisk(String fingerprint) {
+        Path file = diskFile(fingerprint);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            dropFromDisk(fingerprint);
+            return null;
+        } catch (IOException e) {
+            log.warn("Failed to read cached PDF {}", fingerprint, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(Long invoiceId, String fingerprint, byte[] pdf) {
+        if (diskDirectory == null || pdf.length > properties.getMaxDisk().toBytes()) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(diskDirectory, fingerprint, ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, diskPath(invoiceId, fingerprint), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write cached PDF {}", fingerprint, e);
+            return;
+        }
+        synchronized (this) {
+            DiskEntry replaced = disk.put(fingerprint, new DiskEntry(invoiceId, pdf.length));
+            diskBytes += pdf.length - (replaced == null ? 0 : replaced.size());
+            trimDisk();
+        }
+    }
+
+    private void trimDisk() {
+        long limit = properties.getMaxDisk().toBytes();
+        Iterator<Map.Entry<String, DiskEntry>> eldest = disk.entrySet().iterator();
+        while (diskBytes > limit && eldest.hasNext()) {
+            Map.Entry<String, DiskEntry> entry = eldest.next();
+            diskBytes -= entry.getValue().size();
+            eldest.remove();
+            deleteFile(diskPath(entry.getValue().invoiceId(), entry.getKey()));
+            forgetIfUncached(entry.getValue().invoiceId(), entry.getKey());
+        }
+    }
+
+    private synchronized void loadDiskIndex() {
+        record DiskFile(Path path, Long invoiceId, String fingerprint, long size, FileTime modified) {}
+
+        List<DiskFile> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(diskDirectory)) {
+            for (Path path : (Iterable<Path>) listing::iterator) {
+                String name = path.getFileName().toString();
+                Matcher current = CURRENT_FILE.matcher(name);
+                if (current.matches()) {
+                    Long invoiceId = "x".equals(current.group(1)) ? null : Long.valueOf(current.group(1));
+                    files.add(new DiskFile(path, invoiceId, current.group(2), Files.size(path),
+                            Files.getLastModifiedTime(path)));
+                } else if (OWN_FILE.matcher(name).matches()) {
+                    deleteFile(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to index PDF cache directory {}", diskDirectory, e);
+            return;
+        }
+
+        // Newest first, so only the latest document of each invoice is kept
+        files.sort(Comparator.comparing(DiskFile::modified).reversed());
+        Map<Long, String> latest = new HashMap<>();
+        List<DiskFile> kept = new ArrayList<>();
+        for (DiskFile file : files) {
+            if (file.invoiceId() != null && latest.putIfAbsent(file.invoiceId(), file.fingerprint()) != null) {
+                deleteFile(file.path());
+            } else {
+                kept.add(file);
+            }
+        }
+        fingerprintsByInvoice.putAll(latest);
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            DiskFile file = kept.get(i);
+            disk.put(file.fingerprint(), new DiskEntry(file.invoiceId(), file.size()));
+            diskBytes += file.size();
+        }
+        trimDisk();
+        log.info("Indexed {} cached PDF(s) ({} bytes) in {}", disk.size(), diskBytes, diskDirectory);
+    }
+
+    private Path diskPath(Long invoiceId, String fingerprint) {
+        return diskDirectory.resolve(FILE_PREFIX + (invoiceId != null ? invoiceId : "x") + "-" + fingerprint + ".pdf");
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached PDF {}", file, e);
+        }
+    }
+
+    synchronized long diskBytes() {
+        return diskBytes;
+    }
+
+    synchronized int trackedInvoices() {
+        return fingerprintsByInvoice.size();
+    }
+
+    synchronized long memoryBytes() {
+        return memoryBytes;
+    }
+
+    /**
+     * Passes everything through to the target while keeping a copy, until the copy would exceed {@code limit}.
+     */
+    private static final class CapturingOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream target, long limit) {
+            super(target);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (copy == null) {
+                return;
+            }
+            if (copy.size() + len > limit) {
+                copy = null;
+            } else {
+                copy.write(b, off, len);
+            }
+        }
+
+        byte[] captured() {
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+
+    private static Path createDirectory(Path directory) {
+        try {
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create PDF cache directory " + directory, e);
+        }
+    }
+}
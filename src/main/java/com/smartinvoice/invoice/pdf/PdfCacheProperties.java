@@ -0,0 +1,23 @@
+package com.smartinvoice.invoice.pdf;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "invoice.pdf.cache")
+public class PdfCacheProperties {
+    private boolean enabled = true;
+    // Upper bound for rendered PDFs kept on the heap
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+    // Streamed downloads larger than this are not captured for the cache
+    private DataSize maxStreamedEntry = DataSize.ofMegabytes(1);
+    // Directory for the on-disk tier; disabled when empty
+    private String diskDirectory;
+    // Upper bound for the files in the disk tier; least recently used ones are deleted beyond it
+    private DataSize maxDisk = DataSize.ofGigabytes(1);
+}
@@ -9,54 +9,81 @@ import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
 import com.smartinvoice.company.CompanyProperties;
 import com.smartinvoice.invoice.entity.Invoice;
-import com.smartinvoice.product.entity.Product;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.awt.*;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
 import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class PdfGeneratorService {
 
+    // Part of the PDF cache key; bump whenever the document layout changes
+    static final int LAYOUT_VERSION = 3;
+
+    private static final String LOGO_LOCATION = "static/logo.png";
+
+    // Fonts
+    private static final Font TITLE_FONT = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
+    private static final Font SUB_FONT = new Font(Font.HELVETICA, 10, Font.NORMAL);
+    private static final Font BOLD_FONT = new Font(Font.HELVETICA, 10, Font.BOLD);
+    private static final Font TABLE_HEADER_FONT = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
+
     private final CompanyProperties company;
 
+    // Fragments that only depend on the company, built once and copied into each document
+    private final Image logoTemplate;
+    private final PdfPCell companyInfoTemplate;
+    private final PdfPCell bankDetailsTemplate;
+    private final List<PdfPCell> productHeaderTemplate;
+
     public PdfGeneratorService(CompanyProperties company) {
         this.company = company;
+        this.logoTemplate = loadLogo();
+        this.companyInfoTemplate = buildCompanyInfo();
+        this.bankDetailsTemplate = buildBankDetails();
+        this.productHeaderTemplate = buildProductHeader();
     }
 
+    /**
+     * Renders the invoice into memory. Use {@link #writeInvoicePdf} when the document is going straight to a stream.
+     */
     public byte[] generateInvoicePdf(Invoice invoice) {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInvoicePdf(invoice, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders the invoice directly into {@code out}, which is flushed but left open.
+     */
+    public void writeInvoicePdf(Invoice invoice, OutputStream out) {
+        try {
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-            PdfWriter.getInstance(document, out);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
             document.open();
 
-            // Fonts
-            Font titleFont = new Font(Font.HELVETICA, 18, Font.BOLD, Color.DARK_GRAY);
-            Font subFont = new Font(Font.HELVETICA, 10, Font.NORMAL);
-            Font boldFont = new Font(Font.HELVETICA, 10, Font.BOLD);
-            Font tableHeaderFont = new Font(Font.HELVETICA, 10, Font.BOLD, Color.WHITE);
-
             // Header section
             PdfPTable headerTable = new PdfPTable(2);
             headerTable.setWidthPercentage(100);
             headerTable.setWidths(new float[]{3, 1});
-
-            PdfPCell companyInfoCell = new PdfPCell();
-            companyInfoCell.setBorder(Rectangle.NO_BORDER);
-            companyInfoCell.addElement(new Paragraph(company.getName(), titleFont));
-            companyInfoCell.addElement(new Paragraph(company.getAddress() + "\n" + company.getCity() + "\n" + company.getCountry() + "\n" + company.getPostCode(), subFont));
-            companyInfoCell.addElement(new Paragraph(company.getPhone() + "\n" + company.getEmail(), subFont));
-            headerTable.addCell(companyInfoCell);
+            headerTable.addCell(new PdfPCell(companyInfoTemplate));
 
             // Optional logo
             PdfPCell logoCell = new PdfPCell();
             logoCell.setBorder(Rectangle.NO_BORDER);
             logoCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-            // Image path:
-            Image logo = Image.getInstance("src/main/resources/static/logo.png");
-            logo.scaleToFit(80, 80);
-            logoCell.addElement(logo);
+            if (logoTemplate != null) {
+                logoCell.addElement(Image.getInstance(logoTemplate));
+            }
             headerTable.addCell(logoCell);
             document.add(headerTable);
 
@@ -70,22 +97,22 @@ public class PdfGeneratorService {
 
             PdfPCell billedTo = new PdfPCell();
             billedTo.setBorder(Rectangle.NO_BORDER);
-            billedTo.addElement(new Paragraph("BILLED TO", boldFont));
-            billedTo.addElement(new Paragraph(invoice.getClient().getName(), subFont));
-            billedTo.addElement(new Paragraph(invoice.getClient().getAddress(), subFont));
-            billedTo.addElement(new Paragraph(invoice.getClient().getCity(), subFont));
-            billedTo.addElement(new Paragraph(invoice.getClient().getCountry(), subFont));
-            billedTo.addElement(new Paragraph(invoice.getClient().getPostcode(), subFont));
+            billedTo.addElement(new Paragraph("BILLED TO", BOLD_FONT));
+            billedTo.addElement(new Paragraph(invoice.getClient().getName(), SUB_FONT));
+            billedTo.addElement(new Paragraph(invoice.getClient().getAddress(), SUB_FONT));
+            billedTo.addElement(new Paragraph(invoice.getClient().getCity(), SUB_FONT));
+            billedTo.addElement(new Paragraph(invoice.getClient().getCountry(), SUB_FONT));
+            billedTo.addElement(new Paragraph(invoice.getClient().getPostcode(), SUB_FONT));
             metaTable.addCell(billedTo);
 
-            document.add(new Paragraph("Status: " + (invoice.getIsPaid() ? "Paid" : "Unpaid"), boldFont));
+            document.add(new Paragraph("Status: " + (invoice.getIsPaid() ? "Paid" : "Unpaid"), BOLD_FONT));
 
 
             PdfPCell invoiceDetails = new PdfPCell();
             invoiceDetails.setBorder(Rectangle.NO_BORDER);
-            invoiceDetails.addElement(new Paragraph("Invoice", titleFont));
-            invoiceDetails.addElement(new Paragraph("Invoice Number: " + invoice.getInvoiceNumber(), subFont));
-            invoiceDetails.addElement(new Paragraph("Date of Issue: " + invoice.getIssueDate(), subFont));
+            invoiceDetails.addElement(new Paragraph("Invoice", TITLE_FONT));
+            invoiceDetails.addElement(new Paragraph("Invoice Number: " + invoice.getInvoiceNumber(), SUB_FONT));
+            invoiceDetails.addElement(new Paragraph("Date of Issue: " + invoice.getIssueDate(), SUB_FONT));
             metaTable.addCell(invoiceDetails);
 
             document.add(metaTable);
@@ -97,19 +124,13 @@ public class PdfGeneratorService {
             table.setWidths(new float[]{4, 2, 2, 2});
             table.setSpacingBefore(10f);
 
-            Stream.of("Description", "Unit cost", "QTY", "Amount").forEach(header -> {
-                PdfPCell headerCell = new PdfPCell(new Phrase(header, tableHeaderFont));
-                headerCell.setBackgroundColor(Color.GRAY);
-                headerCell.setPadding(5);
-                headerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                table.addCell(headerCell);
-            });
-
-            for (Product product : invoice.getProducts()) {
-                table.addCell(getTableCell(product.getName(), subFont));
-                table.addCell(getTableCell("£" + product.getPrice(), subFont));
-                table.addCell(getTableCell("1", subFont)); // default 1 for now
-                table.addCell(getTableCell("£" + product.getPrice(), subFont));
+            productHeaderTemplate.forEach(headerCell -> table.addCell(new PdfPCell(headerCell)));
+
+            for (InvoiceLine line : invoice.getLines()) {
+                table.addCell(getTableCell(line.getProductName(), SUB_FONT));
+                table.addCell(getTableCell("£" + line.getUnitPrice(), SUB_FONT));
+                table.addCell(getTableCell(String.valueOf(line.getQuantity()), SUB_FONT));
+                table.addCell(getTableCell("£" + line.getLineTotal(), SUB_FONT));
             }
 
             document.add(table);
@@ -122,14 +143,14 @@ public class PdfGeneratorService {
             summary.setHorizontalAlignment(Element.ALIGN_RIGHT);
             summary.setWidths(new float[]{2, 1});
 
-            summary.addCell(getRightCell("Subtotal:", boldFont));
-            summary.addCell(getRightCell("£" + invoice.getTotalAmount(), subFont));
+            summary.addCell(getRightCell("Subtotal:", BOLD_FONT));
+            summary.addCell(getRightCell("£" + invoice.getTotalAmount(), SUB_FONT));
 
-            summary.addCell(getRightCell("Discount:", boldFont));
-            summary.addCell(getRightCell("£0.00", subFont));
+            summary.addCell(getRightCell("Discount:", BOLD_FONT));
+            summary.addCell(getRightCell("£0.00", SUB_FONT));
 
-            summary.addCell(getRightCell("INVOICE TOTAL:", boldFont));
-            summary.addCell(getRightCell("£" + invoice.getTotalAmount(), boldFont));
+            summary.addCell(getRightCell("INVOICE TOTAL:", BOLD_FONT));
+            summary.addCell(getRightCell("£" + invoice.getTotalAmount(), BOLD_FONT));
             document.add(summary);
 
 
@@ -140,18 +161,13 @@ public class PdfGeneratorService {
             footerTable.setWidths(new float[]{1, 1});
 
             // Left cell: Bank details
-            PdfPCell bankDetailsCell = new PdfPCell();
-            bankDetailsCell.setBorder(Rectangle.NO_BORDER);
-            bankDetailsCell.addElement(new Paragraph("BANK ACCOUNT DETAILS", boldFont));
-            bankDetailsCell.addElement(new Paragraph("Account Holder: " + company.getBank().getHolder(), subFont));
-            bankDetailsCell.addElement(new Paragraph("Account number: " + company.getBank().getAccount(), subFont));
-            bankDetailsCell.addElement(new Paragraph("Sort-code: " + company.getBank().getSortCode(), subFont));
+            PdfPCell bankDetailsCell = new PdfPCell(bankDetailsTemplate);
 
             // Right cell: Terms
             PdfPCell termsCell = new PdfPCell();
             termsCell.setBorder(Rectangle.NO_BORDER);
-            termsCell.addElement(new Paragraph("TERMS", boldFont));
-            termsCell.addElement(new Paragraph("Please pay invoice by " + invoice.getDueDate(), subFont));
+            termsCell.addElement(new Paragraph("TERMS", BOLD_FONT));
+            termsCell.addElement(new Paragraph("Please pay invoice by " + invoice.getDueDate(), SUB_FONT));
 
             // Add cells to footer table
             footerTable.addCell(bankDetailsCell);
@@ -160,13 +176,55 @@ public class PdfGeneratorService {
 
 
             document.close();
-            return out.toByteArray();
+            out.flush();
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate PDF", e);
         }
     }
 
+    private Image loadLogo() {
+        try (InputStream in = new ClassPathResource(LOGO_LOCATION).getInputStream()) {
+            Image logo = Image.getInstance(in.readAllBytes());
+            logo.scaleToFit(80, 80);
+            return logo;
+        } catch (Exception e) {
+            log.warn("Logo {} could not be loaded, invoices are rendered without it", LOGO_LOCATION, e);
+            return null;
+        }
+    }
+
+    private PdfPCell buildCompanyInfo() {
+        PdfPCell companyInfoCell = new PdfPCell();
+        companyInfoCell.setBorder(Rectangle.NO_BORDER);
+        companyInfoCell.addElement(new Paragraph(company.getName(), TITLE_FONT));
+        companyInfoCell.addElement(new Paragraph(company.getAddress() + "\n" + company.getCity() + "\n" + company.getCountry() + "\n" + company.getPostCode(), SUB_FONT));
+        companyInfoCell.addElement(new Paragraph(company.getPhone() + "\n" + company.getEmail(), SUB_FONT));
+        return companyInfoCell;
+    }
+
+    private PdfPCell buildBankDetails() {
+        CompanyProperties.BankDetails bank = company.getBank() != null ? company.getBank() : new CompanyProperties.BankDetails();
+
+        PdfPCell bankDetailsCell = new PdfPCell();
+        bankDetailsCell.setBorder(Rectangle.NO_BORDER);
+        bankDetailsCell.addElement(new Paragraph("BANK ACCOUNT DETAILS", BOLD_FONT));
+        bankDetailsCell.addElement(new Paragraph("Account Holder: " + bank.getHolder(), SUB_FONT));
+        bankDetailsCell.addElement(new Paragraph("Account number: " + bank.getAccount(), SUB_FONT));
+        bankDetailsCell.addElement(new Paragraph("Sort-code: " + bank.getSortCode(), SUB_FONT));
+        return bankDetailsCell;
+    }
+
+    private List<PdfPCell> buildProductHeader() {
+        return Stream.of("Description", "Unit cost", "QTY", "Amount").map(header -> {
+            PdfPCell headerCell = new PdfPCell(new Phrase(header, TABLE_HEADER_FONT));
+            headerCell.setBackgroundColor(Color.GRAY);
+            headerCell.setPadding(5);
+            headerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            return headerCell;
+        }).toList();
+    }
+
     private PdfPCell getTableCell(String text, Font font) {
         PdfPCell cell = new PdfPCell(new Phrase(text, font));
         cell.setPadding(5);
@@ -0,0 +1,32 @@
+package com.smartinvoice.invoice.repository;
+
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Locks the next messages due for delivery, skipping rows another dispatcher has already locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                SELECT m FROM EmailOutboxMessage m
+                WHERE m.status IN :statuses AND m.nextAttemptAt <= :now
+                ORDER BY m.id
+            """)
+    List<EmailOutboxMessage> findDueForDelivery(@Param("statuses") Collection<EmailOutboxMessage.DeliveryStatus> statuses,
+                                                @Param("now") LocalDateTime now,
+                                                Limit limit);
+}
@@ -0,0 +1,26 @@
+package com.smartinvoice.invoice.repository;
+
+import com.smartinvoice.invoice.entity.InvoiceNumberSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface InvoiceNumberSequenceRepository extends JpaRepository<InvoiceNumberSequence, InvoiceNumberSequence.Key> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM InvoiceNumberSequence s WHERE s.id = :key")
+    Optional<InvoiceNumberSequence> findForUpdate(@Param("key") InvoiceNumberSequence.Key key);
+
+    @Modifying
+    @Query(value = """
+                INSERT INTO invoice_number_sequences (tenant, sequence_year, next_value)
+                VALUES (:tenant, :year, :nextValue)
+                ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("tenant") String tenant, @Param("year") int year, @Param("nextValue") long nextValue);
+}
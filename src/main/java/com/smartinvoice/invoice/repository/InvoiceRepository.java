@@ -1,28 +1,204 @@
 package com.smartinvoice.invoice.repository;
 
+import com.smartinvoice.invoice.dto.InvoiceCsvRow;
+import com.smartinvoice.invoice.dto.InvoiceProductRef;
+import com.smartinvoice.invoice.dto.InvoiceSummary;
 import com.smartinvoice.invoice.entity.Invoice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long>, JpaSpecificationExecutor<Invoice> {
+
+    String SUMMARY_SELECT = """
+                SELECT new com.smartinvoice.invoice.dto.InvoiceSummary(
+                    i.id, c.name, c.email, i.invoiceNumber, i.issueDate, i.dueDate,
+                    i.totalAmount, c.id, i.isPaid, i.status)
+                FROM Invoice i JOIN i.client c
+            """;
+
+    String SEARCH_FILTERS = """
+                WHERE (:search IS NULL OR LOWER(i.invoiceNumber) LIKE :search)
+                  AND (:isPaid IS NULL OR i.isPaid = :isPaid)
+            """;
+
+    String NEWEST_FIRST = " ORDER BY i.issueDate DESC, i.id DESC";
+
+    // Date parameters are cast so Postgres can type them in the IS NULL checks
+    String EXPORT_FILTERS = """
+                WHERE (CAST(:fromDate AS LocalDate) IS NULL OR i.issueDate >= :fromDate)
+                  AND (CAST(:toDate AS LocalDate) IS NULL OR i.issueDate <= :toDate)
+                  AND (:clientId IS NULL OR i.client.id = :clientId)
+                  AND (:isPaid IS NULL OR i.isPaid = :isPaid)
+            """;
+
+    /**
+     * Unpaid invoices that are due a reminder today: PENDING ones due on {@code upcomingDueDate} and OVERDUE ones
+     * whose due date is one of {@code overdueDueDates}, excluding any already reminded on {@code today}.
+     */
     @Query("""
-                SELECT DISTINCT i FROM Invoice i
-                LEFT JOIN FETCH i.products
-                LEFT JOIN FETCH i.reminderSentDates
+                SELECT i FROM Invoice i
+                JOIN FETCH i.client
                 WHERE i.isPaid = false
+                  AND ((i.status = :pending AND i.dueDate = :upcomingDueDate)
+                    OR (i.status = :overdue AND i.dueDate IN :overdueDueDates))
+                  AND :today NOT MEMBER OF i.reminderSentDates
             """)
-    List<Invoice> findAllUnpaidWithProductsAndReminders();
+    List<Invoice> findReminderCandidates(@Param("today") LocalDate today,
+                                         @Param("upcomingDueDate") LocalDate upcomingDueDate,
+                                         @Param("overdueDueDates") Collection<LocalDate> overdueDueDates,
+                                         @Param("pending") Invoice.InvoiceStatus pending,
+                                         @Param("overdue") Invoice.InvoiceStatus overdue);
+
+    @Query("""
+                SELECT DISTINCT i FROM Invoice i
+                JOIN FETCH i.client
+                LEFT JOIN FETCH i.lines
+                WHERE i.id IN :ids
+            """)
+    List<Invoice> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+                SELECT i FROM Invoice i
+                JOIN FETCH i.client
+                LEFT JOIN FETCH i.lines
+                WHERE i.id = :id
+            """)
+    Optional<Invoice> findWithDetailsById(@Param("id") Long id);
+
+    /**
+     * Ids of invoices matching the export filters, in id order, starting after {@code afterId}.
+     */
+    @Query("SELECT i.id FROM Invoice i" + EXPORT_FILTERS + " AND i.id > :afterId ORDER BY i.id")
+    List<Long> findExportIdsAfter(@Param("fromDate") LocalDate fromDate,
+                                  @Param("toDate") LocalDate toDate,
+                                  @Param("clientId") Long clientId,
+                                  @Param("isPaid") Boolean isPaid,
+                                  @Param("afterId") Long afterId,
+                                  Limit limit);
+
+    /**
+     * CSV rows for the export filters, read forward-only in fetch-size batches. Must be consumed inside a
+     * transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+                SELECT new com.smartinvoice.invoice.dto.InvoiceCsvRow(
+                    i.id, i.invoiceNumber, i.issueDate, i.dueDate, c.name, i.totalAmount, i.isPaid)
+                FROM Invoice i JOIN i.client c
+            """ + EXPORT_FILTERS + " ORDER BY i.id")
+    Stream<InvoiceCsvRow> streamCsvRows(@Param("fromDate") LocalDate fromDate,
+                                        @Param("toDate") LocalDate toDate,
+                                        @Param("clientId") Long clientId,
+                                        @Param("isPaid") Boolean isPaid);
+
+    /**
+     * Records the reminder for each invoice that has none on {@code reminderDate} yet and returns the ids it recorded.
+     * A run racing another one on the same day only gets back the invoices it claimed first.
+     */
+    @Transactional
+    @Query(value = """
+                INSERT INTO invoice_reminders (invoice_id, reminder_date)
+                SELECT i.id, :reminderDate FROM invoices i
+                WHERE i.id IN :invoiceIds
+                  AND NOT EXISTS (SELECT 1 FROM invoice_reminders r
+                                  WHERE r.invoice_id = i.id AND r.reminder_date = :reminderDate)
+                ON CONFLICT DO NOTHING
+                RETURNING invoice_id
+            """, nativeQuery = true)
+    List<Long> recordReminderSent(@Param("invoiceIds") Collection<Long> invoiceIds, @Param("reminderDate") LocalDate reminderDate);
+
+    /**
+     * Loads the invoice with its row locked, so a concurrent overdue sweep either runs first and is seen here or
+     * skips the row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findForUpdate(@Param("id") Long id);
+
+    boolean existsByInvoiceNumber(String invoiceNumber);
 
     List<Invoice> findByDueDateBeforeAndStatus(LocalDate date, Invoice.InvoiceStatus status);
 
+    /**
+     * Moves up to {@code chunkSize} unpaid PENDING invoices that are past due to OVERDUE in one statement
+     * and returns their ids. Rows locked by another transaction are skipped and picked up on the next run.
+     */
+    @Transactional
+    @Query(value = """
+                UPDATE invoices SET status = 'OVERDUE', overdue_since = :today
+                WHERE id IN (
+                    SELECT id FROM invoices
+                    WHERE status = 'PENDING' AND is_paid = false AND due_date < :today
+                    ORDER BY id
+                    LIMIT :chunkSize
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id
+            """, nativeQuery = true)
+    List<Long> markOverdue(@Param("today") LocalDate today, @Param("chunkSize") int chunkSize);
+
     List<Invoice> findByStatus(Invoice.InvoiceStatus status);
 
+    @Query(value = "SELECT COALESCE(SUM(total_amount), 0) FROM invoices WHERE id IN :ids", nativeQuery = true)
+    BigDecimal sumTotalAmountByIdIn(@Param("ids") Collection<Long> ids);
+
     List<Invoice> findByOverdueSinceBefore(LocalDate date);
 
-    List<Invoice> findByInvoiceNumberStartingWithOrderByInvoiceNumberDesc(String prefix);
+    @Query(value = """
+                SELECT COALESCE(MAX(CASE WHEN SUBSTRING(invoice_number, LENGTH(:prefix) + 1) ~ '^[0-9]{1,18}$'
+                                         THEN CAST(SUBSTRING(invoice_number, LENGTH(:prefix) + 1) AS BIGINT) END), 0)
+                FROM invoices
+                WHERE invoice_number LIKE :prefix || '%'
+            """, nativeQuery = true)
+    long findMaxInvoiceSequence(@Param("prefix") String prefix);
+
+    @Query(SUMMARY_SELECT + SEARCH_FILTERS + NEWEST_FIRST)
+    List<InvoiceSummary> findSummaries(@Param("search") String search, @Param("isPaid") Boolean isPaid);
+
+    @Query(SUMMARY_SELECT + SEARCH_FILTERS + NEWEST_FIRST)
+    List<InvoiceSummary> findFirstSummaries(@Param("search") String search, @Param("isPaid") Boolean isPaid, Limit limit);
+
+    @Query(SUMMARY_SELECT + SEARCH_FILTERS + """
+                  AND (i.issueDate < :afterIssueDate OR (i.issueDate = :afterIssueDate AND i.id < :afterId))
+            """ + NEWEST_FIRST)
+    List<InvoiceSummary> findSummariesAfter(@Param("search") String search,
+                                            @Param("isPaid") Boolean isPaid,
+                                            @Param("afterIssueDate") LocalDate afterIssueDate,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    @Query("""
+                SELECT new com.smartinvoice.invoice.dto.InvoiceProductRef(i.id, l.productId)
+                FROM Invoice i JOIN i.lines l
+            """ + SEARCH_FILTERS + " ORDER BY l.lineIndex")
+    List<InvoiceProductRef> findProductRefs(@Param("search") String search, @Param("isPaid") Boolean isPaid);
+
+    @Query("""
+                SELECT new com.smartinvoice.invoice.dto.InvoiceProductRef(i.id, l.productId)
+                FROM Invoice i JOIN i.lines l
+                WHERE i.id IN :invoiceIds
+                ORDER BY l.lineIndex
+            """)
+    List<InvoiceProductRef> findProductRefsByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
 
 }
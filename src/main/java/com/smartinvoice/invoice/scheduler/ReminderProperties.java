@@ -0,0 +1,21 @@
+package com.smartinvoice.invoice.scheduler;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "invoice.reminder")
+public class ReminderProperties {
+    // Days before the due date on which PENDING invoices get a reminder
+    private int daysBeforeDue = 3;
+    // Days after the due date on which OVERDUE invoices get a reminder
+    private List<Integer> daysOverdue = List.of(1, 5, 10);
+    // Reminders queued and recorded per transaction
+    private int persistBatchSize = 1000;
+}
@@ -0,0 +1,9 @@
+package com.smartinvoice.invoice.scheduler;
+
+import java.time.Duration;
+
+public record ReminderRunStats(
+        int candidates,
+        int queued,
+        Duration duration
+) {}
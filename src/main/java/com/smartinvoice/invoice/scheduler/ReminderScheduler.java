@@ -1,81 +1,102 @@
 package com.smartinvoice.invoice.scheduler;
 
-import com.smartinvoice.invoice.email.EmailService;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
 import com.smartinvoice.invoice.entity.Invoice;
-import com.smartinvoice.invoice.pdf.PdfGeneratorService;
 import com.smartinvoice.invoice.repository.InvoiceRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Selects the invoices due a reminder in SQL and queues one email per invoice in the outbox. Each chunk of
+ * reminders is recorded and queued in the same transaction, and only invoices whose reminder was not yet recorded
+ * for the day get an email, so overlapping runs never send one twice. Rendering and delivery are left to the
+ * outbox dispatcher.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class ReminderScheduler {
 
     private final InvoiceRepository invoiceRepository;
-    private final PdfGeneratorService pdfGeneratorService;
-    private final EmailService emailService;
-
-    @Scheduled(cron = "0 0 9 * * *") // every day at 9:00 AM
-    public void runReminderTask() {
-        // Combine both overdue AND unpaid pending invoices
-        List<Invoice> invoicesToRemind = invoiceRepository.findAllUnpaidWithProductsAndReminders()
-                .stream()
-                .filter(invoice ->
-                        invoice.getStatus() == Invoice.InvoiceStatus.OVERDUE ||
-                                invoice.getStatus() == Invoice.InvoiceStatus.PENDING
-                )
-                .filter(this::shouldSendReminder)
-                .toList();
-
-        invoicesToRemind.forEach(this::sendReminder);
+    private final EmailOutboxService emailOutboxService;
+    private final ReminderProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer runTimer;
+    private final Counter queuedCounter;
+
+    public ReminderScheduler(InvoiceRepository invoiceRepository,
+                             EmailOutboxService emailOutboxService,
+                             ReminderProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.invoiceRepository = invoiceRepository;
+        this.emailOutboxService = emailOutboxService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.runTimer = Timer.builder("invoice.reminder.run").register(meterRegistry);
+        this.queuedCounter = Counter.builder("invoice.reminder.queued").register(meterRegistry);
     }
 
-    private boolean shouldSendReminder(Invoice invoice) {
-        LocalDate dueDate = invoice.getDueDate();
+    @Scheduled(cron = "0 0 9 * * *") // every day at 9:00 AM
+    public ReminderRunStats runReminderTask() {
+        long started = System.nanoTime();
         LocalDate today = LocalDate.now();
-        long daysDiff = ChronoUnit.DAYS.between(dueDate, today);
 
-        if (invoice.getReminderSentDates().contains(today)) {
-            return false;
+        List<Invoice> invoicesToRemind = findInvoicesToRemind(today);
+        int batchSize = properties.getPersistBatchSize();
+        int queued = 0;
+        for (int from = 0; from < invoicesToRemind.size(); from += batchSize) {
+            List<Invoice> chunk = invoicesToRemind.subList(from, Math.min(from + batchSize, invoicesToRemind.size()));
+            queued += transactionTemplate.execute(status -> queueReminders(chunk, today));
         }
 
-        // For PENDING invoices (before due date)
-        if (invoice.getStatus() == Invoice.InvoiceStatus.PENDING) {
-            return daysDiff == -3; // Only send 3 days before due date
-        }
-        // For OVERDUE invoices (after due date)
-        else if (invoice.getStatus() == Invoice.InvoiceStatus.OVERDUE) {
-            return Set.of(1L, 5L, 10L).contains(daysDiff);
-        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - started);
+        ReminderRunStats stats = new ReminderRunStats(invoicesToRemind.size(), queued, duration);
 
-        return false;
+        runTimer.record(duration);
+        queuedCounter.increment(stats.queued());
+        log.info("Reminder run finished: {} reminder(s) queued in {} ms", stats.queued(), duration.toMillis());
+        return stats;
     }
 
-    private void sendReminder(Invoice invoice) {
-        try {
-            byte[] pdf = pdfGeneratorService.generateInvoicePdf(invoice);
-            String email = invoice.getClient().getEmail();
-            String subject = buildReminderSubject(invoice);
-            String body = buildReminderBody(invoice);
-
-            emailService.sendInvoiceEmail(email, subject, body, pdf,
-                    "Invoice-" + invoice.getInvoiceNumber() + ".pdf");
+    private List<Invoice> findInvoicesToRemind(LocalDate today) {
+        List<LocalDate> overdueDueDates = properties.getDaysOverdue().stream()
+                .map(today::minusDays)
+                .toList();
 
-            // Track reminder
-            invoice.getReminderSentDates().add(LocalDate.now());
-            invoiceRepository.save(invoice);
+        return invoiceRepository.findReminderCandidates(today, today.plusDays(properties.getDaysBeforeDue()),
+                overdueDueDates, Invoice.InvoiceStatus.PENDING, Invoice.InvoiceStatus.OVERDUE);
+    }
 
-            System.out.println("✅ Reminder sent for invoice " + invoice.getInvoiceNumber());
-        } catch (Exception e) {
-            System.err.println("❌ Failed to process invoice ID: " + invoice.getId());
-            e.printStackTrace();
+    // Returns the number of reminders queued
+    private int queueReminders(List<Invoice> invoices, LocalDate today) {
+        Set<Long> recorded = new HashSet<>(
+                invoiceRepository.recordReminderSent(invoices.stream().map(Invoice::getId).toList(), today));
+        if (recorded.isEmpty()) {
+            return 0;
         }
+        List<EmailOutboxMessage> messages = invoices.stream()
+                .filter(invoice -> recorded.contains(invoice.getId()))
+                .map(invoice -> emailOutboxService.newMessage(invoice.getId(), invoice.getClient().getEmail(),
+                        buildReminderSubject(invoice), buildReminderBody(invoice, today),
+                        "Invoice-" + invoice.getInvoiceNumber() + ".pdf"))
+                .toList();
+
+        emailOutboxService.enqueueAll(messages);
+        return messages.size();
     }
 
     private String buildReminderSubject(Invoice invoice) {
@@ -84,18 +105,16 @@ public class ReminderScheduler {
                 : "Upcoming Payment: Invoice " + invoice.getInvoiceNumber();
     }
 
-    private String buildReminderBody(Invoice invoice) {
+    private String buildReminderBody(Invoice invoice, LocalDate today) {
         String base = "Dear " + invoice.getClient().getName() + ",\n\n" +
                 "Invoice #" + invoice.getInvoiceNumber() +
                 " (" + invoice.getTotalAmount() + " GBP) ";
 
         if (invoice.getStatus() == Invoice.InvoiceStatus.OVERDUE) {
-            long daysOverdue = ChronoUnit.DAYS.between(invoice.getDueDate(), LocalDate.now());
+            long daysOverdue = ChronoUnit.DAYS.between(invoice.getDueDate(), today);
             return base + "is " + daysOverdue + " day(s) overdue. Please make payment immediately.\n\n";
         } else {
-            return base + "is due in 3 days on " + invoice.getDueDate() + ".\n\n";
+            return base + "is due in " + properties.getDaysBeforeDue() + " days on " + invoice.getDueDate() + ".\n\n";
         }
     }
 }
-
-
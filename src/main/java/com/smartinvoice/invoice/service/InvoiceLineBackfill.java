@@ -0,0 +1,44 @@
+package com.smartinvoice.invoice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Gives invoices issued before line items existed one line per linked product, with quantity 1 and the
+ * product's current name and price, which is what their PDFs showed until now. Runs at startup and only touches
+ * invoices that have no lines yet, so it is a no-op once the data is converted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceLineBackfill {
+
+    static final String BACKFILL_SQL = """
+            INSERT INTO invoice_lines (id, invoice_id, line_index, product_id, product_name, unit_price, quantity, line_total)
+            SELECT nextval('invoice_lines_seq'), ip.invoice_id,
+                   ROW_NUMBER() OVER (PARTITION BY ip.invoice_id ORDER BY ip.product_id) - 1,
+                   p.id, p.name, p.price, 1, p.price
+            FROM invoice_products ip
+            JOIN products p ON p.id = ip.product_id
+            WHERE NOT EXISTS (SELECT 1 FROM invoice_lines l WHERE l.invoice_id = ip.invoice_id)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public int backfill() {
+        // Keeps two instances starting together from converting the same invoices
+        jdbcTemplate.execute("LOCK TABLE invoice_lines IN EXCLUSIVE MODE");
+        int lines = jdbcTemplate.update(BACKFILL_SQL);
+        if (lines > 0) {
+            log.info("Backfilled {} invoice line(s) from legacy product links", lines);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,123 @@
+package com.smartinvoice.invoice.service;
+
+import com.smartinvoice.invoice.entity.InvoiceNumberSequence;
+import com.smartinvoice.invoice.repository.InvoiceNumberSequenceRepository;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out invoice numbers ({@code INV-<year>-<seq>}) from a counter row per tenant and year.
+ * Sequence values are reserved from the database in blocks and served from memory, so only one
+ * locked round-trip is needed per block. Numbers left in a block when the application stops are skipped.
+ * Callers may not enter numbers of this form themselves, since the counter would hand them out again later.
+ */
+@Service
+public class InvoiceNumberAllocator {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final Pattern ALLOCATED_NUMBER = Pattern.compile("INV-\\d{4}-\\d+");
+
+    private final InvoiceNumberSequenceRepository sequenceRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+
+    private final Map<InvoiceNumberSequence.Key, Block> blocks = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(InvoiceNumberSequenceRepository sequenceRepository,
+                                  InvoiceRepository invoiceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${invoice.number.block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invoice number block size must be at least 1");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Whether {@code invoiceNumber} has the form this allocator hands out.
+     */
+    public static boolean isAllocatedFormat(String invoiceNumber) {
+        return ALLOCATED_NUMBER.matcher(invoiceNumber).matches();
+    }
+
+    public String nextInvoiceNumber() {
+        return nextInvoiceNumber(DEFAULT_TENANT, LocalDate.now().getYear());
+    }
+
+    public String nextInvoiceNumber(String tenant, int year) {
+        return allocate(tenant, year, 1).get(0);
+    }
+
+    /**
+     * Hands out {@code count} numbers at once. Whatever the current block cannot cover is reserved in a single
+     * round-trip, so a batch of any size costs at most one locked update.
+     */
+    public List<String> allocate(int count) {
+        return allocate(DEFAULT_TENANT, LocalDate.now().getYear(), count);
+    }
+
+    public List<String> allocate(String tenant, int year, int count) {
+        InvoiceNumberSequence.Key key = new InvoiceNumberSequence.Key(tenant, year);
+        Block block = blocks.computeIfAbsent(key, k -> new Block());
+        List<String> numbers = new ArrayList<>(count);
+        synchronized (block) {
+            while (numbers.size() < count) {
+                if (block.next >= block.limit) {
+                    int size = Math.max(blockSize, count - numbers.size());
+                    block.next = reserveBlock(key, size);
+                    block.limit = block.next + size;
+                }
+                numbers.add(format(year, block.next++));
+            }
+        }
+        return numbers;
+    }
+
+    private long reserveBlock(InvoiceNumberSequence.Key key, int size) {
+        return transactionTemplate.execute(status -> {
+            InvoiceNumberSequence sequence = sequenceRepository.findForUpdate(key)
+                    .orElseGet(() -> createSequence(key));
+
+            long start = sequence.getNextValue();
+            sequence.setNextValue(start + size);
+            sequenceRepository.save(sequence);
+            return start;
+        });
+    }
+
+    // First allocation of a year: continue after any numbers already issued, e.g. before the counter existed
+    private InvoiceNumberSequence createSequence(InvoiceNumberSequence.Key key) {
+        String prefix = "INV-" + key.getYear() + "-";
+        long lastIssued = invoiceRepository.findMaxInvoiceSequence(prefix);
+        sequenceRepository.insertIfAbsent(key.getTenant(), key.getYear(), lastIssued + 1);
+
+        return sequenceRepository.findForUpdate(key)
+                .orElseThrow(() -> new IllegalStateException("Invoice number sequence could not be created"));
+    }
+
+    private String format(int year, long value) {
+        return "INV-" + year + "-" + String.format("%04d", value);
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
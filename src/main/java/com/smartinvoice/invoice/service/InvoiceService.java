@@ -1,43 +1,77 @@
 package com.smartinvoice.invoice.service;
 
 import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.exception.ResourceInUseException;
 import com.smartinvoice.exception.ResourceNotFoundException;
 import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.RecordWriter;
+import com.smartinvoice.invoice.dto.EmailJobResponseDto;
+import com.smartinvoice.invoice.dto.InvoiceCsvRow;
+import com.smartinvoice.invoice.dto.InvoiceCursor;
+import com.smartinvoice.invoice.dto.InvoiceProductRef;
 import com.smartinvoice.invoice.dto.InvoiceSearchFilter;
+import com.smartinvoice.invoice.dto.InvoiceSummary;
 import com.smartinvoice.invoice.dto.InvoiceRequestDto;
 import com.smartinvoice.invoice.dto.InvoiceResponseDto;
-import com.smartinvoice.invoice.email.EmailService;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
 import com.smartinvoice.invoice.entity.Invoice;
-import com.smartinvoice.invoice.pdf.PdfGeneratorService;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
 import com.smartinvoice.invoice.repository.InvoiceRepository;
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.product.entity.Product;
 import com.smartinvoice.product.repository.ProductRepository;
-import jakarta.persistence.criteria.Predicate;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueRollupService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.io.Writer;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class InvoiceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int CSV_FLUSH_INTERVAL = 1000;
+    private static final String[] CSV_HEADER =
+            {"ID", "Invoice Number", "Issue Date", "Due Date", "Client Name", "Total Amount", "Is Paid"};
+    private static final String[] EXPORT_FIELDS =
+            {"id", "invoiceNumber", "issueDate", "dueDate", "clientName", "totalAmount", "isPaid"};
+
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
     private final ProductRepository productRepository;
-    private final PdfGeneratorService pdfGeneratorService;
-    private final EmailService emailService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final EmailOutboxService emailOutboxService;
     private final AuditLogService auditLogService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final ExportService exportService;
+    private final InvoiceStatsService invoiceStatsService;
+    private final RevenueRollupService revenueRollupService;
 
+    @Transactional
     public InvoiceResponseDto createInvoice(InvoiceRequestDto dto) {
         var client = clientRepository.findById(dto.clientId())
                 .orElseThrow(() -> new ResourceNotFoundException("Client not found"));
@@ -55,97 +89,173 @@ public class InvoiceService {
             throw new IllegalArgumentException("No valid product IDs provided");
         }
 
-        var products = productRepository.findAllById(productIds);
+        if (productIds.size() < dto.products().size()) {
+            throw new IllegalArgumentException("Every line must reference a product");
+        }
 
-        double totalAmount = dto.products().stream()
-                .mapToDouble(item -> item.price() * item.quantity())
-                .sum();
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (a, b) -> a));
 
         Invoice invoice = Invoice.builder()
-                .invoiceNumber(dto.invoiceNumber() != null ? dto.invoiceNumber() : generateNextInvoiceNumber())
+                .invoiceNumber(dto.invoiceNumber() != null ? checkManualNumber(dto.invoiceNumber())
+                        : invoiceNumberAllocator.nextInvoiceNumber())
                 .issueDate(dto.issueDate() != null ? dto.issueDate() : LocalDate.now())
                 .dueDate(dto.dueDate())
                 .client(client)
-                .products(products)
-                .totalAmount(totalAmount)
                 .isPaid(dto.isPaid() != null ? dto.isPaid() : false)
                 .build();
 
+        // Lines snapshot the product name and the billed price; the total is their sum
+        List<InvoiceLine> lines = new ArrayList<>(dto.products().size());
+        for (ProductDto item : dto.products()) {
+            Product product = products.get(item.productId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found");
+            }
+            Money unitPrice = item.price();
+            lines.add(InvoiceLine.builder()
+                    .invoice(invoice)
+                    .lineIndex(lines.size())
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .unitPrice(unitPrice)
+                    .quantity(item.quantity())
+                    .lineTotal(unitPrice.times(item.quantity()))
+                    .build());
+        }
+        invoice.setLines(lines);
+        invoice.setTotalAmount(Money.sum(lines, InvoiceLine::getLineTotal));
+
 
         client.getInvoices().add(invoice);
 
         Invoice saved = invoiceRepository.save(invoice);
+        invoiceStatsService.recordCreated(saved);
+        revenueRollupService.recordCreated(saved);
 
         auditLogService.log("CREATE", "Invoice", String.valueOf(saved.getId()));
 
         return mapToDto(saved);
     }
 
-    private String generateNextInvoiceNumber() {
-        String currentYear = String.valueOf(LocalDate.now().getYear());
-        String prefix = "INV-" + currentYear + "-";
+    // Numbers in the allocator's format are left to the allocator, which would otherwise issue them a second time
+    private String checkManualNumber(String invoiceNumber) {
+        if (InvoiceNumberAllocator.isAllocatedFormat(invoiceNumber)) {
+            throw new IllegalArgumentException("Invoice numbers of the form INV-<year>-<number> are assigned automatically");
+        }
+        if (invoiceRepository.existsByInvoiceNumber(invoiceNumber)) {
+            throw new ResourceInUseException("Invoice number " + invoiceNumber + " is already in use");
+        }
+        return invoiceNumber;
+    }
 
-        // Find the last invoice number for the current year
-        List<Invoice> yearInvoices = invoiceRepository.findByInvoiceNumberStartingWithOrderByInvoiceNumberDesc(prefix);
+    public List<InvoiceResponseDto> getFilteredInvoices(InvoiceSearchFilter filter) {
+        String search = toSearchPattern(filter.search());
 
-        if (!yearInvoices.isEmpty()) {
-            String lastNumber = yearInvoices.get(0).getInvoiceNumber(); // e.g., INV-2025-0042
-            String[] parts = lastNumber.split("-");
-            int lastSeq = Integer.parseInt(parts[2]);
-            return prefix + String.format("%04d", lastSeq + 1);
-        }
+        List<InvoiceSummary> summaries = invoiceRepository.findSummaries(search, filter.isPaid());
+        Map<Long, List<Long>> productIds = groupProductIds(invoiceRepository.findProductRefs(search, filter.isPaid()));
 
-        // If no invoices yet for this year
-        return prefix + "0001";
+        return summaries.stream()
+                .map(summary -> mapToDto(summary, productIds))
+                .collect(Collectors.toList());
     }
 
+    public CursorPage<InvoiceResponseDto> getInvoicePage(InvoiceSearchFilter filter, String cursor, Integer limit) {
+        String search = toSearchPattern(filter.search());
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to find out whether another page exists without a count query
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<InvoiceSummary> summaries;
+        if (cursor == null || cursor.isBlank()) {
+            summaries = invoiceRepository.findFirstSummaries(search, filter.isPaid(), fetchLimit);
+        } else {
+            InvoiceCursor after = InvoiceCursor.decode(cursor);
+            summaries = invoiceRepository.findSummariesAfter(search, filter.isPaid(), after.issueDate(), after.id(), fetchLimit);
+        }
 
-    public List<InvoiceResponseDto> getFilteredInvoices(InvoiceSearchFilter filter) {
-        Specification<Invoice> spec = (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            if (filter.search() != null && !filter.search().isBlank()) {
-                predicates.add(cb.like(cb.lower(root.get("invoiceNumber")), "%" + filter.search().toLowerCase() + "%"));
-            }
-            if (filter.isPaid() != null) {
-                predicates.add(cb.equal(root.get("isPaid"), filter.isPaid()));
-            }
+        boolean hasNext = summaries.size() > pageSize;
+        List<InvoiceSummary> page = hasNext ? summaries.subList(0, pageSize) : summaries;
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        List<Long> ids = page.stream().map(InvoiceSummary::id).toList();
+        Map<Long, List<Long>> productIds = groupProductIds(invoiceRepository.findProductRefsByInvoiceIds(ids));
 
-        return invoiceRepository.findAll(spec)
-                .stream()
-                .map(this::mapToDto)
+        List<InvoiceResponseDto> items = page.stream()
+                .map(summary -> mapToDto(summary, productIds))
                 .collect(Collectors.toList());
+        String nextCursor = hasNext ? InvoiceCursor.of(page.get(page.size() - 1)).encode() : null;
+
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    private String toSearchPattern(String search) {
+        return search == null || search.isBlank() ? null : "%" + search.toLowerCase() + "%";
+    }
+
+    private Map<Long, List<Long>> groupProductIds(List<InvoiceProductRef> refs) {
+        return refs.stream().collect(Collectors.groupingBy(InvoiceProductRef::invoiceId,
+                Collectors.mapping(InvoiceProductRef::productId, Collectors.toList())));
     }
 
 
     public InvoiceResponseDto getInvoiceById(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
+        Invoice invoice = invoiceRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
         return mapToDto(invoice);
     }
 
+    @Transactional
     public void deleteInvoice(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
+        // Locked for the same reason as in markAsPaid: the stats and the revenue rollup must subtract from the status
+        // and paid date the row really has
+        Invoice invoice = invoiceRepository.findForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
         invoiceRepository.delete(invoice);
+        invoiceStatsService.recordDeleted(invoice);
+        revenueRollupService.recordDeleted(invoice);
+        invoicePdfCache.evict(invoice.getId());
 
         auditLogService.log("DELETE", "Invoice", String.valueOf(invoice.getId()));
     }
 
+    @Transactional
     public void markAsPaid(Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId)
+        // The overdue sweep is a native UPDATE, so read the status under the row lock to get the real previous state
+        Invoice invoice = invoiceRepository.findForUpdate(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
+        Invoice.InvoiceStatus previousStatus = invoice.getStatus();
+        if (previousStatus == Invoice.InvoiceStatus.PAID) {
+            return;
+        }
         invoice.setStatus(Invoice.InvoiceStatus.PAID);
         invoice.setPaidDate(LocalDate.now());
         invoice.setIsPaid(true);
 
         invoiceRepository.save(invoice);
+        invoiceStatsService.recordStatusChange(invoice, previousStatus);
+        revenueRollupService.recordPaid(invoice, previousStatus);
+    }
+
+    private InvoiceResponseDto mapToDto(InvoiceSummary summary, Map<Long, List<Long>> productIds) {
+        return new InvoiceResponseDto(
+                summary.id(),
+                summary.clientName(),
+                summary.email(),
+                summary.invoiceNumber(),
+                summary.issueDate(),
+                summary.dueDate(),
+                summary.totalAmount(),
+                summary.clientId(),
+                productIds.getOrDefault(summary.id(), List.of()),
+                summary.isPaid(),
+                summary.status()
+        );
     }
 
     private InvoiceResponseDto mapToDto(Invoice invoice) {
@@ -158,22 +268,24 @@ public class InvoiceService {
                 invoice.getDueDate(),
                 invoice.getTotalAmount(),
                 invoice.getClient().getId(),
-                invoice.getProducts().stream().map(p -> p.getId()).collect(Collectors.toList()),
+                invoice.getLines().stream().map(InvoiceLine::getProductId).collect(Collectors.toList()),
                 invoice.getIsPaid(),
                 invoice.getStatus()
         );
     }
 
-    public byte[] getInvoicePdf(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
+    /**
+     * Loads the invoice with everything the PDF needs up front, so a missing invoice still fails before the response
+     * is committed and rendering does not depend on an open persistence context.
+     */
+    public StreamingResponseBody streamInvoicePdf(Long id) {
+        Invoice invoice = invoiceRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
-        return pdfGeneratorService.generateInvoicePdf(invoice);
+        return out -> invoicePdfCache.writeTo(invoice, out);
     }
 
-    public void emailInvoiceToClient(Long invoiceId) {
-        byte[] pdf = getInvoicePdf(invoiceId);
-
+    public EmailJobResponseDto emailInvoiceToClient(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new ResourceNotFoundException("Invoice not found"));
 
@@ -181,53 +293,61 @@ public class InvoiceService {
         String subject = "Invoice: " + invoice.getInvoiceNumber();
         String body = "Dear " + invoice.getClient().getName() + ",\n\nPlease find attached your invoice.";
 
-        emailService.sendInvoiceEmail(email, subject, body, pdf, "Invoice-" + invoice.getInvoiceNumber() + ".pdf");
-
-        auditLogService.log("EMAIL_SENT", "Invoice", String.valueOf(invoice.getId()));
-    }
-
-    private Specification<Invoice> withFilters(InvoiceFilterRequest filters) {
-        return (root, query, cb) -> {
-            List<Predicate> predicates = new ArrayList<>();
-
-            if (filters.issueDate() != null) {
-                predicates.add(cb.greaterThanOrEqualTo(root.get("issueDate"), filters.issueDate()));
-            }
-            if (filters.dueDate() != null) {
-                predicates.add(cb.lessThanOrEqualTo(root.get("issueDate"), filters.dueDate()));
-            }
-            if (filters.clientId() != null) {
-                predicates.add(cb.equal(root.get("client").get("id"), filters.clientId()));
-            }
-            if (filters.isPaid() != null) {
-                predicates.add(cb.equal(root.get("isPaid"), filters.isPaid()));
-            }
+        EmailOutboxMessage job = emailOutboxService.enqueueInvoiceEmail(invoice.getId(), email, subject, body,
+                "Invoice-" + invoice.getInvoiceNumber() + ".pdf");
 
-            return cb.and(predicates.toArray(new Predicate[0]));
-        };
+        auditLogService.log("EMAIL_QUEUED", "Invoice", String.valueOf(invoice.getId()));
+        return emailOutboxService.toJobDto(job);
     }
 
+    /**
+     * Streams the filtered invoices as CSV. Rows are projections read through a forward-only cursor, so nothing is
+     * held in the persistence context and memory stays flat regardless of the number of invoices.
+     */
+    @Transactional(readOnly = true)
     public void exportInvoicesToCsv(HttpServletResponse response, InvoiceFilterRequest filters) throws IOException {
-        List<Invoice> invoices = invoiceRepository.findAll(withFilters(filters));
-
         response.setContentType("text/csv");
         response.setHeader("Content-Disposition", "attachment; filename=invoices.csv");
 
-        try (Writer writer = response.getWriter();
-             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT
-                     .withHeader("ID", "Invoice Number", "Issue Date", "Due Date", "Client Name", "Total Amount", "Is Paid"))) {
-
-            for (Invoice invoice : invoices) {
-                csvPrinter.printRecord(
-                        invoice.getId(),
-                        invoice.getInvoiceNumber(),
-                        invoice.getIssueDate(),
-                        invoice.getDueDate(),
-                        invoice.getClient().getName(),
-                        invoice.getTotalAmount(),
-                        invoice.getIsPaid() ? "Yes" : "No"
+        try (Writer writer = response.getWriter()) {
+            writeInvoices(writer, filters, ExportFormat.CSV, rows -> {});
+        }
+    }
+
+    /**
+     * Writes the filtered invoices to {@code writer} in {@code format}, reporting the number of rows written so far
+     * to {@code progress} after every flush. Returns the total number of rows.
+     */
+    @Transactional(readOnly = true)
+    public long writeInvoices(Writer writer, InvoiceFilterRequest filters, ExportFormat format,
+                              LongConsumer progress) throws IOException {
+        boolean csv = format == ExportFormat.CSV;
+        RecordWriter out = exportService.openWriter(format, writer, csv ? CSV_HEADER : EXPORT_FIELDS);
+
+        long written = 0;
+        try (Stream<InvoiceCsvRow> rows = invoiceRepository.streamCsvRows(filters.issueDate(), filters.dueDate(),
+                filters.clientId(), filters.isPaid())) {
+            Iterator<InvoiceCsvRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                InvoiceCsvRow row = iterator.next();
+                boolean paid = Boolean.TRUE.equals(row.isPaid());
+                out.write(
+                        row.id(),
+                        row.invoiceNumber(),
+                        row.issueDate(),
+                        row.dueDate(),
+                        row.clientName(),
+                        row.totalAmount().toBigDecimal(),
+                        csv ? (paid ? "Yes" : "No") : paid
                 );
+                if (++written % CSV_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                    progress.accept(written);
+                }
             }
+            out.flush();
         }
+        progress.accept(written);
+        return written;
     }
 }
@@ -1,29 +1,72 @@
 package com.smartinvoice.invoice.util;
 
-import com.smartinvoice.invoice.entity.Invoice;
 import com.smartinvoice.invoice.repository.InvoiceRepository;
-import lombok.RequiredArgsConstructor;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class InvoiceStatusUpdater {
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceStatsService invoiceStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Timer transitionTimer;
+    private final Counter overdueCounter;
 
-    @Scheduled(cron = "0 * * * * *") // every day at 8:00 AM (cron = "0 0 8 * * *")
-    public void updateInvoiceStatuses() {
-        LocalDate today = LocalDate.now();
-
-        // Mark newly overdue invoices
-        invoiceRepository.findByDueDateBeforeAndStatus(today, Invoice.InvoiceStatus.PENDING)
-                .forEach(invoice -> {
-                    invoice.setStatus(Invoice.InvoiceStatus.OVERDUE);
-                    invoice.setOverdueSince(today);
-                    invoiceRepository.save(invoice);
-                });
+    public InvoiceStatusUpdater(InvoiceRepository invoiceRepository,
+                                InvoiceStatsService invoiceStatsService,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${invoice.status.overdue-chunk-size:10000}") int chunkSize) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceStatsService = invoiceStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.transitionTimer = Timer.builder("invoice.overdue.transition")
+                .description("Time taken to move past-due invoices to OVERDUE")
+                .register(meterRegistry);
+        this.overdueCounter = Counter.builder("invoice.overdue.marked")
+                .description("Invoices moved to OVERDUE")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${invoice.status.overdue-cron:0 0 * * * *}") // hourly; status only changes when the date does
+    public List<Long> updateInvoiceStatuses() {
+        return transitionTimer.record(() -> markOverdue(LocalDate.now()));
+    }
+
+    // Usually a single statement; large backlogs are worked off in chunks so no single UPDATE runs unbounded.
+    // Each chunk commits together with its dashboard stats delta.
+    private List<Long> markOverdue(LocalDate today) {
+        List<Long> overdueIds = new ArrayList<>();
+        List<Long> chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = invoiceRepository.markOverdue(today, chunkSize);
+                invoiceStatsService.recordOverdue(ids);
+                return ids;
+            });
+            overdueIds.addAll(chunk);
+        } while (chunk.size() == chunkSize);
+
+        overdueCounter.increment(overdueIds.size());
+        if (!overdueIds.isEmpty()) {
+            log.info("Marked {} invoice(s) as overdue", overdueIds.size());
+        }
+        return overdueIds;
     }
 }
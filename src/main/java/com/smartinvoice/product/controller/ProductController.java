@@ -1,9 +1,12 @@
 package com.smartinvoice.product.controller;
 
+import com.smartinvoice.common.dto.ListingPage;
 import com.smartinvoice.product.dto.ProductFilterRequest;
 import com.smartinvoice.product.dto.ProductRequestDto;
 import com.smartinvoice.product.dto.ProductResponseDto;
+import com.smartinvoice.product.dto.ProductSuggestionDto;
 import com.smartinvoice.product.service.ProductService;
+import com.smartinvoice.product.service.ProductSuggestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +20,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService service;
+    private final ProductSuggestService suggestService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -52,4 +56,20 @@ public class ProductController {
         return service.getFilteredProducts(filters);
     }
 
+    @GetMapping("/page")
+    public ListingPage<ProductResponseDto> getPage(@RequestParam(required = false) String keyword,
+                                                   @RequestParam(required = false) String sortBy,
+                                                   @RequestParam(required = false) Integer page,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(defaultValue = "false") boolean count) {
+        return service.getProductPage(new ProductFilterRequest(keyword, sortBy), page, cursor, limit, count);
+    }
+
+    @GetMapping("/suggest")
+    public List<ProductSuggestionDto> suggest(@RequestParam(defaultValue = "") String q,
+                                              @RequestParam(required = false) Integer limit) {
+        return suggestService.suggest(q, limit);
+    }
+
 }
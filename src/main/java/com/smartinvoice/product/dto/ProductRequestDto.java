@@ -1,9 +1,12 @@
 package com.smartinvoice.product.dto;
 
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
+
 public record ProductRequestDto(
         @NotBlank(message = "Name is required")
         String name,
@@ -11,8 +14,8 @@ public record ProductRequestDto(
         String description,
 
         @NotNull(message = "Price is required")
-        @Min(value = 0, message = "Price must be non-negative")
-        double price,
+        @DecimalMin(value = "0", message = "Price must be non-negative")
+        BigDecimal price,
 
         @Min(value = 0, message = "Quantity must be non-negative")
         int quantity
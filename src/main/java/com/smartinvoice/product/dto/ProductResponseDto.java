@@ -1,10 +1,12 @@
 package com.smartinvoice.product.dto;
 
+import com.smartinvoice.common.money.Money;
+
 public record ProductResponseDto(
         Long id,
         String name,
         String description,
-        double price,
+        Money price,
         int quantity
 ) {
 }
@@ -0,0 +1,12 @@
+package com.smartinvoice.product.dto;
+
+import com.smartinvoice.common.money.Money;
+
+/**
+ * Typeahead entry for a product, matched on name.
+ */
+public record ProductSuggestionDto(
+        Long id,
+        String name,
+        Money price
+) {}
@@ -1,10 +1,13 @@
 package com.smartinvoice.product.entity;
 
+import com.smartinvoice.common.money.Money;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,7 +22,9 @@ public class Product {
 
     private String description;
 
-    private double price;
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money price = Money.ZERO;
 
     private int quantity;
 }
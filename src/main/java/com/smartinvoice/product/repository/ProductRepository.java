@@ -1,8 +1,20 @@
 package com.smartinvoice.product.repository;
 
+import com.smartinvoice.product.dto.ProductSuggestionDto;
 import com.smartinvoice.product.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+
+    @Query("SELECT new com.smartinvoice.product.dto.ProductSuggestionDto(p.id, p.name, p.price) FROM Product p")
+    List<ProductSuggestionDto> findAllSuggestions();
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,6 +1,11 @@
 package com.smartinvoice.product.service;
 
 import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.listing.ListingDefinition;
+import com.smartinvoice.common.listing.ListingQueryService;
+import com.smartinvoice.common.listing.ListingSort;
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.product.dto.ProductFilterRequest;
 import com.smartinvoice.product.dto.ProductRequestDto;
 import com.smartinvoice.product.dto.ProductResponseDto;
@@ -13,24 +18,43 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final ListingDefinition<Product, ProductResponseDto> LISTING = new ListingDefinition<>(
+            Product.class,
+            ProductResponseDto.class,
+            List.of("id", "name", "description", "price", "quantity"),
+            ProductResponseDto::id,
+            Map.of(
+                    "name", ListingSort.ascending("name", ProductResponseDto::name),
+                    "-name", ListingSort.descending("name", ProductResponseDto::name),
+                    "price", ListingSort.ascending("price", ProductResponseDto::price),
+                    "-price", ListingSort.descending("price", ProductResponseDto::price)
+            ),
+            50,
+            200
+    );
+
     private final ProductRepository repository;
     private final AuditLogService auditLogService;
+    private final ProductSuggestService productSuggestService;
+    private final ListingQueryService listingQueryService;
 
     public ProductResponseDto create(ProductRequestDto dto) {
         Product product = Product.builder()
                 .name(dto.name())
                 .description(dto.description())
-                .price(dto.price())
+                .price(Money.of(dto.price()))
                 .quantity(dto.quantity())
                 .build();
 
         Product saved = repository.save(product);
+        productSuggestService.put(saved);
 
         auditLogService.log("CREATE", "Product", String.valueOf(saved.getId()));
 
@@ -55,10 +79,11 @@ public class ProductService {
 
         existing.setName(dto.name());
         existing.setDescription(dto.description());
-        existing.setPrice(dto.price());
+        existing.setPrice(Money.of(dto.price()));
         existing.setQuantity(dto.quantity());
 
         Product updated = repository.save(existing);
+        productSuggestService.put(updated);
 
         auditLogService.log("UPDATE", "Product", String.valueOf(updated.getId()));
 
@@ -70,6 +95,7 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
         repository.delete(existing);
+        productSuggestService.remove(existing.getId());
 
         auditLogService.log("DELETE", "Product", String.valueOf(existing.getId()));
     }
@@ -81,6 +107,11 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    public ListingPage<ProductResponseDto> getProductPage(ProductFilterRequest filter, Integer page, String cursor,
+                                                          Integer limit, boolean count) {
+        return listingQueryService.page(LISTING, withFilters(filter), filter.sortBy(), page, cursor, limit, count);
+    }
+
     private Specification<Product> withFilters(ProductFilterRequest filter) {
         return (root, query, cb) -> {
             if (filter.keyword() != null && !filter.keyword().isBlank()) {
@@ -0,0 +1,57 @@
+package com.smartinvoice.product.service;
+
+import com.smartinvoice.common.suggest.PrefixIndex;
+import com.smartinvoice.product.dto.ProductSuggestionDto;
+import com.smartinvoice.product.entity.Product;
+import com.smartinvoice.product.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Product autocomplete served from memory. The index is loaded from a projection at startup, updated by
+ * {@link ProductService} on every write and reloaded periodically to pick up changes made by other instances.
+ */
+@Slf4j
+@Service
+public class ProductSuggestService {
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+
+    private final ProductRepository repository;
+    private final PrefixIndex<ProductSuggestionDto> index = new PrefixIndex<>("products", ProductSuggestionDto::id,
+            product -> List.of(product.name() == null ? "" : product.name()));
+
+    public ProductSuggestService(ProductRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        index.bindTo(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${invoice.suggest.reload-delay:600000}",
+            fixedDelayString = "${invoice.suggest.reload-delay:600000}")
+    public void reload() {
+        long start = System.currentTimeMillis();
+        index.reload(repository::findAllSuggestions);
+        log.info("Loaded {} products into the suggest index in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<ProductSuggestionDto> suggest(String q, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return index.search(q, size);
+    }
+
+    public void put(Product product) {
+        index.put(new ProductSuggestionDto(product.getId(), product.getName(), product.getPrice()));
+    }
+
+    public void remove(Long id) {
+        index.remove(id);
+    }
+}
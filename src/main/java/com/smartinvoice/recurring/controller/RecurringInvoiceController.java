@@ -0,0 +1,55 @@
+package com.smartinvoice.recurring.controller;
+
+import com.smartinvoice.recurring.dto.RecurringInvoiceRequestDto;
+import com.smartinvoice.recurring.dto.RecurringInvoiceResponseDto;
+import com.smartinvoice.recurring.service.RecurringInvoiceGenerator;
+import com.smartinvoice.recurring.service.RecurringInvoiceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/recurring-invoices")
+@RequiredArgsConstructor
+public class RecurringInvoiceController {
+
+    private final RecurringInvoiceService recurringInvoiceService;
+    private final RecurringInvoiceGenerator recurringInvoiceGenerator;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public RecurringInvoiceResponseDto create(@Valid @RequestBody RecurringInvoiceRequestDto dto) {
+        return recurringInvoiceService.create(dto);
+    }
+
+    @GetMapping
+    public List<RecurringInvoiceResponseDto> getAll() {
+        return recurringInvoiceService.getAll();
+    }
+
+    @GetMapping("/{id}")
+    public RecurringInvoiceResponseDto getById(@PathVariable Long id) {
+        return recurringInvoiceService.getById(id);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable Long id) {
+        recurringInvoiceService.delete(id);
+    }
+
+    /**
+     * Issues everything due now instead of waiting for the scheduled run.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Integer>> generateDue() {
+        return ResponseEntity.ok(Map.of("generated", recurringInvoiceGenerator.generateDue()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.smartinvoice.recurring.dto;
+
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.recurring.entity.RecurringInvoice.Cadence;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record RecurringInvoiceRequestDto(
+        @NotNull Long clientId,
+        @NotNull Cadence cadence,
+        @NotNull LocalDate nextRunDate,
+        LocalDate endDate,
+        @PositiveOrZero int paymentTermDays,
+        boolean sendEmail,
+        @NotEmpty
+        @Valid
+        List<@Valid ProductDto> products
+) {}
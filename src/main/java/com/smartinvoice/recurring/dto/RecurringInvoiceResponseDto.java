@@ -0,0 +1,21 @@
+package com.smartinvoice.recurring.dto;
+
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.recurring.entity.RecurringInvoice.Cadence;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record RecurringInvoiceResponseDto(
+        Long id,
+        Long clientId,
+        String clientName,
+        Cadence cadence,
+        LocalDate nextRunDate,
+        LocalDate endDate,
+        LocalDate lastRunDate,
+        int paymentTermDays,
+        boolean sendEmail,
+        boolean active,
+        List<ProductDto> products
+) {}
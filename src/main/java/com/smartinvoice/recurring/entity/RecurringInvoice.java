@@ -0,0 +1,87 @@
+package com.smartinvoice.recurring.entity;
+
+import com.smartinvoice.client.entity.Client;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Template for an invoice that is issued on a fixed cadence. {@code nextRunDate} is the issue date of the next
+ * invoice; the generator advances it after every run and deactivates the template once it passes {@code endDate}.
+ * Month-based cadences keep the day of month of {@code anchorDate}, so a template started on the 31st is issued on
+ * the last day of shorter months and goes back to the 31st afterwards.
+ */
+@Entity
+@Table(name = "recurring_invoices", indexes = {
+        @Index(name = "idx_recurring_invoices_due", columnList = "active, next_run_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringInvoice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "client_id")
+    private Client client;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Cadence cadence;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    // First run date; templates created before it existed fall back to nextRunDate
+    private LocalDate anchorDate;
+
+    private LocalDate endDate;
+
+    private LocalDate lastRunDate;
+
+    // Due date = issue date + this many days
+    private int paymentTermDays;
+
+    private boolean sendEmail;
+
+    @Builder.Default
+    private boolean active = true;
+
+    @ElementCollection
+    @CollectionTable(name = "recurring_invoice_lines", joinColumns = @JoinColumn(name = "recurring_invoice_id"))
+    @OrderColumn(name = "line_index")
+    @Builder.Default
+    private List<RecurringInvoiceLine> lines = new ArrayList<>();
+
+    public enum Cadence {
+        WEEKLY,
+        MONTHLY,
+        QUARTERLY,
+        YEARLY;
+
+        /**
+         * Returns the run after {@code date}, on the day of month of {@code anchor} or the last day of the month
+         * when that month is shorter.
+         */
+        public LocalDate next(LocalDate date, LocalDate anchor) {
+            LocalDate next = switch (this) {
+                case WEEKLY -> date.plusWeeks(1);
+                case MONTHLY -> date.plusMonths(1);
+                case QUARTERLY -> date.plusMonths(3);
+                case YEARLY -> date.plusYears(1);
+            };
+            if (this == WEEKLY) {
+                return next;
+            }
+            return next.withDayOfMonth(Math.min(anchor.getDayOfMonth(), next.lengthOfMonth()));
+        }
+    }
+}
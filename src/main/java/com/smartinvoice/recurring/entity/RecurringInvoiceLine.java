@@ -0,0 +1,23 @@
+package com.smartinvoice.recurring.entity;
+
+import com.smartinvoice.common.money.Money;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RecurringInvoiceLine {
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private int quantity;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money price;
+}
@@ -0,0 +1,58 @@
+package com.smartinvoice.recurring.repository;
+
+import com.smartinvoice.recurring.entity.RecurringInvoice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RecurringInvoiceRepository extends JpaRepository<RecurringInvoice, Long> {
+
+    /**
+     * Locks the next templates due on or before {@code date}, skipping rows another generator has already locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+                SELECT r FROM RecurringInvoice r
+                WHERE r.active = true AND r.nextRunDate <= :date
+                ORDER BY r.id
+            """)
+    List<RecurringInvoice> findDueForGeneration(@Param("date") LocalDate date, Limit limit);
+
+    // Initialises client and lines of already loaded templates in one query
+    @Query("""
+                SELECT DISTINCT r FROM RecurringInvoice r
+                JOIN FETCH r.client
+                LEFT JOIN FETCH r.lines
+                WHERE r.id IN :ids
+            """)
+    List<RecurringInvoice> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+                SELECT DISTINCT r FROM RecurringInvoice r
+                JOIN FETCH r.client
+                LEFT JOIN FETCH r.lines
+                ORDER BY r.id
+            """)
+    List<RecurringInvoice> findAllWithDetails();
+
+    @Query("""
+                SELECT r FROM RecurringInvoice r
+                JOIN FETCH r.client
+                LEFT JOIN FETCH r.lines
+                WHERE r.id = :id
+            """)
+    Optional<RecurringInvoice> findWithDetailsById(@Param("id") Long id);
+
+    boolean existsByClientId(Long clientId);
+}
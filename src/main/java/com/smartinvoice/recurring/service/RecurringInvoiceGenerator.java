@@ -0,0 +1,286 @@
+package com.smartinvoice.recurring.service;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import com.smartinvoice.invoice.service.InvoiceNumberAllocator;
+import com.smartinvoice.product.repository.ProductRepository;
+import com.smartinvoice.recurring.entity.RecurringInvoice;
+import com.smartinvoice.recurring.entity.RecurringInvoiceLine;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Issues the invoices of all recurring templates that are due. Templates are claimed in chunks with
+ * {@code SKIP LOCKED}; each chunk is one transaction that reserves its invoice numbers in a single round-trip and
+ * writes invoices and their lines with JDBC batches instead of going through {@code createInvoice}.
+ * Templates that fell behind catch up one period per pass until they are current, numbered in the year each invoice
+ * is issued. Templates that reference a deleted product are deactivated instead of billed.
+ */
+@Slf4j
+@Service
+public class RecurringInvoiceGenerator {
+
+    static final String INSERT_INVOICE_SQL = """
+            INSERT INTO invoices (invoice_number, issue_date, due_date, total_amount, is_paid, status, client_id)
+            VALUES (?, ?, ?, ?, false, 'PENDING', ?)
+            """;
+    // The product name is snapshotted in the same statement so a chunk needs no product lookups
+    static final String INSERT_LINE_SQL = """
+            INSERT INTO invoice_lines (id, invoice_id, line_index, product_id, product_name, unit_price, quantity, line_total)
+            VALUES (nextval('invoice_lines_seq'), ?, ?, ?, (SELECT name FROM products WHERE id = ?), ?, ?, ?)
+            """;
+
+    private record Chunk(int claimed, int generated) {}
+
+    private final RecurringInvoiceRepository repository;
+    private final ProductRepository productRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoiceStatsService invoiceStatsService;
+    private final RevenueRollupService revenueRollupService;
+    private final EmailOutboxService emailOutboxService;
+    private final AuditLogService auditLogService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Counter generatedCounter;
+
+    public RecurringInvoiceGenerator(RecurringInvoiceRepository repository,
+                                     ProductRepository productRepository,
+                                     InvoiceNumberAllocator invoiceNumberAllocator,
+                                     InvoiceStatsService invoiceStatsService,
+                                     RevenueRollupService revenueRollupService,
+                                     EmailOutboxService emailOutboxService,
+                                     AuditLogService auditLogService,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${invoice.recurring.chunk-size:1000}") int chunkSize) {
+        this.repository = repository;
+        this.productRepository = productRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.invoiceStatsService = invoiceStatsService;
+        this.revenueRollupService = revenueRollupService;
+        this.emailOutboxService = emailOutboxService;
+        this.auditLogService = auditLogService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.generatedCounter = Counter.builder("invoice.recurring.generated")
+                .description("Invoices issued from recurring templates")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${invoice.recurring.cron:0 15 0 * * *}")
+    public int generateDue() {
+        return generateDue(LocalDate.now());
+    }
+
+    /**
+     * Issues every invoice due on or before {@code date}. Returns the number of invoices created.
+     */
+    public int generateDue(LocalDate date) {
+        int generated = 0;
+        Chunk chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> generateChunk(date));
+            generated += chunk.generated();
+        } while (chunk.claimed() > 0);
+
+        generatedCounter.increment(generated);
+        if (generated > 0) {
+            log.info("Generated {} recurring invoice(s)", generated);
+        }
+        return generated;
+    }
+
+    private Chunk generateChunk(LocalDate date) {
+        List<RecurringInvoice> claimed = repository.findDueForGeneration(date, Limit.of(chunkSize));
+        if (claimed.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+        repository.findAllWithDetailsByIdIn(claimed.stream().map(RecurringInvoice::getId).toList());
+        List<RecurringInvoice> templates = withExistingProducts(claimed);
+        if (templates.isEmpty()) {
+            return new Chunk(claimed.size(), 0);
+        }
+
+        List<String> numbers = allocateNumbers(templates);
+        List<Invoice> invoices = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            invoices.add(toInvoice(templates.get(i), numbers.get(i)));
+        }
+
+        insertInvoices(invoices);
+        insertLines(templates, invoices);
+        invoiceStatsService.recordCreated(invoices);
+        revenueRollupService.recordCreated(invoices);
+        enqueueEmails(templates, invoices);
+
+        templates.forEach(this::advance);
+        invoices.forEach(invoice -> auditLogService.log("CREATE", "Invoice", String.valueOf(invoice.getId())));
+        return new Chunk(claimed.size(), invoices.size());
+    }
+
+    // Deactivates templates whose products were deleted since they were set up and returns the rest
+    private List<RecurringInvoice> withExistingProducts(List<RecurringInvoice> templates) {
+        Set<Long> productIds = new HashSet<>();
+        templates.forEach(template -> template.getLines().forEach(line -> productIds.add(line.getProductId())));
+        if (productIds.isEmpty()) {
+            return templates;
+        }
+        Set<Long> existing = new HashSet<>(productRepository.findExistingIds(productIds));
+        if (existing.size() == productIds.size()) {
+            return templates;
+        }
+
+        List<RecurringInvoice> billable = new ArrayList<>(templates.size());
+        for (RecurringInvoice template : templates) {
+            if (template.getLines().stream().allMatch(line -> existing.contains(line.getProductId()))) {
+                billable.add(template);
+            } else {
+                template.setActive(false);
+                log.warn("Deactivated recurring invoice {}: it references a deleted product", template.getId());
+                auditLogService.log("DEACTIVATE", "RecurringInvoice", String.valueOf(template.getId()));
+            }
+        }
+        return billable;
+    }
+
+    // Reserves one block of numbers per issue year, so invoices caught up across a year end keep their own year
+    private List<String> allocateNumbers(List<RecurringInvoice> templates) {
+        Map<Integer, Integer> countsByYear = new TreeMap<>();
+        templates.forEach(template -> countsByYear.merge(template.getNextRunDate().getYear(), 1, Integer::sum));
+
+        Map<Integer, Iterator<String>> numbersByYear = new HashMap<>();
+        countsByYear.forEach((year, count) -> numbersByYear.put(year, invoiceNumberAllocator
+                .allocate(InvoiceNumberAllocator.DEFAULT_TENANT, year, count).iterator()));
+
+        List<String> numbers = new ArrayList<>(templates.size());
+        templates.forEach(template -> numbers.add(numbersByYear.get(template.getNextRunDate().getYear()).next()));
+        return numbers;
+    }
+
+    private Invoice toInvoice(RecurringInvoice template, String invoiceNumber) {
+        LocalDate issueDate = template.getNextRunDate();
+        return Invoice.builder()
+                .invoiceNumber(invoiceNumber)
+                .issueDate(issueDate)
+                .dueDate(issueDate.plusDays(template.getPaymentTermDays()))
+                .client(template.getClient())
+                .totalAmount(Money.sum(template.getLines(),
+                        line -> line.getPrice().times(line.getQuantity())))
+                .isPaid(false)
+                .status(Invoice.InvoiceStatus.PENDING)
+                .build();
+    }
+
+    private void insertInvoices(List<Invoice> invoices) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_INVOICE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Invoice invoice = invoices.get(i);
+                        ps.setString(1, invoice.getInvoiceNumber());
+                        ps.setDate(2, Date.valueOf(invoice.getIssueDate()));
+                        ps.setDate(3, Date.valueOf(invoice.getDueDate()));
+                        ps.setBigDecimal(4, invoice.getTotalAmount().toBigDecimal());
+                        ps.setLong(5, invoice.getClient().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return invoices.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> ids = keys.getKeyList();
+        for (int i = 0; i < invoices.size(); i++) {
+            invoices.get(i).setId(((Number) ids.get(i).get("id")).longValue());
+        }
+    }
+
+    private void insertLines(List<RecurringInvoice> templates, List<Invoice> invoices) {
+        List<InvoiceLine> lines = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            List<RecurringInvoiceLine> templateLines = templates.get(i).getLines();
+            for (int index = 0; index < templateLines.size(); index++) {
+                RecurringInvoiceLine line = templateLines.get(index);
+                Money unitPrice = line.getPrice();
+                lines.add(InvoiceLine.builder()
+                        .invoice(invoices.get(i))
+                        .lineIndex(index)
+                        .productId(line.getProductId())
+                        .unitPrice(unitPrice)
+                        .quantity(line.getQuantity())
+                        .lineTotal(unitPrice.times(line.getQuantity()))
+                        .build());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_LINE_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setLong(1, line.getInvoice().getId());
+            ps.setInt(2, line.getLineIndex());
+            ps.setLong(3, line.getProductId());
+            ps.setLong(4, line.getProductId());
+            ps.setBigDecimal(5, line.getUnitPrice().toBigDecimal());
+            ps.setInt(6, line.getQuantity());
+            ps.setBigDecimal(7, line.getLineTotal().toBigDecimal());
+        });
+    }
+
+    private void enqueueEmails(List<RecurringInvoice> templates, List<Invoice> invoices) {
+        List<EmailOutboxMessage> messages = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            Invoice invoice = invoices.get(i);
+            if (templates.get(i).isSendEmail() && invoice.getClient().getEmail() != null) {
+                messages.add(emailOutboxService.newMessage(invoice.getId(), invoice.getClient().getEmail(),
+                        "Invoice: " + invoice.getInvoiceNumber(),
+                        "Dear " + invoice.getClient().getName() + ",\n\nPlease find attached your invoice.",
+                        "Invoice-" + invoice.getInvoiceNumber() + ".pdf"));
+            }
+        }
+        if (!messages.isEmpty()) {
+            emailOutboxService.enqueueAll(messages);
+        }
+    }
+
+    private void advance(RecurringInvoice template) {
+        template.setLastRunDate(template.getNextRunDate());
+        LocalDate anchor = template.getAnchorDate() != null ? template.getAnchorDate() : template.getNextRunDate();
+        template.setNextRunDate(template.getCadence().next(template.getNextRunDate(), anchor));
+        if (template.getEndDate() != null && template.getNextRunDate().isAfter(template.getEndDate())) {
+            template.setActive(false);
+        }
+    }
+}
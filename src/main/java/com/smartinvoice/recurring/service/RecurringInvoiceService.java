@@ -0,0 +1,104 @@
+package com.smartinvoice.recurring.service;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.product.entity.Product;
+import com.smartinvoice.product.repository.ProductRepository;
+import com.smartinvoice.recurring.dto.RecurringInvoiceRequestDto;
+import com.smartinvoice.recurring.dto.RecurringInvoiceResponseDto;
+import com.smartinvoice.recurring.entity.RecurringInvoice;
+import com.smartinvoice.recurring.entity.RecurringInvoiceLine;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RecurringInvoiceService {
+
+    private final RecurringInvoiceRepository repository;
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final AuditLogService auditLogService;
+
+    @Transactional
+    public RecurringInvoiceResponseDto create(RecurringInvoiceRequestDto dto) {
+        var client = clientRepository.findById(dto.clientId())
+                .orElseThrow(() -> new ResourceNotFoundException("Client not found"));
+
+        if (dto.endDate() != null && dto.endDate().isBefore(dto.nextRunDate())) {
+            throw new IllegalArgumentException("End date must not be before the next run date");
+        }
+
+        Set<Long> productIds = dto.products().stream().map(ProductDto::productId).collect(Collectors.toSet());
+        Set<Long> existing = productRepository.findAllById(productIds).stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        if (productIds.contains(null) || !existing.containsAll(productIds)) {
+            throw new IllegalArgumentException("Unknown product ID in recurring invoice");
+        }
+
+        RecurringInvoice template = RecurringInvoice.builder()
+                .client(client)
+                .cadence(dto.cadence())
+                .nextRunDate(dto.nextRunDate())
+                .anchorDate(dto.nextRunDate())
+                .endDate(dto.endDate())
+                .paymentTermDays(dto.paymentTermDays())
+                .sendEmail(dto.sendEmail())
+                .lines(dto.products().stream()
+                        .map(item -> new RecurringInvoiceLine(item.productId(), item.quantity(), item.price()))
+                        .collect(Collectors.toList()))
+                .build();
+
+        RecurringInvoice saved = repository.save(template);
+        auditLogService.log("CREATE", "RecurringInvoice", String.valueOf(saved.getId()));
+        return mapToDto(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringInvoiceResponseDto> getAll() {
+        return repository.findAllWithDetails().stream().map(this::mapToDto).toList();
+    }
+
+    @Transactional(readOnly = true)
+    public RecurringInvoiceResponseDto getById(Long id) {
+        return repository.findWithDetailsById(id)
+                .map(this::mapToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring invoice not found"));
+    }
+
+    @Transactional
+    public void delete(Long id) {
+        RecurringInvoice template = repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring invoice not found"));
+
+        repository.delete(template);
+        auditLogService.log("DELETE", "RecurringInvoice", String.valueOf(id));
+    }
+
+    private RecurringInvoiceResponseDto mapToDto(RecurringInvoice template) {
+        return new RecurringInvoiceResponseDto(
+                template.getId(),
+                template.getClient().getId(),
+                template.getClient().getName(),
+                template.getCadence(),
+                template.getNextRunDate(),
+                template.getEndDate(),
+                template.getLastRunDate(),
+                template.getPaymentTermDays(),
+                template.isSendEmail(),
+                template.isActive(),
+                template.getLines().stream()
+                        .map(line -> new ProductDto(line.getProductId(), line.getQuantity(), line.getPrice()))
+                        .toList()
+        );
+    }
+}
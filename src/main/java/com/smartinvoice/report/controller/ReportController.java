@@ -0,0 +1,42 @@
+package com.smartinvoice.report.controller;
+
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.report.dto.AgingReportDto;
+import com.smartinvoice.report.service.AgingReportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final AgingReportService agingReportService;
+    private final ExportService exportService;
+
+    @GetMapping("/aging")
+    public AgingReportDto getAgingReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return agingReportService.getAgingReport(asOf);
+    }
+
+    @GetMapping("/aging/export")
+    public void exportAgingReport(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        exportService.writeAttachment(response, "aging-report", format, gzip,
+                (writer, progress) -> agingReportService.writeAgingReport(writer, asOf, format, progress));
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartinvoice.report.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record AgingReportDto(
+        LocalDate asOf,
+        AgingRowDto totals,
+        List<AgingRowDto> clients
+) {}
@@ -0,0 +1,18 @@
+package com.smartinvoice.report.dto;
+
+import com.smartinvoice.common.money.Money;
+
+/**
+ * Outstanding amounts of one client (or of all clients when {@code clientId} is null) by days past due.
+ */
+public record AgingRowDto(
+        Long clientId,
+        String clientName,
+        long invoiceCount,
+        Money current,
+        Money days1To30,
+        Money days31To60,
+        Money days61To90,
+        Money over90,
+        Money total
+) {}
@@ -0,0 +1,125 @@
+package com.smartinvoice.report.service;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.RecordWriter;
+import com.smartinvoice.report.dto.AgingReportDto;
+import com.smartinvoice.report.dto.AgingRowDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Receivables aging: what was still unpaid on a given day, bucketed by how far past due it was. The whole report
+ * is one grouped scan of {@code invoices}; no entities are loaded.
+ */
+@Service
+@RequiredArgsConstructor
+public class AgingReportService {
+
+    // Outstanding on as_of = issued by then and not paid by then. Invoices without a due date count as current.
+    static final String AGING_SQL = """
+            WITH outstanding AS (
+                SELECT i.client_id, i.total_amount, CAST(? AS date) - i.due_date AS days
+                FROM invoices i
+                WHERE (i.issue_date IS NULL OR i.issue_date <= CAST(? AS date))
+                  AND (i.paid_date > CAST(? AS date) OR (i.paid_date IS NULL AND i.status IS DISTINCT FROM 'PAID'))
+            )
+            SELECT o.client_id,
+                   c.name,
+                   COUNT(*) AS invoice_count,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.days IS NULL OR o.days <= 0), 0) AS current_amount,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.days BETWEEN 1 AND 30), 0) AS days_1_30,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.days BETWEEN 31 AND 60), 0) AS days_31_60,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.days BETWEEN 61 AND 90), 0) AS days_61_90,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.days > 90), 0) AS over_90,
+                   SUM(o.total_amount) AS total_amount
+            FROM outstanding o
+            LEFT JOIN clients c ON c.id = o.client_id
+            GROUP BY o.client_id, c.name
+            ORDER BY total_amount DESC, o.client_id
+            """;
+
+    private static final String[] EXPORT_FIELDS = {
+            "clientId", "clientName", "invoiceCount", "current", "days1To30", "days31To60", "days61To90", "over90", "total"
+    };
+    private static final String TOTAL_LABEL = "Total";
+
+    private static final RowMapper<AgingRowDto> ROW_MAPPER = (rs, rowNum) -> new AgingRowDto(
+            rs.getObject("client_id", Long.class),
+            rs.getString("name"),
+            rs.getLong("invoice_count"),
+            Money.of(rs.getBigDecimal("current_amount")),
+            Money.of(rs.getBigDecimal("days_1_30")),
+            Money.of(rs.getBigDecimal("days_31_60")),
+            Money.of(rs.getBigDecimal("days_61_90")),
+            Money.of(rs.getBigDecimal("over_90")),
+            Money.of(rs.getBigDecimal("total_amount")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportService exportService;
+
+    public AgingReportDto getAgingReport(LocalDate asOf) {
+        LocalDate date = asOf != null ? asOf : LocalDate.now();
+        Date sqlDate = Date.valueOf(date);
+        List<AgingRowDto> clients = jdbcTemplate.query(AGING_SQL, ROW_MAPPER, sqlDate, sqlDate, sqlDate);
+        return new AgingReportDto(date, totals(clients), clients);
+    }
+
+    /**
+     * Writes one row per client followed by the overall totals. Returns the number of rows written.
+     */
+    public long writeAgingReport(Writer writer, LocalDate asOf, ExportFormat format,
+                                 LongConsumer progress) throws IOException {
+        AgingReportDto report = getAgingReport(asOf);
+        RecordWriter out = exportService.openWriter(format, writer, EXPORT_FIELDS);
+
+        long written = 0;
+        for (AgingRowDto row : report.clients()) {
+            write(out, row);
+            written++;
+        }
+        write(out, report.totals());
+        written++;
+        out.flush();
+        progress.accept(written);
+        return written;
+    }
+
+    private void write(RecordWriter out, AgingRowDto row) throws IOException {
+        out.write(
+                row.clientId(),
+                row.clientName(),
+                row.invoiceCount(),
+                row.current().toBigDecimal(),
+                row.days1To30().toBigDecimal(),
+                row.days31To60().toBigDecimal(),
+                row.days61To90().toBigDecimal(),
+                row.over90().toBigDecimal(),
+                row.total().toBigDecimal()
+        );
+    }
+
+    static AgingRowDto totals(List<AgingRowDto> rows) {
+        long count = 0;
+        for (AgingRowDto row : rows) {
+            count += row.invoiceCount();
+        }
+        return new AgingRowDto(null, TOTAL_LABEL, count,
+                Money.sum(rows, AgingRowDto::current),
+                Money.sum(rows, AgingRowDto::days1To30),
+                Money.sum(rows, AgingRowDto::days31To60),
+                Money.sum(rows, AgingRowDto::days61To90),
+                Money.sum(rows, AgingRowDto::over90),
+                Money.sum(rows, AgingRowDto::total));
+    }
+}
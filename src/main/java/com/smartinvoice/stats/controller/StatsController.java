@@ -0,0 +1,52 @@
+package com.smartinvoice.stats.controller;
+
+import com.smartinvoice.stats.dto.ClientStatsDto;
+import com.smartinvoice.stats.dto.DashboardStatsDto;
+import com.smartinvoice.stats.dto.RevenuePointDto;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueGranularity;
+import com.smartinvoice.stats.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final InvoiceStatsService invoiceStatsService;
+    private final RevenueRollupService revenueRollupService;
+
+    @GetMapping
+    public DashboardStatsDto getDashboard() {
+        return invoiceStatsService.getDashboard();
+    }
+
+    @GetMapping("/clients")
+    public List<ClientStatsDto> getTopClients(@RequestParam(required = false) Integer limit) {
+        return invoiceStatsService.getTopClients(limit);
+    }
+
+    @GetMapping("/revenue")
+    public List<RevenuePointDto> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") RevenueGranularity granularity) {
+        return revenueRollupService.getRevenue(from, to, granularity);
+    }
+
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRevenue() {
+        return ResponseEntity.ok(Map.of("days", revenueRollupService.rebuild()));
+    }
+}
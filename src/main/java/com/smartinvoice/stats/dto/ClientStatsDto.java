@@ -0,0 +1,10 @@
+package com.smartinvoice.stats.dto;
+
+import com.smartinvoice.common.money.Money;
+
+public record ClientStatsDto(
+        Long clientId,
+        String clientName,
+        long invoiceCount,
+        Money totalAmount
+) {}
@@ -0,0 +1,17 @@
+package com.smartinvoice.stats.dto;
+
+import com.smartinvoice.common.money.Money;
+
+import java.util.List;
+
+public record DashboardStatsDto(
+        long invoiceCount,
+        Money totalInvoiced,
+        long unpaidCount,
+        Money unpaidAmount,
+        long overdueCount,
+        Money overdueAmount,
+        Money totalIncome,
+        List<StatsBucketDto> byStatus,
+        List<StatsBucketDto> byMonth
+) {}
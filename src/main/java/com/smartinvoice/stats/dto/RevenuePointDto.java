@@ -0,0 +1,16 @@
+package com.smartinvoice.stats.dto;
+
+import com.smartinvoice.common.money.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Revenue of the day, ISO week or month starting at {@code period}.
+ */
+public record RevenuePointDto(
+        LocalDate period,
+        long issuedCount,
+        Money issuedAmount,
+        long paidCount,
+        Money paidAmount
+) {}
@@ -0,0 +1,9 @@
+package com.smartinvoice.stats.dto;
+
+import com.smartinvoice.common.money.Money;
+
+public record StatsBucketDto(
+        String bucket,
+        long invoiceCount,
+        Money totalAmount
+) {}
@@ -0,0 +1,53 @@
+package com.smartinvoice.stats.entity;
+
+import com.smartinvoice.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Running count and sum of invoices in one bucket of a dimension, e.g. status PAID, month 2025-03 or client 42.
+ * Rows are only changed through additive upserts, so concurrent writers never overwrite each other.
+ */
+@Entity
+@Table(name = "invoice_stats")
+@IdClass(InvoiceStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceStat {
+
+    public enum Dimension {
+        STATUS,
+        MONTH,  // by issue month, yyyy-MM
+        CLIENT
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Dimension dimension;
+
+    @Id
+    @Column(length = 64)
+    private String bucket;
+
+    private long invoiceCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money totalAmount = Money.ZERO;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Dimension dimension;
+        private String bucket;
+    }
+}
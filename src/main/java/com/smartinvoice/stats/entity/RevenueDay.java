@@ -0,0 +1,35 @@
+package com.smartinvoice.stats.entity;
+
+import com.smartinvoice.common.money.Money;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Invoices issued and paid on one day. Issued amounts are booked on the issue date, paid amounts on the paid date.
+ */
+@Entity
+@Table(name = "revenue_daily")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevenueDay {
+
+    @Id
+    private LocalDate day;
+
+    private long issuedCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money issuedAmount = Money.ZERO;
+
+    private long paidCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    @Builder.Default
+    private Money paidAmount = Money.ZERO;
+}
@@ -0,0 +1,17 @@
+package com.smartinvoice.stats.repository;
+
+import com.smartinvoice.stats.entity.InvoiceStat;
+import com.smartinvoice.stats.entity.InvoiceStat.Dimension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface InvoiceStatRepository extends JpaRepository<InvoiceStat, InvoiceStat.Key> {
+
+    List<InvoiceStat> findByDimension(Dimension dimension);
+
+    List<InvoiceStat> findByDimensionAndBucketGreaterThanEqualOrderByBucket(Dimension dimension, String fromBucket);
+
+    List<InvoiceStat> findByDimensionOrderByTotalAmountDesc(Dimension dimension, Limit limit);
+}
@@ -0,0 +1,225 @@
+package com.smartinvoice.stats.service;
+
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.Invoice.InvoiceStatus;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import com.smartinvoice.stats.dto.ClientStatsDto;
+import com.smartinvoice.stats.dto.DashboardStatsDto;
+import com.smartinvoice.stats.dto.StatsBucketDto;
+import com.smartinvoice.stats.entity.InvoiceStat;
+import com.smartinvoice.stats.entity.InvoiceStat.Dimension;
+import com.smartinvoice.stats.repository.InvoiceStatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code invoice_stats} in step with invoice changes so the dashboard reads a handful of rows instead of
+ * scanning invoices. Every change is applied as additive deltas in the caller's transaction; a nightly
+ * reconciliation rebuilds the table from {@code invoices} to correct any drift.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceStatsService {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO invoice_stats (dimension, bucket, invoice_count, total_amount) VALUES (?, ?, ?, ?)
+            ON CONFLICT (dimension, bucket) DO UPDATE SET
+                invoice_count = invoice_stats.invoice_count + EXCLUDED.invoice_count,
+                total_amount = invoice_stats.total_amount + EXCLUDED.total_amount
+            """;
+
+    // One pass over invoices produces all three dimensions
+    static final String REBUILD_SQL = """
+            INSERT INTO invoice_stats (dimension, bucket, invoice_count, total_amount)
+            SELECT CASE WHEN GROUPING(status) = 0 THEN 'STATUS' WHEN GROUPING(month) = 0 THEN 'MONTH' ELSE 'CLIENT' END,
+                   COALESCE(status, month, client), COUNT(*), SUM(total_amount)
+            FROM (SELECT COALESCE(status, 'PENDING') AS status,
+                         COALESCE(to_char(issue_date, 'YYYY-MM'), 'none') AS month,
+                         COALESCE(CAST(client_id AS varchar), 'none') AS client,
+                         total_amount
+                  FROM invoices) i
+            GROUP BY GROUPING SETS ((status), (month), (client))
+            """;
+
+    private static final String NONE = "none";
+    private static final int DASHBOARD_MONTHS = 12;
+    private static final int DEFAULT_CLIENT_LIMIT = 10;
+    private static final int MAX_CLIENT_LIMIT = 100;
+
+    record Delta(Dimension dimension, String bucket, long count, Money amount) {
+
+        Delta plus(Delta other) {
+            return new Delta(dimension, bucket, count + other.count, amount.plus(other.amount));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoiceStatRepository statRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ClientRepository clientRepository;
+
+    public void recordCreated(Invoice invoice) {
+        apply(invoiceDeltas(invoice, 1));
+    }
+
+    /**
+     * Adds a batch of new invoices with one upsert per affected bucket.
+     */
+    public void recordCreated(Collection<Invoice> invoices) {
+        apply(invoices.stream().flatMap(invoice -> invoiceDeltas(invoice, 1).stream()).toList());
+    }
+
+    public void recordDeleted(Invoice invoice) {
+        apply(invoiceDeltas(invoice, -1));
+    }
+
+    public void recordStatusChange(Invoice invoice, InvoiceStatus previous) {
+        InvoiceStatus current = invoice.getStatus();
+        if (previous == current) {
+            return;
+        }
+        Money amount = invoice.getTotalAmount();
+        apply(List.of(
+                new Delta(Dimension.STATUS, statusBucket(previous), -1, amount.times(-1)),
+                new Delta(Dimension.STATUS, statusBucket(current), 1, amount)));
+    }
+
+    /**
+     * Moves invoices just marked overdue from PENDING to OVERDUE.
+     */
+    public void recordOverdue(Collection<Long> invoiceIds) {
+        if (invoiceIds.isEmpty()) {
+            return;
+        }
+        Money amount = Money.of(invoiceRepository.sumTotalAmountByIdIn(invoiceIds));
+        apply(List.of(
+                new Delta(Dimension.STATUS, InvoiceStatus.PENDING.name(), -invoiceIds.size(), amount.times(-1)),
+                new Delta(Dimension.STATUS, InvoiceStatus.OVERDUE.name(), invoiceIds.size(), amount)));
+    }
+
+    private List<Delta> invoiceDeltas(Invoice invoice, int sign) {
+        Money amount = invoice.getTotalAmount().times(sign);
+        return List.of(
+                new Delta(Dimension.STATUS, statusBucket(invoice.getStatus()), sign, amount),
+                new Delta(Dimension.MONTH, monthBucket(invoice.getIssueDate()), sign, amount),
+                new Delta(Dimension.CLIENT, clientBucket(invoice.getClient()), sign, amount));
+    }
+
+    private void apply(List<Delta> deltas) {
+        // A fixed row order keeps concurrent transactions from deadlocking on each other's buckets
+        List<Delta> ordered = List.copyOf(deltas.stream()
+                .collect(Collectors.toMap(delta -> new InvoiceStat.Key(delta.dimension(), delta.bucket()),
+                        Function.identity(), Delta::plus,
+                        () -> new TreeMap<>(Comparator.comparing(InvoiceStat.Key::getDimension)
+                                .thenComparing(InvoiceStat.Key::getBucket))))
+                .values());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setString(1, delta.dimension().name());
+            ps.setString(2, delta.bucket());
+            ps.setLong(3, delta.count());
+            ps.setBigDecimal(4, delta.amount().toBigDecimal());
+        });
+    }
+
+    /**
+     * Rebuilds every bucket from {@code invoices}. The table lock makes concurrent upserts wait, so no delta is
+     * lost or counted twice while the rebuild runs.
+     */
+    @Scheduled(cron = "${invoice.stats.reconcile-cron:0 45 2 * * *}")
+    @Transactional
+    public int reconcile() {
+        jdbcTemplate.execute("LOCK TABLE invoice_stats IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM invoice_stats");
+        int buckets = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Reconciled invoice stats: {} bucket(s)", buckets);
+        return buckets;
+    }
+
+    public DashboardStatsDto getDashboard() {
+        Map<String, InvoiceStat> byStatus = statRepository.findByDimension(Dimension.STATUS).stream()
+                .collect(Collectors.toMap(InvoiceStat::getBucket, Function.identity()));
+
+        long invoiceCount = byStatus.values().stream().mapToLong(InvoiceStat::getInvoiceCount).sum();
+        Money totalInvoiced = Money.sum(byStatus.values(), InvoiceStat::getTotalAmount);
+        InvoiceStat paid = byStatus.get(InvoiceStatus.PAID.name());
+        InvoiceStat overdue = byStatus.get(InvoiceStatus.OVERDUE.name());
+        long paidCount = paid != null ? paid.getInvoiceCount() : 0;
+        Money paidAmount = paid != null ? paid.getTotalAmount() : Money.ZERO;
+
+        YearMonth currentMonth = YearMonth.now();
+        List<StatsBucketDto> byMonth = statRepository.findByDimensionAndBucketGreaterThanEqualOrderByBucket(
+                        Dimension.MONTH, currentMonth.minusMonths(DASHBOARD_MONTHS - 1).toString()).stream()
+                .filter(stat -> stat.getInvoiceCount() > 0 && !NONE.equals(stat.getBucket()))
+                .map(this::toBucketDto)
+                .toList();
+
+        return new DashboardStatsDto(
+                invoiceCount,
+                totalInvoiced,
+                invoiceCount - paidCount,
+                totalInvoiced.minus(paidAmount),
+                overdue != null ? overdue.getInvoiceCount() : 0,
+                overdue != null ? overdue.getTotalAmount() : Money.ZERO,
+                paidAmount,
+                byStatus.values().stream()
+                        .sorted(Comparator.comparing(InvoiceStat::getBucket))
+                        .map(this::toBucketDto)
+                        .toList(),
+                byMonth
+        );
+    }
+
+    public List<ClientStatsDto> getTopClients(Integer limit) {
+        int size = limit == null ? DEFAULT_CLIENT_LIMIT : Math.min(Math.max(limit, 1), MAX_CLIENT_LIMIT);
+        List<InvoiceStat> stats = statRepository.findByDimensionOrderByTotalAmountDesc(Dimension.CLIENT, Limit.of(size))
+                .stream()
+                .filter(stat -> stat.getInvoiceCount() > 0 && !NONE.equals(stat.getBucket()))
+                .toList();
+
+        Map<Long, String> names = clientRepository.findAllById(stats.stream().map(s -> Long.valueOf(s.getBucket())).toList())
+                .stream()
+                .collect(Collectors.toMap(Client::getId, Client::getName));
+
+        return stats.stream()
+                .map(stat -> {
+                    Long clientId = Long.valueOf(stat.getBucket());
+                    return new ClientStatsDto(clientId, names.get(clientId), stat.getInvoiceCount(), stat.getTotalAmount());
+                })
+                .toList();
+    }
+
+    private StatsBucketDto toBucketDto(InvoiceStat stat) {
+        return new StatsBucketDto(stat.getBucket(), stat.getInvoiceCount(), stat.getTotalAmount());
+    }
+
+    private static String statusBucket(InvoiceStatus status) {
+        return (status != null ? status : InvoiceStatus.PENDING).name();
+    }
+
+    private static String monthBucket(LocalDate date) {
+        return date != null ? YearMonth.from(date).toString() : NONE;
+    }
+
+    private static String clientBucket(Client client) {
+        return client != null && client.getId() != null ? String.valueOf(client.getId()) : NONE;
+    }
+}
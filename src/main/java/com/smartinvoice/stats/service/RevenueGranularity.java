@@ -0,0 +1,47 @@
+package com.smartinvoice.stats.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RevenueGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * First day of the period containing {@code date}; weeks start on Monday like Postgres' {@code date_trunc}.
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public LocalDate next(LocalDate period) {
+        return switch (this) {
+            case DAY -> period.plusDays(1);
+            case WEEK -> period.plusWeeks(1);
+            case MONTH -> period.plusMonths(1);
+        };
+    }
+
+    /**
+     * Number of periods from {@code first} to {@code last}, both truncated period starts, inclusive.
+     */
+    public long periods(LocalDate first, LocalDate last) {
+        ChronoUnit unit = switch (this) {
+            case DAY -> ChronoUnit.DAYS;
+            case WEEK -> ChronoUnit.WEEKS;
+            case MONTH -> ChronoUnit.MONTHS;
+        };
+        return unit.between(first, last) + 1;
+    }
+
+    String unit() {
+        return name().toLowerCase();
+    }
+}
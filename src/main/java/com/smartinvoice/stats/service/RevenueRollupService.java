@@ -0,0 +1,177 @@
+package com.smartinvoice.stats.service;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.Invoice.InvoiceStatus;
+import com.smartinvoice.stats.dto.RevenuePointDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains {@code revenue_daily}, one row per day with the invoices issued and paid on it, from the invoice
+ * lifecycle. Revenue series for any range are summed from these rows, so a multi-year query reads at most a few
+ * thousand rows no matter how many invoices exist.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RevenueRollupService {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO revenue_daily (day, issued_count, issued_amount, paid_count, paid_amount) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (day) DO UPDATE SET
+                issued_count = revenue_daily.issued_count + EXCLUDED.issued_count,
+                issued_amount = revenue_daily.issued_amount + EXCLUDED.issued_amount,
+                paid_count = revenue_daily.paid_count + EXCLUDED.paid_count,
+                paid_amount = revenue_daily.paid_amount + EXCLUDED.paid_amount
+            """;
+
+    static final String REBUILD_SQL = """
+            INSERT INTO revenue_daily (day, issued_count, issued_amount, paid_count, paid_amount)
+            SELECT day, SUM(issued_count), SUM(issued_amount), SUM(paid_count), SUM(paid_amount)
+            FROM (SELECT issue_date AS day, 1 AS issued_count, total_amount AS issued_amount,
+                         0 AS paid_count, 0 AS paid_amount
+                  FROM invoices WHERE issue_date IS NOT NULL
+                  UNION ALL
+                  SELECT paid_date, 0, 0, 1, total_amount
+                  FROM invoices WHERE status = 'PAID' AND paid_date IS NOT NULL) e
+            GROUP BY day
+            """;
+
+    static final String SERIES_SQL = """
+            SELECT CAST(date_trunc(?, day) AS date) AS period,
+                   SUM(issued_count) AS issued_count, SUM(issued_amount) AS issued_amount,
+                   SUM(paid_count) AS paid_count, SUM(paid_amount) AS paid_amount
+            FROM revenue_daily
+            WHERE day BETWEEN ? AND ?
+            GROUP BY 1
+            ORDER BY 1
+            """;
+
+    private static final long MAX_POINTS = 5000;
+
+    record Delta(LocalDate day, long issuedCount, Money issuedAmount, long paidCount, Money paidAmount) {
+
+        Delta plus(Delta other) {
+            return new Delta(day, issuedCount + other.issuedCount, issuedAmount.plus(other.issuedAmount),
+                    paidCount + other.paidCount, paidAmount.plus(other.paidAmount));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void recordCreated(Invoice invoice) {
+        apply(invoiceDeltas(invoice, 1));
+    }
+
+    /**
+     * Adds a batch of new invoices with one upsert per affected day.
+     */
+    public void recordCreated(Collection<Invoice> invoices) {
+        apply(invoices.stream().flatMap(invoice -> invoiceDeltas(invoice, 1).stream()).toList());
+    }
+
+    public void recordDeleted(Invoice invoice) {
+        apply(invoiceDeltas(invoice, -1));
+    }
+
+    public void recordPaid(Invoice invoice, InvoiceStatus previous) {
+        if (previous == InvoiceStatus.PAID || !isPaid(invoice)) {
+            return;
+        }
+        apply(List.of(new Delta(invoice.getPaidDate(), 0, Money.ZERO, 1, invoice.getTotalAmount())));
+    }
+
+    private List<Delta> invoiceDeltas(Invoice invoice, int sign) {
+        Money amount = invoice.getTotalAmount().times(sign);
+        List<Delta> deltas = new ArrayList<>(2);
+        if (invoice.getIssueDate() != null) {
+            deltas.add(new Delta(invoice.getIssueDate(), sign, amount, 0, Money.ZERO));
+        }
+        if (isPaid(invoice)) {
+            deltas.add(new Delta(invoice.getPaidDate(), 0, Money.ZERO, sign, amount));
+        }
+        return deltas;
+    }
+
+    private static boolean isPaid(Invoice invoice) {
+        return invoice.getStatus() == InvoiceStatus.PAID && invoice.getPaidDate() != null;
+    }
+
+    private void apply(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Same day order in every transaction, so concurrent writers cannot deadlock
+        List<Delta> ordered = List.copyOf(deltas.stream()
+                .collect(Collectors.toMap(Delta::day, Function.identity(), Delta::plus, TreeMap::new))
+                .values());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, ordered, ordered.size(), (ps, delta) -> {
+            ps.setDate(1, Date.valueOf(delta.day()));
+            ps.setLong(2, delta.issuedCount());
+            ps.setBigDecimal(3, delta.issuedAmount().toBigDecimal());
+            ps.setLong(4, delta.paidCount());
+            ps.setBigDecimal(5, delta.paidAmount().toBigDecimal());
+        });
+    }
+
+    /**
+     * Recomputes every day from {@code invoices}, e.g. to backfill after first deployment. Concurrent invoice
+     * changes wait for the table lock, so none are lost or counted twice. Returns the number of days written.
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE revenue_daily IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM revenue_daily");
+        int days = jdbcTemplate.update(REBUILD_SQL);
+        log.info("Rebuilt revenue rollup: {} day(s)", days);
+        return days;
+    }
+
+    /**
+     * Returns one point per period between {@code from} and {@code to}, both inclusive. Periods without invoices
+     * are filled with zeros so charts get an unbroken series.
+     */
+    public List<RevenuePointDto> getRevenue(LocalDate from, LocalDate to, RevenueGranularity granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        LocalDate first = granularity.truncate(from);
+        LocalDate last = granularity.truncate(to);
+        if (granularity.periods(first, last) > MAX_POINTS) {
+            throw new IllegalArgumentException("Range too large for " + granularity.name().toLowerCase()
+                    + " granularity");
+        }
+
+        Map<LocalDate, RevenuePointDto> points = jdbcTemplate.query(SERIES_SQL,
+                        (rs, rowNum) -> new RevenuePointDto(
+                                rs.getObject("period", LocalDate.class),
+                                rs.getLong("issued_count"),
+                                Money.of(rs.getBigDecimal("issued_amount")),
+                                rs.getLong("paid_count"),
+                                Money.of(rs.getBigDecimal("paid_amount"))),
+                        granularity.unit(), Date.valueOf(from), Date.valueOf(to))
+                .stream()
+                .collect(Collectors.toMap(RevenuePointDto::period, Function.identity()));
+
+        List<RevenuePointDto> series = new ArrayList<>();
+        for (LocalDate period = first; !period.isAfter(last); period = granularity.next(period)) {
+            RevenuePointDto point = points.get(period);
+            series.add(point != null ? point : new RevenuePointDto(period, 0, Money.ZERO, 0, Money.ZERO));
+        }
+        return series;
+    }
+}
@@ -1,7 +1,12 @@
 package com.smartinvoice.audit.controller;
 
-import com.smartinvoice.audit.entity.AuditLog;
-import com.smartinvoice.audit.repository.AuditLogRepository;
+import com.smartinvoice.audit.dto.AuditLogDto;
+import com.smartinvoice.audit.dto.AuditLogFilter;
+import com.smartinvoice.audit.service.AuditLogQueryService;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.exception.GlobalExceptionHandler;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +16,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -19,68 +25,106 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class AuditLogControllerTest {
 
     private MockMvc mockMvc;
-    private AuditLogRepository auditLogRepository;
+    private AuditLogQueryService auditLogQueryService;
+    private ExportService exportService;
 
     @BeforeEach
     void setUp() {
-        auditLogRepository = mock(AuditLogRepository.class);
-        AuditLogController controller = new AuditLogController(auditLogRepository);
-        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        auditLogQueryService = mock(AuditLogQueryService.class);
+        exportService = mock(ExportService.class);
+        AuditLogController controller = new AuditLogController(auditLogQueryService, exportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
     }
 
     @Test
-    @DisplayName("Should return all audit logs")
+    @DisplayName("Should return the first page of audit logs")
     void getAllLogs() throws Exception {
-        when(auditLogRepository.findAllByOrderByTimestampDesc()).thenReturn(List.of(createLog("CREATE", "Client")));
+        when(auditLogQueryService.getLogPage(new AuditLogFilter(null, null, null, null, null), null, null))
+                .thenReturn(new CursorPage<>(List.of(createLog("CREATE", "Client")), "next"));
 
         mockMvc.perform(get("/api/audit-logs"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].action").value("CREATE"));
+                .andExpect(jsonPath("$.items[0].action").value("CREATE"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
     }
 
     @Test
     @DisplayName("Should return logs by action")
     void getLogsByAction() throws Exception {
-        when(auditLogRepository.findByActionOrderByTimestampDesc("CREATE"))
-                .thenReturn(List.of(createLog("CREATE", "Client")));
+        when(auditLogQueryService.getLogPage(new AuditLogFilter("CREATE", null, null, null, null), null, null))
+                .thenReturn(new CursorPage<>(List.of(createLog("CREATE", "Client")), null));
 
         mockMvc.perform(get("/api/audit-logs").param("action", "CREATE"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].entity").value("Client"));
+                .andExpect(jsonPath("$.items[0].entity").value("Client"));
     }
 
     @Test
     @DisplayName("Should return logs by entity")
     void getLogsByEntity() throws Exception {
-        when(auditLogRepository.findByEntityOrderByTimestampDesc("Client"))
-                .thenReturn(List.of(createLog("DELETE", "Client")));
+        when(auditLogQueryService.getLogPage(new AuditLogFilter(null, "Client", null, null, null), null, null))
+                .thenReturn(new CursorPage<>(List.of(createLog("DELETE", "Client")), null));
 
         mockMvc.perform(get("/api/audit-logs").param("entity", "Client"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].action").value("DELETE"));
+                .andExpect(jsonPath("$.items[0].action").value("DELETE"));
     }
 
     @Test
     @DisplayName("Should return logs by action and entity")
     void getLogsByActionAndEntity() throws Exception {
-        when(auditLogRepository.findByActionAndEntityOrderByTimestampDesc("UPDATE", "Client"))
-                .thenReturn(List.of(createLog("UPDATE", "Client")));
+        when(auditLogQueryService.getLogPage(new AuditLogFilter("UPDATE", "Client", null, null, null), null, null))
+                .thenReturn(new CursorPage<>(List.of(createLog("UPDATE", "Client")), null));
 
         mockMvc.perform(get("/api/audit-logs")
                         .param("action", "UPDATE")
                         .param("entity", "Client"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].action").value("UPDATE"));
+                .andExpect(jsonPath("$.items[0].action").value("UPDATE"));
     }
 
-    private AuditLog createLog(String action, String entity) {
-        return AuditLog.builder()
-                .id(1L)
-                .action(action)
-                .entity(entity)
-                .entityId("123")
-                .timestamp(LocalDateTime.now())
-                .build();
+    @Test
+    @DisplayName("Should pass entity id, time range, cursor and limit through")
+    void getLogsPage() throws Exception {
+        AuditLogFilter filter = new AuditLogFilter(null, "Invoice", "42",
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0));
+        when(auditLogQueryService.getLogPage(filter, "abc", 20))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/audit-logs")
+                        .param("entity", "Invoice")
+                        .param("entityId", "42")
+                        .param("from", "2025-01-01T00:00:00")
+                        .param("to", "2025-02-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
     }
-}
 
+    @Test
+    @DisplayName("Should reject a time range that ends before it starts")
+    void rejectInvalidRange() throws Exception {
+        mockMvc.perform(get("/api/audit-logs")
+                        .param("from", "2025-02-01T00:00:00")
+                        .param("to", "2025-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(auditLogQueryService);
+    }
+
+    @Test
+    @DisplayName("Should stream matching logs as NDJSON")
+    void exportLogs() throws Exception {
+        mockMvc.perform(get("/api/audit-logs/export").param("entity", "Client").param("gzip", "true"))
+                .andExpect(status().isOk());
+
+        verify(exportService).writeAttachment(any(), eq("audit-logs"), eq(ExportFormat.NDJSON), eq(true), any());
+    }
+
+    private AuditLogDto createLog(String action, String entity) {
+        return new AuditLogDto(1L, action, entity, "123", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartinvoice.audit.partition;
+
+import com.smartinvoice.audit.partition.AuditPartitionManager.AuditPartition;
+import com.smartinvoice.audit.service.AuditProperties;
+import com.smartinvoice.export.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditPartitionManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditProperties properties;
+    private AuditPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        properties = new AuditProperties();
+        properties.setPartitionMonthsAhead(2);
+        manager = new AuditPartitionManager(jdbcTemplate, mock(PlatformTransactionManager.class), new ExportService(),
+                properties);
+    }
+
+    @Test
+    @DisplayName("Should create the missing months after the last covered partition")
+    void shouldCreateUpcomingPartitions() {
+        givenPartitions(
+                new AuditPartition("audit_logs_legacy", LocalDateTime.of(2025, 4, 1, 0, 0)),
+                new AuditPartition("audit_logs_2025_04", LocalDateTime.of(2025, 5, 1, 0, 0)));
+
+        manager.maintain(LocalDate.of(2025, 3, 20));
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_logs_2025_05 PARTITION OF audit_logs "
+                + "FOR VALUES FROM ('2025-05-01') TO ('2025-06-01')");
+        verify(jdbcTemplate, never()).execute(contains("audit_logs_2025_04 PARTITION OF"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    @DisplayName("Should start from the current month when nothing covers it")
+    void shouldStartFromCurrentMonth() {
+        givenPartitions(new AuditPartition("audit_logs_2024_01", LocalDateTime.of(2024, 2, 1, 0, 0)));
+
+        manager.maintain(LocalDate.of(2025, 3, 1));
+
+        verify(jdbcTemplate).execute(contains("audit_logs_2025_03 PARTITION OF"));
+        verify(jdbcTemplate).execute(contains("audit_logs_2025_04 PARTITION OF"));
+        verify(jdbcTemplate).execute(contains("audit_logs_2025_05 PARTITION OF"));
+        verify(jdbcTemplate, never()).execute(contains("audit_logs_2025_06"));
+    }
+
+    @Test
+    @DisplayName("Should drop partitions that ended before the retention cutoff")
+    void shouldDropExpiredPartitions() {
+        properties.setRetentionMonths(12);
+        properties.setDropUnarchived(true);
+        givenPartitions(
+                new AuditPartition("audit_logs_legacy", LocalDateTime.of(2024, 1, 1, 0, 0)),
+                new AuditPartition("audit_logs_2024_02", LocalDateTime.of(2024, 3, 1, 0, 0)),
+                new AuditPartition("audit_logs_2024_03", LocalDateTime.of(2024, 4, 1, 0, 0)));
+
+        manager.maintain(LocalDate.of(2025, 3, 15));
+
+        verify(jdbcTemplate).execute("DROP TABLE audit_logs_legacy");
+        verify(jdbcTemplate).execute("DROP TABLE audit_logs_2024_02");
+        verify(jdbcTemplate, never()).execute("DROP TABLE audit_logs_2024_03");
+    }
+
+    @Test
+    @DisplayName("Should keep expired partitions when there is nowhere to archive them")
+    void shouldKeepUnarchivedPartitions() {
+        properties.setRetentionMonths(12);
+        givenPartitions(new AuditPartition("audit_logs_2024_02", LocalDateTime.of(2024, 3, 1, 0, 0)));
+
+        manager.maintain(LocalDate.of(2025, 3, 15));
+
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    @DisplayName("Should keep a default partition and move its rows into a new month")
+    void shouldMoveRowsFromDefaultPartition() {
+        givenPartitions(new AuditPartition("audit_logs_2025_03", LocalDateTime.of(2025, 4, 1, 0, 0)));
+        when(jdbcTemplate.queryForObject(contains("FROM audit_logs_default"), eq(Boolean.class),
+                eq(LocalDate.of(2025, 4, 1)), eq(LocalDate.of(2025, 5, 1)))).thenReturn(true);
+
+        manager.maintain(LocalDate.of(2025, 3, 15));
+
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS audit_logs_default PARTITION OF audit_logs DEFAULT");
+        verify(jdbcTemplate).execute("CREATE TABLE audit_logs_2025_04 (LIKE audit_logs INCLUDING DEFAULTS)");
+        verify(jdbcTemplate).update(contains("DELETE FROM audit_logs_default"), eq(LocalDate.of(2025, 4, 1)),
+                eq(LocalDate.of(2025, 5, 1)));
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs ATTACH PARTITION audit_logs_2025_04 "
+                + "FOR VALUES FROM ('2025-04-01') TO ('2025-05-01')");
+        verify(jdbcTemplate).execute(contains("audit_logs_2025_05 PARTITION OF"));
+    }
+
+    @Test
+    @DisplayName("Should parse partition bounds and names")
+    void shouldParseBounds() {
+        assertThat(AuditPartitionManager.upperBound("FOR VALUES FROM ('2025-01-01 00:00:00') TO ('2025-02-01 00:00:00')"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 1, 0, 0));
+        assertThat(AuditPartitionManager.upperBound("FOR VALUES FROM (MINVALUE) TO ('2025-02-01 00:00:00')"))
+                .isEqualTo(LocalDateTime.of(2025, 2, 1, 0, 0));
+        assertThat(AuditPartitionManager.upperBound("DEFAULT")).isNull();
+        assertThat(AuditPartitionManager.partitionName(YearMonth.of(2025, 7))).isEqualTo("audit_logs_2025_07");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPartitions(AuditPartition... partitions) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenReturn(List.of(partitions));
+    }
+}
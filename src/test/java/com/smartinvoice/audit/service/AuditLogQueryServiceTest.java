@@ -0,0 +1,104 @@
+package com.smartinvoice.audit.service;
+
+import com.smartinvoice.audit.dto.AuditLogCursor;
+import com.smartinvoice.audit.dto.AuditLogDto;
+import com.smartinvoice.audit.dto.AuditLogFilter;
+import com.smartinvoice.audit.repository.AuditLogRepository;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogQueryServiceTest {
+
+    private static final AuditLogFilter NO_FILTER = new AuditLogFilter(null, null, null, null, null);
+
+    private AuditLogRepository repository;
+    private AuditLogQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditLogRepository.class);
+        service = new AuditLogQueryService(repository, new ExportService());
+    }
+
+    @Test
+    @DisplayName("Should return a cursor when more rows exist than the page size")
+    void shouldReturnFirstPageWithCursor() {
+        AuditLogDto first = log(3L, LocalDateTime.of(2025, 1, 3, 10, 0));
+        AuditLogDto second = log(2L, LocalDateTime.of(2025, 1, 2, 10, 0));
+        AuditLogDto extra = log(1L, LocalDateTime.of(2025, 1, 1, 10, 0));
+        when(repository.findFirstLogs(null, null, null, null, null, Limit.of(3)))
+                .thenReturn(List.of(first, second, extra));
+
+        CursorPage<AuditLogDto> page = service.getLogPage(NO_FILTER, null, 2);
+
+        assertThat(page.items()).containsExactly(first, second);
+        assertThat(AuditLogCursor.decode(page.nextCursor())).isEqualTo(new AuditLogCursor(second.timestamp(), 2L));
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor and stop on the last page")
+    void shouldContinueAfterCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 2, 10, 0, 0, 123_456_000);
+        String cursor = new AuditLogCursor(timestamp, 2L).encode();
+        AuditLogFilter filter = new AuditLogFilter("CREATE", "Invoice", "9", null, null);
+        AuditLogDto last = log(1L, LocalDateTime.of(2025, 1, 1, 10, 0));
+        when(repository.findLogsAfter("CREATE", "Invoice", "9", null, null, timestamp, 2L, Limit.of(101)))
+                .thenReturn(List.of(last));
+
+        CursorPage<AuditLogDto> page = service.getLogPage(filter, cursor, null);
+
+        assertThat(page.items()).containsExactly(last);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> service.getLogPage(NO_FILTER, "not-a-cursor", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    @DisplayName("Should cap the page size")
+    void shouldCapPageSize() {
+        when(repository.findFirstLogs(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        service.getLogPage(NO_FILTER, null, 1_000_000);
+
+        verify(repository).findFirstLogs(null, null, null, null, null, Limit.of(1001));
+    }
+
+    @Test
+    @DisplayName("Should stream logs as NDJSON")
+    void shouldWriteNdjson() throws Exception {
+        when(repository.streamLogs(null, "Client", null, null, null))
+                .thenReturn(Stream.of(log(5L, LocalDateTime.of(2025, 1, 1, 9, 30))));
+        StringWriter writer = new StringWriter();
+
+        long rows = service.writeLogs(writer, new AuditLogFilter(null, "Client", null, null, null),
+                ExportFormat.NDJSON, progress -> {});
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(writer.toString()).isEqualTo(
+                "{\"id\":5,\"action\":\"CREATE\",\"entity\":\"Client\",\"entityId\":\"5\",\"timestamp\":\"2025-01-01T09:30\"}\n");
+    }
+
+    private AuditLogDto log(Long id, LocalDateTime timestamp) {
+        return new AuditLogDto(id, "CREATE", "Client", String.valueOf(id), timestamp);
+    }
+}
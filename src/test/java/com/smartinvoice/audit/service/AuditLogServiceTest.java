@@ -1,40 +1,72 @@
 package com.smartinvoice.audit.service;
 
-import com.smartinvoice.audit.repository.AuditLogRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class AuditLogServiceTest {
 
-    private AuditLogRepository repository;
+    private AuditLogWriter writer;
+    private AuditProperties properties;
     private AuditLogService service;
 
     @BeforeEach
     void setup() {
-        repository = mock(AuditLogRepository.class);
-        service = new AuditLogService(repository);
+        writer = mock(AuditLogWriter.class);
+        properties = new AuditProperties();
+        service = new AuditLogService(writer, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should queue the audit entry when no transaction is active")
+    void log_shouldQueueAuditEntry() {
+        // When
+        service.log("CREATE", "Client", "123");
+
+        // Then
+        verify(writer, times(1)).enqueue(eq("CREATE"), eq("Client"), eq("123"), notNull());
+        verify(writer, never()).writeNow(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should queue the audit entry only after the transaction commits")
+    void log_shouldWaitForCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        service.log("DELETE", "Invoice", "7");
+
+        // Then
+        verifyNoInteractions(writer);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(writer).enqueue(eq("DELETE"), eq("Invoice"), eq("7"), notNull());
     }
 
     @Test
-    @DisplayName("Should create and save an audit log entry")
-    void log_shouldSaveAuditEntry() {
+    @DisplayName("Should insert the audit entry immediately in SYNC mode")
+    void log_shouldWriteSynchronously() {
         // Given
-        String action = "CREATE";
-        String entity = "Client";
-        String entityId = "123";
+        properties.setMode(AuditProperties.Mode.SYNC);
 
         // When
-        service.log(action, entity, entityId);
+        service.log("UPDATE", "Product", "5");
 
         // Then
-        verify(repository, times(1)).save(argThat(log ->
-                log.getAction().equals(action) &&
-                        log.getEntity().equals(entity) &&
-                        log.getEntityId().equals(entityId) &&
-                        log.getTimestamp() != null
-        ));
+        verify(writer).writeNow(eq("UPDATE"), eq("Product"), eq("5"), notNull());
+        verify(writer, never()).enqueue(any(), any(), any(), any());
     }
 }
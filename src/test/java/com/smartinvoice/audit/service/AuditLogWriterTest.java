@@ -0,0 +1,125 @@
+package com.smartinvoice.audit.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        AuditProperties properties = new AuditProperties();
+        properties.setQueueCapacity(5);
+        properties.setBatchSize(2);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setRetryBackoff(Duration.ofMillis(10));
+        writer = new AuditLogWriter(jdbcTemplate, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should drop events once the queue is full")
+    void shouldDropWhenFull() {
+        doAnswer(inv -> {
+            Thread.sleep(200);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (writer.enqueue("CREATE", "Client", String.valueOf(i), LocalDateTime.now())) {
+                accepted++;
+            }
+        }
+
+        assertThat(accepted).isLessThan(20);
+        assertThat(meterRegistry.get("audit.events.dropped").tag("reason", "queue_full").counter().count())
+                .isEqualTo(20 - accepted);
+    }
+
+    @Test
+    @DisplayName("Should write queued events in batches and drain on shutdown")
+    void shouldBatchAndDrain() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue("CREATE", "Client", String.valueOf(i), LocalDateTime.now());
+        }
+
+        writer.shutdown();
+
+        assertThat(writer.pending()).isZero();
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(AuditLogWriter.INSERT_SQL),
+                argThat((Collection<?> batch) -> batch.size() <= 2), eq(2), any());
+        assertThat(meterRegistry.get("audit.events.written").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("audit.events.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should retry a failed batch and still write its events")
+    void shouldRetryFailedBatch() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(new int[0][]);
+
+        writer.enqueue("CREATE", "Client", "1", LocalDateTime.now());
+        writer.enqueue("CREATE", "Client", "2", LocalDateTime.now());
+        writer.shutdown();
+
+        assertThat(writer.pending()).isZero();
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(AuditLogWriter.INSERT_SQL),
+                argThat((Collection<AuditLogWriter.AuditEvent> batch) -> batch.stream()
+                        .map(AuditLogWriter.AuditEvent::entityId).toList().equals(List.of("1", "2"))), eq(2), any());
+        assertThat(meterRegistry.get("audit.events.written").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.events.dropped").tag("reason", "write_failed").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop rows the database rejects instead of retrying them")
+    void shouldDropRejectedBatch() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        writer.enqueue("CREATE", "Client", "1", LocalDateTime.now());
+        writer.shutdown();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertThat(meterRegistry.get("audit.events.dropped").tag("reason", "write_failed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should insert synchronously on the calling thread")
+    void shouldWriteNow() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        writer.writeNow("DELETE", "Invoice", "9", timestamp);
+
+        verify(jdbcTemplate).update(AuditLogWriter.INSERT_SQL, "DELETE", "Invoice", "9",
+                Timestamp.valueOf(timestamp));
+    }
+}
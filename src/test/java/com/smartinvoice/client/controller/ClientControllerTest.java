@@ -4,7 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.client.dto.ClientRequestDto;
 import com.smartinvoice.client.dto.ClientResponseDto;
+import com.smartinvoice.client.dto.ClientSearchResultDto;
+import com.smartinvoice.client.dto.ClientSuggestionDto;
+import com.smartinvoice.client.service.ClientSearchService;
 import com.smartinvoice.client.service.ClientService;
+import com.smartinvoice.client.service.ClientSuggestService;
+import com.smartinvoice.common.dto.ListingPage;
 import com.smartinvoice.exception.GlobalExceptionHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -24,13 +29,17 @@ class ClientControllerTest {
 
     private MockMvc mockMvc;
     private ClientService clientService;
+    private ClientSearchService clientSearchService;
+    private ClientSuggestService clientSuggestService;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setup() {
         clientService = mock(ClientService.class);
+        clientSearchService = mock(ClientSearchService.class);
+        clientSuggestService = mock(ClientSuggestService.class);
         objectMapper = new ObjectMapper();
-        ClientController controller = new ClientController(clientService);
+        ClientController controller = new ClientController(clientService, clientSearchService, clientSuggestService);
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -63,6 +72,64 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$[0].name").value("John"));
     }
 
+    @Test
+    @DisplayName("Should return a page of clients with the next cursor and total")
+    void getClientPage_shouldReturnPage() throws Exception {
+        when(clientService.getClientPage(new ClientFilterRequest("jo", null, null, "name"), null, null, 1, true))
+                .thenReturn(new ListingPage<>(
+                        List.of(new ClientResponseDto(1L, "John", "john@example.com", null, null, null, null, null)),
+                        "abc", 7L));
+
+        mockMvc.perform(get("/api/clients/page")
+                        .param("keyword", "jo")
+                        .param("sortBy", "name")
+                        .param("limit", "1")
+                        .param("count", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("John"))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.totalCount").value(7));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when the page position is invalid")
+    void getClientPage_shouldRejectInvalidPosition() throws Exception {
+        when(clientService.getClientPage(any(), eq(1), eq("abc"), isNull(), eq(false)))
+                .thenThrow(new IllegalArgumentException("Use either page or cursor, not both"));
+
+        mockMvc.perform(get("/api/clients/page")
+                        .param("page", "1")
+                        .param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return ranked search results")
+    void searchClients_shouldReturnRankedResults() throws Exception {
+        when(clientSearchService.search("jon", 5))
+                .thenReturn(List.of(new ClientSearchResultDto(1L, "John", "john@example.com", null, null, null, 1.8)));
+
+        mockMvc.perform(get("/api/clients/search")
+                        .param("q", "jon")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("John"))
+                .andExpect(jsonPath("$[0].score").value(1.8));
+    }
+
+    @Test
+    @DisplayName("Should return typeahead suggestions")
+    void suggestClients_shouldReturnSuggestions() throws Exception {
+        when(clientSuggestService.suggest("jo", null))
+                .thenReturn(List.of(new ClientSuggestionDto(1L, "John", "Acme", "john@example.com")));
+
+        mockMvc.perform(get("/api/clients/suggest")
+                        .param("q", "jo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("John"))
+                .andExpect(jsonPath("$[0].companyName").value("Acme"));
+    }
+
     @Test
     @DisplayName("Should get a client by ID")
     void getClientById_shouldReturnClient() throws Exception {
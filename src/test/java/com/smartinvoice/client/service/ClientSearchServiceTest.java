@@ -0,0 +1,144 @@
+package com.smartinvoice.client.service;
+
+import com.smartinvoice.client.dto.ClientSearchResultDto;
+import com.smartinvoice.client.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientSearchServiceTest {
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private JdbcOperations jdbcOperations;
+    private ClientRepository repository;
+    private ClientSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        jdbcOperations = mock(JdbcOperations.class);
+        repository = mock(ClientRepository.class);
+        when(jdbcTemplate.getJdbcOperations()).thenReturn(jdbcOperations);
+        service = new ClientSearchService(jdbcTemplate, repository);
+    }
+
+    @Test
+    @DisplayName("Should create trigram indexes on PostgreSQL and rank with them")
+    void shouldSearchWithTrigramIndexes() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcOperations.queryForObject(eq(ClientSearchService.VALID_INDEX_SQL), eq(Boolean.class), anyString()))
+                .thenReturn(true);
+        ClientSearchResultDto hit = new ClientSearchResultDto(1L, "Alice", "alice@mail.com", null, null, null, 2.5);
+        when(jdbcTemplate.query(eq(ClientSearchService.TRIGRAM_SQL), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(hit));
+
+        service.createIndexes();
+        List<ClientSearchResultDto> results = service.search("  Ali_ ", 500);
+
+        assertThat(results).containsExactly(hit);
+        verify(jdbcOperations).execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        verify(jdbcOperations, times(3)).execute(startsWith("CREATE INDEX CONCURRENTLY IF NOT EXISTS"));
+        verify(jdbcOperations, never()).execute(startsWith("DROP INDEX"));
+        verify(jdbcTemplate).query(eq(ClientSearchService.TRIGRAM_SQL), eq(Map.of(
+                "term", "ali_",
+                "prefix", "ali!_%",
+                "contains", "%ali!_%",
+                "limit", ClientSearchService.MAX_LIMIT)), any(RowMapper.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should drop and rebuild an index left invalid by a failed concurrent build")
+    void shouldRebuildInvalidIndex() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcOperations.queryForObject(ClientSearchService.INVALID_INDEX_SQL, Boolean.class, "idx_clients_email_trgm"))
+                .thenReturn(true);
+        when(jdbcOperations.queryForObject(eq(ClientSearchService.VALID_INDEX_SQL), eq(Boolean.class), anyString()))
+                .thenReturn(true);
+
+        service.createIndexes();
+        service.search("ali", null);
+
+        var order = inOrder(jdbcOperations);
+        order.verify(jdbcOperations).execute("DROP INDEX CONCURRENTLY IF EXISTS idx_clients_email_trgm");
+        order.verify(jdbcOperations).execute(contains("idx_clients_email_trgm ON clients"));
+        verify(jdbcOperations, times(1)).execute(startsWith("DROP INDEX"));
+        verify(jdbcTemplate).query(eq(ClientSearchService.TRIGRAM_SQL), anyMap(), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("Should keep LIKE matching while an index is not valid")
+    void shouldNotUseInvalidIndex() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcOperations.queryForObject(eq(ClientSearchService.VALID_INDEX_SQL), eq(Boolean.class), anyString()))
+                .thenReturn(false);
+        when(repository.searchByPattern("%ali%", Limit.of(ClientSearchService.DEFAULT_LIMIT))).thenReturn(List.of());
+
+        service.createIndexes();
+        service.search("ali", null);
+
+        verify(repository).searchByPattern("%ali%", Limit.of(ClientSearchService.DEFAULT_LIMIT));
+        verify(jdbcTemplate, never()).query(eq(ClientSearchService.TRIGRAM_SQL), anyMap(), any(RowMapper.class));
+    }
+
+    @Test
+    @DisplayName("Should enable trigram search once a pending index becomes valid")
+    void shouldEnableTrigramSearchOnRecheck() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcOperations.queryForObject(eq(ClientSearchService.VALID_INDEX_SQL), eq(Boolean.class), anyString()))
+                .thenReturn(false, true);
+
+        service.createIndexes();
+        service.recheckIndexes();
+        service.recheckIndexes();
+        service.search("ali", null);
+
+        verify(jdbcOperations, times(2)).execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        verify(jdbcTemplate).query(eq(ClientSearchService.TRIGRAM_SQL), anyMap(), any(RowMapper.class));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should not recheck indexes on other databases")
+    void shouldNotRecheckOnOtherDatabases() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        service.createIndexes();
+        service.recheckIndexes();
+
+        verify(jdbcOperations, times(1)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to LIKE matching on other databases")
+    void shouldFallBackToLike() {
+        when(jdbcOperations.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        when(repository.searchByPattern("%50!%%", Limit.of(ClientSearchService.DEFAULT_LIMIT))).thenReturn(List.of());
+
+        service.createIndexes();
+        service.search("50%", null);
+
+        verify(repository).searchByPattern("%50!%%", Limit.of(ClientSearchService.DEFAULT_LIMIT));
+        verify(jdbcOperations, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject a blank query")
+    void shouldRejectBlankQuery() {
+        assertThatThrownBy(() -> service.search(" ", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Search query must not be blank");
+    }
+}
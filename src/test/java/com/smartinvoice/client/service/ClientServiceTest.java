@@ -1,24 +1,30 @@
 package com.smartinvoice.client.service;
 
 import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.dto.ClientCsvRow;
 import com.smartinvoice.client.dto.ClientFilterRequest;
 import com.smartinvoice.client.dto.ClientRequestDto;
 import com.smartinvoice.client.dto.ClientResponseDto;
 import com.smartinvoice.client.entity.Client;
 import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.listing.ListingQueryService;
+import com.smartinvoice.exception.ResourceInUseException;
 import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.export.service.ExportService;
 import com.smartinvoice.invoice.entity.Invoice;
-import jakarta.servlet.http.HttpServletResponse;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,13 +33,20 @@ class ClientServiceTest {
 
     private ClientRepository repository;
     private AuditLogService auditLogService;
+    private ClientSuggestService clientSuggestService;
+    private ListingQueryService listingQueryService;
+    private RecurringInvoiceRepository recurringInvoiceRepository;
     private ClientService service;
 
     @BeforeEach
     void setup() {
         repository = mock(ClientRepository.class);
         auditLogService = mock(AuditLogService.class);
-        service = new ClientService(repository, auditLogService);
+        clientSuggestService = mock(ClientSuggestService.class);
+        listingQueryService = mock(ListingQueryService.class);
+        recurringInvoiceRepository = mock(RecurringInvoiceRepository.class);
+        service = new ClientService(repository, auditLogService, new ExportService(), clientSuggestService,
+                listingQueryService, recurringInvoiceRepository);
     }
 
     @Test
@@ -47,6 +60,7 @@ class ClientServiceTest {
 
         assertThat(response.id()).isEqualTo(1L);
         verify(auditLogService).log("CREATE", "Client", "1");
+        verify(clientSuggestService).put(saved);
     }
 
     @Test
@@ -87,6 +101,20 @@ class ClientServiceTest {
         assertThat(updated.name()).isEqualTo("New Name");
     }
 
+    @Test
+    @DisplayName("Should page clients through the listing query with a case-insensitive sort")
+    @SuppressWarnings("unchecked")
+    void getClientPage_shouldDelegateToListing() {
+        ListingPage<ClientResponseDto> expected = new ListingPage<>(List.of(), null, 0L);
+        when(listingQueryService.page(any(), any(Specification.class), eq("city"), eq(2), isNull(), eq(25), eq(true)))
+                .thenReturn(expected);
+
+        ListingPage<ClientResponseDto> page = service.getClientPage(
+                new ClientFilterRequest("jo", null, null, "City"), 2, null, 25, true);
+
+        assertThat(page).isSameAs(expected);
+    }
+
     @Test
     @DisplayName("Should delete client with no invoices")
     void deleteClient_shouldSucceed() {
@@ -95,6 +123,7 @@ class ClientServiceTest {
         service.deleteClient(1L);
         verify(repository).delete(client);
         verify(auditLogService).log("DELETE", "Client", "1");
+        verify(clientSuggestService).remove(1L);
     }
 
     @Test
@@ -110,33 +139,48 @@ class ClientServiceTest {
                 .hasMessageContaining("Client has invoices");
     }
 
+    @Test
+    @DisplayName("Should not delete client with recurring invoices")
+    void deleteClient_withRecurringInvoices_shouldFail() {
+        Client client = Client.builder().id(1L).invoices(Collections.emptyList()).build();
+
+        when(repository.findById(1L)).thenReturn(Optional.of(client));
+        when(recurringInvoiceRepository.existsByClientId(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.deleteClient(1L))
+                .isInstanceOf(ResourceInUseException.class)
+                .hasMessageContaining("Client has recurring invoices");
+        verify(repository, never()).delete(client);
+    }
+
 
     @Test
     @DisplayName("Should write clients to CSV - happy path")
     void writeClientsToCsv_shouldSucceed() throws IOException {
-        HttpServletResponse response = mock(HttpServletResponse.class);
-        PrintWriter writer = mock(PrintWriter.class);
-        when(response.getWriter()).thenReturn(writer);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(repository.streamCsvRows(null, null, null)).thenReturn(Stream.of(
+                new ClientCsvRow(1L, "John", "john@example.com", "Acme Inc.", "123 Street", "London", "UK", "E1 6AN")));
 
-        Client mockClient = Client.builder()
-                .id(1L)
-                .name("John")
-                .email("john@example.com")
-                .companyName("Acme Inc.")
-                .address("123 Street")
-                .city("London")
-                .country("UK")
-                .postcode("E1 6AN")
-                .build();
+        service.writeClientsToCsv(response, new ClientFilterRequest(null, null, null, null));
 
-        // Cast matcher to avoid ambiguity
-        when(repository.findAll((Specification<Client>) any())).thenReturn(List.of(mockClient));
+        assertThat(response.getContentType()).startsWith("text/csv");
+        assertThat(response.getContentAsString()).isEqualTo(
+                "id,name,email,companyName,address,city,country,postcode\r\n" +
+                "1,John,john@example.com,Acme Inc.,123 Street,London,UK,E1 6AN\r\n");
+        verify(repository, never()).findAll(any(Specification.class));
+    }
 
-        service.writeClientsToCsv(response, new ClientFilterRequest(null, null, null, null));
+    @Test
+    @DisplayName("Should quote CSV fields with commas, quotes and line breaks - edge case")
+    void writeClientsToCsv_shouldQuoteSpecialCharacters() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(repository.streamCsvRows("%boss%", "london", null)).thenReturn(Stream.of(
+                new ClientCsvRow(2L, "John \"The Boss\" Doe", null, "Doe, Ltd", "1 Street\nFlat 2", "London", "UK", null)));
+
+        service.writeClientsToCsv(response, new ClientFilterRequest("Boss", "London", " ", null));
 
-        verify(writer).println("id,name,email,companyName,address,city,country,postcode");
-        verify(writer).printf(anyString(), eq(1L), eq("John"), eq("john@example.com"),
-                eq("Acme Inc."), eq("123 Street"), eq("London"), eq("UK"), eq("E1 6AN"));
+        assertThat(response.getContentAsString()).endsWith(
+                "2,\"John \"\"The Boss\"\" Doe\",,\"Doe, Ltd\",\"1 Street\nFlat 2\",London,UK,\r\n");
     }
 
     @Test
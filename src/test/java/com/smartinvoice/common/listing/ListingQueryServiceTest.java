@@ -0,0 +1,67 @@
+package com.smartinvoice.common.listing;
+
+import com.smartinvoice.common.dto.ListingCursor;
+import com.smartinvoice.product.dto.ProductResponseDto;
+import com.smartinvoice.product.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ListingQueryServiceTest {
+
+    private static final ListingDefinition<Product, ProductResponseDto> LISTING = new ListingDefinition<>(
+            Product.class,
+            ProductResponseDto.class,
+            List.of("id", "name", "description", "price", "quantity"),
+            ProductResponseDto::id,
+            Map.of("name", ListingSort.ascending("name", ProductResponseDto::name)),
+            20,
+            100
+    );
+
+    private EntityManager entityManager;
+    private ListingQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        service = new ListingQueryService(entityManager);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a cursor whose value contains separators")
+    void shouldRoundTripCursor() {
+        ListingCursor cursor = new ListingCursor("name", "Logo\nDesign", 42L);
+
+        assertThat(ListingCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThatThrownBy(() -> ListingCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for another sort, a page together with a cursor and deep pages")
+    void shouldRejectInvalidPositions() {
+        Specification<Product> all = (root, query, cb) -> null;
+        String byId = new ListingCursor("", "", 10L).encode();
+
+        assertThatThrownBy(() -> service.page(LISTING, all, "name", null, byId, null, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match the sort order");
+        assertThatThrownBy(() -> service.page(LISTING, all, null, 1, byId, null, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Use either page or cursor, not both");
+        assertThatThrownBy(() -> service.page(LISTING, all, null, 1000, null, 100, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Page is too deep, continue with the cursor instead");
+        verifyNoInteractions(entityManager);
+    }
+}
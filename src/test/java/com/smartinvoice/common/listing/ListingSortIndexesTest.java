@@ -0,0 +1,51 @@
+package com.smartinvoice.common.listing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ListingSortIndexesTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ListingSortIndexes indexes;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        indexes = new ListingSortIndexes(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should create the sort expression indexes and rebuild an invalid one")
+    void shouldCreateIndexes() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(ListingSortIndexes.INVALID_INDEX_SQL, Boolean.class, "idx_clients_city_sort"))
+                .thenReturn(true);
+
+        indexes.createIndexes();
+
+        verify(jdbcTemplate).execute(
+                "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_name_sort ON clients ((coalesce(name, '')), id)");
+        verify(jdbcTemplate, times(ListingSortIndexes.INDEXES.size()))
+                .execute(startsWith("CREATE INDEX CONCURRENTLY IF NOT EXISTS"));
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("DROP INDEX CONCURRENTLY IF EXISTS idx_clients_city_sort");
+        order.verify(jdbcTemplate).execute(contains("idx_clients_city_sort ON clients"));
+        verify(jdbcTemplate, times(1)).execute(startsWith("DROP INDEX"));
+    }
+
+    @Test
+    @DisplayName("Should leave other databases alone")
+    void shouldSkipOtherDatabases() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        indexes.createIndexes();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartinvoice.common.money;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares totalling a batch of invoices with {@code double} against {@link Money}: line totals, a per-invoice
+ * discount and tax, and the grand total. {@code doubleTotals} is the stream-based summing the services used before,
+ * {@code doubleLoopTotals} the fastest plain-loop equivalent. Run after {@code mvn test-compile} with
+ * {@code java -cp "target/test-classes:target/classes:<test classpath>" org.openjdk.jmh.Main MoneyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int DISCOUNT_BASIS_POINTS = 500;
+    private static final int TAX_BASIS_POINTS = 2000;
+
+    @Param({"10000"})
+    private int invoices;
+
+    @Param({"20"})
+    private int linesPerInvoice;
+
+    record DoubleLine(double unitPrice, int quantity) {}
+
+    record MoneyLine(Money unitPrice, int quantity) {}
+
+    private List<List<DoubleLine>> doubleInvoices;
+    private List<List<MoneyLine>> moneyInvoices;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        doubleInvoices = new ArrayList<>(invoices);
+        moneyInvoices = new ArrayList<>(invoices);
+        for (int invoice = 0; invoice < invoices; invoice++) {
+            List<DoubleLine> doubleLines = new ArrayList<>(linesPerInvoice);
+            List<MoneyLine> moneyLines = new ArrayList<>(linesPerInvoice);
+            for (int line = 0; line < linesPerInvoice; line++) {
+                long pence = 1 + random.nextInt(500_000);
+                int quantity = 1 + random.nextInt(10);
+                doubleLines.add(new DoubleLine(pence / 100.0, quantity));
+                moneyLines.add(new MoneyLine(Money.ofMinor(pence), quantity));
+            }
+            doubleInvoices.add(doubleLines);
+            moneyInvoices.add(moneyLines);
+        }
+    }
+
+    @Benchmark
+    public double doubleTotals() {
+        return doubleInvoices.stream()
+                .mapToDouble(lines -> {
+                    double subtotal = lines.stream().mapToDouble(line -> line.unitPrice() * line.quantity()).sum();
+                    double discounted = subtotal - subtotal * DISCOUNT_BASIS_POINTS / 10_000;
+                    return discounted + discounted * TAX_BASIS_POINTS / 10_000;
+                })
+                .sum();
+    }
+
+    @Benchmark
+    public double doubleLoopTotals() {
+        double grandTotal = 0;
+        for (List<DoubleLine> lines : doubleInvoices) {
+            double subtotal = 0;
+            for (DoubleLine line : lines) {
+                subtotal += line.unitPrice() * line.quantity();
+            }
+            double discounted = subtotal - subtotal * DISCOUNT_BASIS_POINTS / 10_000;
+            grandTotal += discounted + discounted * TAX_BASIS_POINTS / 10_000;
+        }
+        return grandTotal;
+    }
+
+    @Benchmark
+    public Money moneyTotals() {
+        return Money.sum(moneyInvoices, lines -> {
+            Money subtotal = Money.sum(lines, line -> line.unitPrice().times(line.quantity()));
+            Money discounted = subtotal.minus(subtotal.atRate(DISCOUNT_BASIS_POINTS));
+            return discounted.plus(discounted.atRate(TAX_BASIS_POINTS));
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.smartinvoice.common.money;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MoneyColumnMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private MoneyColumnMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        migration = new MoneyColumnMigration(jdbcTemplate, mock(DataSource.class));
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+    }
+
+    @Test
+    @DisplayName("Should convert floating point amount columns with one statement per table")
+    void shouldConvertAmountColumns() {
+        floatColumns("revenue_daily.issued_amount", "invoices.total_amount", "revenue_daily.paid_amount",
+                "audit_logs.duration");
+
+        int migrated = migration.migrate();
+
+        assertThat(migrated).isEqualTo(3);
+        verify(jdbcTemplate).execute("ALTER TABLE invoices ALTER COLUMN total_amount TYPE numeric(19,2)");
+        verify(jdbcTemplate).execute("ALTER TABLE revenue_daily ALTER COLUMN issued_amount TYPE numeric(19,2), "
+                + "ALTER COLUMN paid_amount TYPE numeric(19,2)");
+        verify(jdbcTemplate, never()).execute(contains("audit_logs"));
+    }
+
+    @Test
+    @DisplayName("Should do nothing once every column is numeric or off PostgreSQL")
+    void shouldSkipWhenNothingToConvert() {
+        floatColumns();
+        assertThat(migration.migrate()).isZero();
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        assertThat(migration.migrate()).isZero();
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Should make the entity manager factory wait for the conversion")
+    void shouldRunBeforeEntityManagerFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("moneyColumnMigration", new RootBeanDefinition(MoneyColumnMigration.class));
+        beanFactory.registerBeanDefinition("entityManagerFactory",
+                new RootBeanDefinition(LocalContainerEntityManagerFactoryBean.class));
+
+        new MoneyColumnMigration.EntityManagerFactoryDependsOnMigration().postProcessBeanFactory(beanFactory);
+
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn())
+                .containsExactly("moneyColumnMigration");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void floatColumns(String... columns) {
+        when(jdbcTemplate.query(eq(MoneyColumnMigration.FLOAT_COLUMNS_SQL), any(RowMapper.class))).thenAnswer(inv -> {
+            RowMapper<String> mapper = inv.getArgument(1);
+            List<String> mapped = new ArrayList<>();
+            for (String column : columns) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString("table_name")).thenReturn(column.substring(0, column.indexOf('.')));
+                when(rs.getString("column_name")).thenReturn(column.substring(column.indexOf('.') + 1));
+                mapped.add(mapper.mapRow(rs, mapped.size()));
+            }
+            return mapped;
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartinvoice.common.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should sum amounts exactly where doubles drift")
+    void shouldSumExactly() {
+        List<Money> tenPences = Collections.nCopies(10, Money.of(new BigDecimal("0.1")));
+
+        assertThat(Money.sum(tenPences, m -> m)).isEqualTo(Money.of(new BigDecimal("1.00")));
+        assertThat(Money.of(new BigDecimal("0.1")).times(3)).isEqualTo(Money.ofMinor(30));
+        assertThat(Money.of(new BigDecimal("19.99")).times(3).toString()).isEqualTo("59.97");
+        assertThat(Money.of(new BigDecimal("5.0")).minus(Money.of(new BigDecimal("7.5"))).toString()).isEqualTo("-2.50");
+    }
+
+    @Test
+    @DisplayName("Should round to the penny half-even on entry and when applying a rate")
+    void shouldRoundHalfEven() {
+        assertThat(Money.of(new BigDecimal("0.125"))).isEqualTo(Money.ofMinor(12));
+        assertThat(Money.of(new BigDecimal("0.135"))).isEqualTo(Money.ofMinor(14));
+        assertThat(Money.ofMinor(1000).atRate(2000)).isEqualTo(Money.ofMinor(200));
+        assertThat(Money.ofMinor(125).atRate(1000)).isEqualTo(Money.ofMinor(12));
+        assertThat(Money.ofMinor(135).atRate(1000)).isEqualTo(Money.ofMinor(14));
+        assertThat(Money.ofMinor(-135).atRate(1000)).isEqualTo(Money.ofMinor(-14));
+    }
+
+    @Test
+    @DisplayName("Should fail instead of overflowing")
+    void shouldRejectOverflow() {
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    @DisplayName("Should round-trip through the column converter")
+    void shouldConvertToAndFromColumn() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertThat(converter.convertToDatabaseColumn(Money.of(new BigDecimal("250.5")))).isEqualByComparingTo("250.50");
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("250.5"))).isEqualTo(Money.ofMinor(25050));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read and write JSON as a plain decimal amount")
+    void shouldMapToJsonNumber() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertThat(mapper.writeValueAsString(Money.ofMinor(25050))).isEqualTo("250.50");
+        assertThat(mapper.readValue("250.5", Money.class)).isEqualTo(Money.ofMinor(25050));
+        assertThat(mapper.readValue("10", Money.class)).isEqualTo(Money.ofMinor(1000));
+        assertThat(mapper.readValue("\"0.1\"", Money.class)).isEqualTo(Money.ofMinor(10));
+    }
+}
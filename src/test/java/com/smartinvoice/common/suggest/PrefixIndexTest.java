@@ -0,0 +1,123 @@
+package com.smartinvoice.common.suggest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    record Entry(Long id, String name, String email) {}
+
+    private PrefixIndex<Entry> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex<>("test", Entry::id, e -> Arrays.asList(e.name(), e.email()));
+        index.replaceAll(List.of(
+                new Entry(1L, "Alice Keys", "alice@acme.com"),
+                new Entry(2L, "Bob Alison", "bob@example.com"),
+                new Entry(3L, "Carol", null)));
+    }
+
+    @Test
+    @DisplayName("Should match any word or whole field by prefix, case-insensitively")
+    void shouldMatchWordAndFieldPrefixes() {
+        assertThat(index.search("ali", 10)).extracting(Entry::id).containsExactly(1L, 2L);
+        assertThat(index.search("KEY", 10)).extracting(Entry::id).containsExactly(1L);
+        assertThat(index.search("alice k", 10)).extracting(Entry::id).containsExactly(1L);
+        assertThat(index.search("acme", 10)).extracting(Entry::id).containsExactly(1L);
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return each entry once and stop at the limit")
+    void shouldDeduplicateAndLimit() {
+        assertThat(index.search("a", 10)).extracting(Entry::id).containsExactly(1L, 2L);
+        assertThat(index.search("a", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should replace old tokens on update and drop them on remove")
+    void shouldKeepIndexCurrent() {
+        index.put(new Entry(1L, "Alicia Stone", "alicia@acme.com"));
+        assertThat(index.search("keys", 10)).isEmpty();
+        assertThat(index.search("sto", 10)).extracting(Entry::name).containsExactly("Alicia Stone");
+
+        index.remove(2L);
+        assertThat(index.search("bob", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep writes made while a reload is loading its snapshot")
+    void shouldReplayWritesMadeDuringReload() {
+        index.reload(() -> {
+            List<Entry> snapshot = List.of(
+                    new Entry(1L, "Alice Keys", "alice@acme.com"),
+                    new Entry(3L, "Carol", null));
+            index.put(new Entry(4L, "Dave Stone", null));
+            index.put(new Entry(3L, "Caroline", null));
+            index.remove(1L);
+            return snapshot;
+        });
+
+        assertThat(index.search("sto", 10)).extracting(Entry::id).containsExactly(4L);
+        assertThat(index.search("caroline", 10)).extracting(Entry::id).containsExactly(3L);
+        assertThat(index.search("alice", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+
+        index.put(new Entry(5L, "Eve", null));
+        assertThat(index.search("eve", 10)).extracting(Entry::id).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Should leave no stale tokens when the same entry is updated concurrently")
+    void shouldSerialiseConcurrentUpdates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 2000; i++) {
+            Entry entry = new Entry(1L, "Word" + i + " Other" + i, "user" + i + "@acme.com");
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                index.put(entry);
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        Entry latest = index.search("word", 1).get(0);
+        PrefixIndex<Entry> expected = new PrefixIndex<>("expected", Entry::id, e -> Arrays.asList(e.name(), e.email()));
+        expected.replaceAll(List.of(latest,
+                new Entry(2L, "Bob Alison", "bob@example.com"),
+                new Entry(3L, "Carol", null)));
+        assertThat(index.estimatedBytes()).isEqualTo(expected.estimatedBytes());
+        assertThat(index.search("other", 10)).containsExactly(latest);
+    }
+
+    @Test
+    @DisplayName("Should report size, memory and lookup latency as metrics")
+    void shouldRegisterMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        index.bindTo(registry);
+        index.search("car", 5);
+
+        assertThat(registry.get("suggest.index.entries").tag("index", "test").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("suggest.index.memory").gauge().value()).isPositive();
+        assertThat(registry.get("suggest.lookup").timer().count()).isEqualTo(1);
+    }
+}
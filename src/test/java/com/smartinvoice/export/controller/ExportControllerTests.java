@@ -5,7 +5,9 @@ import com.smartinvoice.client.service.ClientService;
 import com.smartinvoice.exception.GlobalExceptionHandler;
 import com.smartinvoice.export.dto.ExportClientFilterRequest;
 import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
 import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.export.service.InvoicePdfArchiveService;
 import com.smartinvoice.invoice.service.InvoiceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,6 +18,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDate;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -26,14 +29,16 @@ class ExportControllerTest {
     private ClientService clientService;
     private InvoiceService invoiceService;
     private ExportService exportService;
+    private InvoicePdfArchiveService invoicePdfArchiveService;
 
     @BeforeEach
     void setup() {
         clientService = mock(ClientService.class);
         invoiceService = mock(InvoiceService.class);
         exportService = mock(ExportService.class);
+        invoicePdfArchiveService = mock(InvoicePdfArchiveService.class);
 
-        ExportController controller = new ExportController(clientService, invoiceService, exportService);
+        ExportController controller = new ExportController(clientService, invoiceService, exportService, invoicePdfArchiveService);
 
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler())
@@ -87,4 +92,50 @@ class ExportControllerTest {
         mockMvc.perform(get("/api/export/invoices/csv"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @DisplayName("Should export invoices in the requested format - happy path")
+    void exportInvoices_ndjsonGzip() throws Exception {
+        mockMvc.perform(get("/api/export/invoices")
+                        .param("isPaid", "true")
+                        .param("format", "NDJSON")
+                        .param("gzip", "true"))
+                .andExpect(status().isOk());
+
+        verify(exportService).writeAttachment(any(), eq("invoices"), eq(ExportFormat.NDJSON), eq(true), any());
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown export format - unhappy path")
+    void exportClients_unknownFormat() throws Exception {
+        mockMvc.perform(get("/api/export/clients").param("format", "XML"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(clientService);
+    }
+
+    @Test
+    @DisplayName("Should export invoice PDFs as ZIP with the CSV filters - happy path")
+    void exportInvoicePdfs_happy() throws Exception {
+        mockMvc.perform(get("/api/export/invoices/pdf.zip")
+                        .param("clientId", "7")
+                        .param("isPaid", "false"))
+                .andExpect(status().isOk());
+
+        verify(invoicePdfArchiveService).writeInvoicePdfZip(any(), eq(new InvoiceFilterRequest(null, null, 7L, false)));
+    }
+
+    @Test
+    @DisplayName("Should reject ZIP export when issue date is after due date - unhappy path")
+    void exportInvoicePdfs_invalidDateRange() throws Exception {
+        doThrow(new IllegalArgumentException("Start date must be before end date"))
+                .when(exportService).validateInvoiceDates(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1));
+
+        mockMvc.perform(get("/api/export/invoices/pdf.zip")
+                        .param("issueDate", "2024-02-01")
+                        .param("dueDate", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(invoicePdfArchiveService);
+    }
 }
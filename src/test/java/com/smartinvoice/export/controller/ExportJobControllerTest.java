@@ -0,0 +1,108 @@
+package com.smartinvoice.export.controller;
+
+import com.smartinvoice.client.service.ClientService;
+import com.smartinvoice.exception.GlobalExceptionHandler;
+import com.smartinvoice.export.dto.ExportJobResponseDto;
+import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportJob;
+import com.smartinvoice.export.service.ExportJobService;
+import com.smartinvoice.export.service.ExportProperties;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.invoice.service.InvoiceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.Writer;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ExportJobControllerTest {
+
+    @TempDir
+    Path spool;
+
+    private MockMvc mockMvc;
+    private InvoiceService invoiceService;
+    private ExportJobService exportJobService;
+
+    @BeforeEach
+    void setup() {
+        invoiceService = mock(InvoiceService.class);
+        ExportProperties properties = new ExportProperties();
+        properties.setSpoolDirectory(spool.toString());
+        exportJobService = new ExportJobService(properties, new ExportService());
+
+        ExportJobController controller = new ExportJobController(mock(ClientService.class), invoiceService,
+                new ExportService(), exportJobService);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should run an invoice export in the background and serve byte ranges of the result")
+    void submitAndDownload() throws Exception {
+        when(invoiceService.writeInvoices(any(Writer.class), any(InvoiceFilterRequest.class), eq(ExportFormat.CSV), any()))
+                .thenAnswer(inv -> {
+                    inv.getArgument(0, Writer.class).write("ID,Invoice Number\n1,INV-1\n");
+                    return 1L;
+                });
+
+        String body = mockMvc.perform(post("/api/export/jobs/invoices").param("isPaid", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").exists())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = body.replaceAll(".*\"jobId\":\"([^\"]+)\".*", "$1");
+
+        ExportJobResponseDto job = exportJobService.getJob(jobId);
+        for (int i = 0; i < 500 && job.status() != ExportJob.Status.COMPLETED; i++) {
+            Thread.sleep(10);
+            job = exportJobService.getJob(jobId);
+        }
+        assertThat(job.rowsWritten()).isEqualTo(1);
+
+        mockMvc.perform(get("/api/export/jobs/{id}", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+
+        mockMvc.perform(get("/api/export/jobs/{id}/download", jobId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(content().string("ID,Invoice Number\n1,INV-1\n"));
+
+        mockMvc.perform(get("/api/export/jobs/{id}/download", jobId).header("Range", "bytes=18-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("1,INV-1\n"));
+
+        verify(invoiceService).writeInvoices(any(Writer.class),
+                eq(new InvoiceFilterRequest(null, null, null, true)), eq(ExportFormat.CSV), any());
+    }
+
+    @Test
+    @DisplayName("Should return 404 for an unknown export job")
+    void unknownJob() throws Exception {
+        mockMvc.perform(get("/api/export/jobs/{id}", "missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid invoice date range")
+    void invalidDates() throws Exception {
+        mockMvc.perform(post("/api/export/jobs/invoices")
+                        .param("issueDate", "2024-02-01")
+                        .param("dueDate", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,138 @@
+package com.smartinvoice.export.service;
+
+import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.export.dto.ExportJobResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ExportJobServiceTest {
+
+    @TempDir
+    Path spool;
+
+    private ExportProperties properties;
+    private ExportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExportProperties();
+        properties.setJobThreads(1);
+        properties.setJobQueueCapacity(1);
+        properties.setSpoolDirectory(spool.toString());
+        service = new ExportJobService(properties, new ExportService());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should write the export to a gzip spool file and report the rows")
+    void shouldCompleteGzipJob() throws Exception {
+        ExportJobResponseDto submitted = service.submit("clients", ExportFormat.CSV, true, (writer, progress) -> {
+            writer.write("id,name\n1,Alice\n2,Bob\n");
+            progress.accept(2);
+            return 2;
+        });
+
+        ExportJobResponseDto done = awaitFinished(submitted.jobId());
+
+        assertThat(done.status()).isEqualTo(ExportJob.Status.COMPLETED);
+        assertThat(done.rowsWritten()).isEqualTo(2);
+        assertThat(done.fileName()).endsWith(".csv.gz");
+        assertThat(done.expiresAt()).isNotNull();
+
+        Path file = service.getCompletedJob(submitted.jobId()).getFile();
+        assertThat(done.sizeBytes()).isEqualTo(Files.size(file));
+        try (GZIPInputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,name\n1,Alice\n2,Bob\n");
+        }
+    }
+
+    @Test
+    @DisplayName("Should mark the job failed and remove the partial file")
+    void shouldFailJob() throws Exception {
+        ExportJobResponseDto submitted = service.submit("invoices", ExportFormat.CSV, false, (writer, progress) -> {
+            writer.write("partial");
+            throw new IOException("Connection reset");
+        });
+
+        ExportJobResponseDto done = awaitFinished(submitted.jobId());
+
+        assertThat(done.status()).isEqualTo(ExportJob.Status.FAILED);
+        assertThat(done.error()).contains("Connection reset");
+        assertThat(spool).isEmptyDirectory();
+        assertThatThrownBy(() -> service.getCompletedJob(submitted.jobId()))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("FAILED");
+    }
+
+    @Test
+    @DisplayName("Should reject submissions when the queue is full")
+    void shouldRejectWhenBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExportTask blocking = (writer, progress) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        };
+
+        service.submit("clients", ExportFormat.CSV, false, blocking);
+        service.submit("clients", ExportFormat.CSV, false, blocking);
+        try {
+            assertThatThrownBy(() -> service.submit("clients", ExportFormat.CSV, false, blocking))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("Too many export jobs");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete expired jobs and stale spool files")
+    void shouldPurgeExpired() throws Exception {
+        properties.setJobTtl(Duration.ZERO);
+        ExportJobResponseDto submitted = service.submit("clients", ExportFormat.CSV, false, (writer, progress) -> 0);
+        awaitFinished(submitted.jobId());
+
+        Path stale = Files.writeString(spool.resolve("clients-old.csv"), "id\n");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minusSeconds(60)));
+        Thread.sleep(5);
+
+        assertThat(service.purgeExpired()).isEqualTo(2);
+        assertThat(spool).isEmptyDirectory();
+        assertThatThrownBy(() -> service.getJob(submitted.jobId())).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ExportJobResponseDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ExportJobResponseDto job = service.getJob(jobId);
+        while (job.status() != ExportJob.Status.COMPLETED && job.status() != ExportJob.Status.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = service.getJob(jobId);
+        }
+        return job;
+    }
+}
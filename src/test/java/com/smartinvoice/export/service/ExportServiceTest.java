@@ -5,8 +5,13 @@ import com.smartinvoice.export.dto.ExportClientFilterRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -84,4 +89,51 @@ class ExportServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Start date must be before end date");
     }
+
+    @Test
+    @DisplayName("Should write CSV with a header and quote values that need it")
+    void shouldWriteCsvRecords() throws Exception {
+        StringWriter out = new StringWriter();
+
+        RecordWriter writer = exportService.openWriter(ExportFormat.CSV, out, "id", "name");
+        writer.write(1L, "Smith, John");
+        writer.flush();
+
+        assertThat(out.toString()).isEqualTo("id,name\r\n1,\"Smith, John\"\r\n");
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per line keyed by column")
+    void shouldWriteNdjsonRecords() throws Exception {
+        StringWriter out = new StringWriter();
+
+        RecordWriter writer = exportService.openWriter(ExportFormat.NDJSON, out, "id", "date", "paid", "note");
+        writer.write(1L, LocalDate.of(2024, 1, 31), false, null);
+        writer.write(2L, LocalDate.of(2024, 2, 1), true, "line\nbreak");
+        writer.flush();
+
+        assertThat(out.toString()).isEqualTo(
+                "{\"id\":1,\"date\":\"2024-01-31\",\"paid\":false,\"note\":null}\n"
+                        + "{\"id\":2,\"date\":\"2024-02-01\",\"paid\":true,\"note\":\"line\\nbreak\"}\n");
+        assertThatThrownBy(() -> writer.write(3L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should stream a gzip-compressed attachment")
+    void shouldWriteGzipAttachment() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        long rows = exportService.writeAttachment(response, "invoices", ExportFormat.NDJSON, true, (writer, progress) -> {
+            writer.write("{\"id\":1}\n");
+            return 1;
+        });
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(response.getContentType()).isEqualTo("application/gzip");
+        assertThat(response.getHeader("Content-Disposition")).isEqualTo("attachment; filename=invoices.ndjson.gz");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package com.smartinvoice.export.service;
+
+import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InvoicePdfArchiveServiceTest {
+
+    private InvoiceRepository invoiceRepository;
+    private InvoicePdfCache invoicePdfCache;
+    private InvoicePdfArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        invoicePdfCache = mock(InvoicePdfCache.class);
+
+        ExportProperties properties = new ExportProperties();
+        properties.setChunkSize(2);
+        properties.setPdfThreads(2);
+        properties.setPdfWindow(2);
+
+        service = new InvoicePdfArchiveService(invoiceRepository, invoicePdfCache, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should page through invoices and write their PDFs in id order")
+    void shouldWriteZipInOrder() throws Exception {
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(LocalDate.of(2025, 1, 1), null, 7L, false);
+        when(invoiceRepository.findExportIdsAfter(any(), any(), any(), any(), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(invoiceRepository.findExportIdsAfter(any(), any(), any(), any(), eq(2L), any())).thenReturn(List.of(3L));
+        // the details query does not guarantee order
+        when(invoiceRepository.findAllWithDetailsByIdIn(List.of(1L, 2L))).thenReturn(List.of(invoice(2L), invoice(1L)));
+        when(invoiceRepository.findAllWithDetailsByIdIn(List.of(3L))).thenReturn(List.of(invoice(3L)));
+        when(invoicePdfCache.getCachedOrRender(any())).thenAnswer(inv -> {
+            Invoice invoice = inv.getArgument(0);
+            return new byte[]{invoice.getId().byteValue()};
+        });
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.writeInvoicePdfZip(response, filters);
+
+        assertThat(response.getContentType()).isEqualTo("application/zip");
+        List<String> names = new ArrayList<>();
+        List<Byte> contents = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                contents.add(zip.readAllBytes()[0]);
+            }
+        }
+        assertThat(names).containsExactly("Invoice-INV-1-1.pdf", "Invoice-INV-2-2.pdf", "Invoice-INV-3-3.pdf");
+        assertThat(contents).containsExactly((byte) 1, (byte) 2, (byte) 3);
+        verify(invoiceRepository).findExportIdsAfter(LocalDate.of(2025, 1, 1), null, 7L, false, 0L, Limit.of(2));
+        verify(invoiceRepository, times(2)).findExportIdsAfter(any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should fail without finishing the archive when a PDF cannot be rendered")
+    void shouldAbortOnRenderFailure() {
+        when(invoiceRepository.findExportIdsAfter(any(), any(), any(), any(), eq(0L), any())).thenReturn(List.of(1L));
+        when(invoiceRepository.findAllWithDetailsByIdIn(List.of(1L))).thenReturn(List.of(invoice(1L)));
+        when(invoicePdfCache.getCachedOrRender(any())).thenThrow(new RuntimeException("Failed to generate PDF"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> service.writeInvoicePdfZip(response, new InvoiceFilterRequest(null, null, null, null)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invoice-INV-1-1.pdf");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep entry names unique when invoices share a number")
+    void shouldWriteInvoicesSharingNumber() throws Exception {
+        when(invoiceRepository.findExportIdsAfter(any(), any(), any(), any(), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(invoiceRepository.findAllWithDetailsByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                Invoice.builder().id(1L).invoiceNumber("INV/1").build(),
+                Invoice.builder().id(2L).invoiceNumber("INV_1").build()));
+        when(invoicePdfCache.getCachedOrRender(any())).thenReturn(new byte[]{1});
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.writeInvoicePdfZip(response, new InvoiceFilterRequest(null, null, null, null));
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        assertThat(names).containsExactly("Invoice-INV_1-1.pdf", "Invoice-INV_1-2.pdf");
+    }
+
+    private Invoice invoice(Long id) {
+        return Invoice.builder().id(id).invoiceNumber("INV-" + id).build();
+    }
+}
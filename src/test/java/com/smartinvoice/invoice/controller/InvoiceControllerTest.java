@@ -1,10 +1,15 @@
 package com.smartinvoice.invoice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.dto.EmailJobResponseDto;
 import com.smartinvoice.invoice.dto.InvoiceRequestDto;
 import com.smartinvoice.invoice.dto.InvoiceResponseDto;
 import com.smartinvoice.invoice.dto.InvoiceSearchFilter;
 import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
 import com.smartinvoice.invoice.service.InvoiceService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,11 +23,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +46,9 @@ class InvoiceControllerTest {
     @Autowired
     private InvoiceService invoiceService;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
     @TestConfiguration
     static class TestConfig {
         @Bean
@@ -45,6 +56,11 @@ class InvoiceControllerTest {
             return Mockito.mock(InvoiceService.class);
         }
 
+        @Bean
+        public EmailOutboxService emailOutboxService() {
+            return Mockito.mock(EmailOutboxService.class);
+        }
+
         @Bean
         public SecurityFilterChain testSecurityFilterChain(HttpSecurity http) throws Exception {
             return http.csrf(csrf -> csrf.disable())
@@ -58,9 +74,9 @@ class InvoiceControllerTest {
     @DisplayName("Should create invoice successfully")
     void shouldCreateInvoiceSuccessfully() throws Exception {
         InvoiceRequestDto request = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
-                List.of(new ProductDto(1L, 2, 100.0)));
+                List.of(new ProductDto(1L, 2, Money.of(new BigDecimal("100.0")))));
         InvoiceResponseDto response = new InvoiceResponseDto(1L, "Alice", "alice@mail.com", "INV-001",
-                LocalDate.now(), LocalDate.now().plusDays(7), 200.0, 1L, List.of(1L), false, null);
+                LocalDate.now(), LocalDate.now().plusDays(7), Money.of(new BigDecimal("200.0")), 1L, List.of(1L), false, null);
 
         Mockito.when(invoiceService.createInvoice(any())).thenReturn(response);
 
@@ -88,7 +104,7 @@ class InvoiceControllerTest {
     @DisplayName("Should get invoice by ID")
     void shouldGetInvoiceById() throws Exception {
         InvoiceResponseDto response = new InvoiceResponseDto(1L, "Alice", "alice@mail.com", "INV-001",
-                LocalDate.now(), LocalDate.now().plusDays(7), 200.0, 1L, List.of(1L), false, null);
+                LocalDate.now(), LocalDate.now().plusDays(7), Money.of(new BigDecimal("200.0")), 1L, List.of(1L), false, null);
 
         Mockito.when(invoiceService.getInvoiceById(1L)).thenReturn(response);
 
@@ -122,33 +138,72 @@ class InvoiceControllerTest {
     @DisplayName("Should get invoice PDF")
     void shouldReturnInvoicePdf() throws Exception {
         byte[] pdfBytes = new byte[]{1, 2, 3};
-        Mockito.when(invoiceService.getInvoicePdf(1L)).thenReturn(pdfBytes);
+        Mockito.when(invoiceService.streamInvoicePdf(1L)).thenReturn(out -> out.write(pdfBytes));
+
+        MvcResult result = mockMvc.perform(get("/api/invoices/1/pdf"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/invoices/1/pdf"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=invoice-1.pdf"))
+                .andExpect(content().bytes(pdfBytes));
     }
 
     @Test
     @WithMockUser
-    @DisplayName("Should email invoice")
+    @DisplayName("Should queue invoice email and return job id")
     void shouldEmailInvoiceToClient() throws Exception {
+        Mockito.when(invoiceService.emailInvoiceToClient(1L))
+                .thenReturn(new EmailJobResponseDto(7L, 1L, EmailOutboxMessage.DeliveryStatus.PENDING, 0, null));
+
         mockMvc.perform(post("/api/invoices/1/email"))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.jobId").value(7))
+                .andExpect(jsonPath("$.status").value("PENDING"));
 
         Mockito.verify(invoiceService).emailInvoiceToClient(1L);
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("Should return email job status")
+    void shouldReturnEmailJobStatus() throws Exception {
+        Mockito.when(emailOutboxService.getJob(7L))
+                .thenReturn(new EmailJobResponseDto(7L, 1L, EmailOutboxMessage.DeliveryStatus.SENT, 1, null));
+
+        mockMvc.perform(get("/api/invoices/email-jobs/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("SENT"))
+                .andExpect(jsonPath("$.attempts").value(1));
+    }
+
     @Test
     @WithMockUser
     @DisplayName("Should filter invoices")
     void shouldFilterInvoices() throws Exception {
         InvoiceResponseDto invoice = new InvoiceResponseDto(1L, "Alice", "alice@mail.com", "INV-001",
-                LocalDate.now(), LocalDate.now().plusDays(7), 200.0, 1L, List.of(1L), false, null);
+                LocalDate.now(), LocalDate.now().plusDays(7), Money.of(new BigDecimal("200.0")), 1L, List.of(1L), false, null);
         Mockito.when(invoiceService.getFilteredInvoices(any(InvoiceSearchFilter.class))).thenReturn(List.of(invoice));
 
         mockMvc.perform(get("/api/invoices").param("search", "INV-001"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].invoiceNumber").value("INV-001"));
     }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should return a keyset page of invoices")
+    void shouldReturnInvoicePage() throws Exception {
+        InvoiceResponseDto invoice = new InvoiceResponseDto(1L, "Alice", "alice@mail.com", "INV-001",
+                LocalDate.now(), LocalDate.now().plusDays(7), Money.of(new BigDecimal("200.0")), 1L, List.of(1L), false, null);
+        Mockito.when(invoiceService.getInvoicePage(any(InvoiceSearchFilter.class), eq("abc"), eq(25)))
+                .thenReturn(new CursorPage<>(List.of(invoice), "next"));
+
+        mockMvc.perform(get("/api/invoices/page").param("cursor", "abc").param("limit", "25"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].invoiceNumber").value("INV-001"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
 }
@@ -0,0 +1,160 @@
+package com.smartinvoice.invoice.email;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage.DeliveryStatus;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
+import com.smartinvoice.invoice.repository.EmailOutboxRepository;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    private EmailOutboxRepository outboxRepository;
+    private InvoiceRepository invoiceRepository;
+    private InvoicePdfCache invoicePdfCache;
+    private EmailService emailService;
+    private AuditLogService auditLogService;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(EmailOutboxRepository.class);
+        invoiceRepository = mock(InvoiceRepository.class);
+        invoicePdfCache = mock(InvoicePdfCache.class);
+        emailService = mock(EmailService.class);
+        auditLogService = mock(AuditLogService.class);
+
+        EmailOutboxProperties properties = new EmailOutboxProperties();
+        properties.setBatchSize(10);
+        properties.setRenderThreads(2);
+        properties.setMailConcurrency(2);
+        properties.setMaxAttempts(3);
+
+        when(outboxRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+        when(invoicePdfCache.getOrRender(any())).thenReturn(new byte[]{1});
+        when(emailService.createInvoiceMessage(anyString(), anyString(), anyString(), any(), anyString()))
+                .thenAnswer(inv -> mock(MimeMessage.class));
+
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, invoiceRepository, invoicePdfCache, emailService,
+                auditLogService, properties, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should split a claimed batch across the allowed connections and mark it sent")
+    void shouldSendBatchAndMarkSent() {
+        EmailOutboxMessage first = message(1L, 10L, 0);
+        EmailOutboxMessage second = message(2L, 20L, 0);
+        EmailOutboxMessage third = message(3L, 30L, 0);
+        when(outboxRepository.findDueForDelivery(any(), any(), any())).thenReturn(List.of(first, second, third));
+        when(invoiceRepository.findAllWithDetailsByIdIn(List.of(10L, 20L, 30L)))
+                .thenReturn(List.of(invoice(10L), invoice(20L), invoice(30L)));
+
+        int delivered = dispatcher.dispatchPending();
+
+        assertThat(delivered).isEqualTo(3);
+        verify(emailService).sendAll(argThat(messages -> messages.size() == 2));
+        verify(emailService).sendAll(argThat(messages -> messages.size() == 1));
+        assertThat(List.of(first, second, third)).allSatisfy(m -> {
+            assertThat(m.getStatus()).isEqualTo(DeliveryStatus.SENT);
+            assertThat(m.getAttempts()).isEqualTo(1);
+            assertThat(m.getSentAt()).isNotNull();
+        });
+        verify(auditLogService).log("EMAIL_SENT", "Invoice", "10");
+        verify(auditLogService).log("EMAIL_SENT", "Invoice", "20");
+    }
+
+    @Test
+    @DisplayName("Should retry only the rejected messages with backoff")
+    void shouldRetryRejectedMessages() {
+        EmailOutboxMessage first = message(1L, 10L, 0);
+        EmailOutboxMessage second = message(2L, 20L, 0);
+        when(outboxRepository.findDueForDelivery(any(), any(), any())).thenReturn(List.of(first, second));
+        when(invoiceRepository.findAllWithDetailsByIdIn(any())).thenReturn(List.of(invoice(10L), invoice(20L)));
+
+        MimeMessage rejected = mock(MimeMessage.class);
+        when(emailService.createInvoiceMessage(eq("client10@mail.com"), anyString(), anyString(), any(), anyString()))
+                .thenReturn(rejected);
+        doThrow(new MailSendException(Map.of(rejected, new RuntimeException("Mailbox unavailable"))))
+                .when(emailService).sendAll(anyList());
+
+        LocalDateTime before = LocalDateTime.now();
+        int delivered = dispatcher.dispatchPending();
+
+        assertThat(delivered).isEqualTo(1);
+        assertThat(first.getStatus()).isEqualTo(DeliveryStatus.PENDING);
+        assertThat(first.getLastError()).contains("Mailbox unavailable");
+        assertThat(first.getNextAttemptAt()).isAfterOrEqualTo(before.plusMinutes(1));
+        assertThat(second.getStatus()).isEqualTo(DeliveryStatus.SENT);
+        verify(auditLogService, never()).log("EMAIL_SENT", "Invoice", "10");
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum attempts or when the invoice is gone")
+    void shouldMarkFailed() {
+        EmailOutboxMessage exhausted = message(1L, 10L, 2);
+        EmailOutboxMessage orphan = message(2L, 99L, 0);
+        when(outboxRepository.findDueForDelivery(any(), any(), any())).thenReturn(List.of(exhausted, orphan));
+        when(invoiceRepository.findAllWithDetailsByIdIn(any())).thenReturn(List.of(invoice(10L)));
+        doThrow(new MailSendException("Connection refused")).when(emailService).sendAll(anyList());
+
+        int delivered = dispatcher.dispatchPending();
+
+        assertThat(delivered).isZero();
+        assertThat(exhausted.getStatus()).isEqualTo(DeliveryStatus.FAILED);
+        assertThat(exhausted.getAttempts()).isEqualTo(3);
+        assertThat(orphan.getStatus()).isEqualTo(DeliveryStatus.FAILED);
+        assertThat(orphan.getLastError()).isEqualTo("Invoice not found");
+    }
+
+    @Test
+    @DisplayName("Should double the backoff up to the maximum")
+    void shouldCapBackoff() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(dispatcher.backoff(10)).isEqualTo(Duration.ofHours(1));
+    }
+
+    private EmailOutboxMessage message(Long id, Long invoiceId, int attempts) {
+        return EmailOutboxMessage.builder()
+                .id(id)
+                .invoiceId(invoiceId)
+                .recipient("client" + invoiceId + "@mail.com")
+                .subject("Invoice: INV-" + invoiceId)
+                .body("Dear Alice")
+                .attachmentName("Invoice-INV-" + invoiceId + ".pdf")
+                .attempts(attempts)
+                .build();
+    }
+
+    private Invoice invoice(Long id) {
+        return Invoice.builder()
+                .id(id)
+                .invoiceNumber("INV-" + id)
+                .client(Client.builder().name("Alice").email("client" + id + "@mail.com").build())
+                .build();
+    }
+}
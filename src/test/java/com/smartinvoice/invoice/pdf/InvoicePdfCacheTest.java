@@ -0,0 +1,249 @@
+package com.smartinvoice.invoice.pdf;
+
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.company.CompanyProperties;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvoicePdfCacheTest {
+
+    private PdfGeneratorService pdfGeneratorService;
+    private CompanyProperties company;
+    private PdfCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        pdfGeneratorService = mock(PdfGeneratorService.class);
+        when(pdfGeneratorService.generateInvoicePdf(any())).thenAnswer(inv -> new byte[]{1, 2, 3});
+
+        company = new CompanyProperties();
+        company.setName("SmartInvoice Ltd");
+        properties = new PdfCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should render once and serve repeat requests from memory")
+    void shouldServeRepeatFromMemory() {
+        InvoicePdfCache cache = newCache();
+        Invoice invoice = invoice(1L, false);
+
+        byte[] first = cache.getOrRender(invoice);
+        byte[] second = cache.getOrRender(invoice(1L, false));
+
+        assertThat(second).isSameAs(first);
+        verify(pdfGeneratorService, times(1)).generateInvoicePdf(any());
+        assertThat(meterRegistry.counter("invoice.pdf.cache.hits", "tier", "memory").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("invoice.pdf.cache.misses").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reuse cached PDFs for bulk reads without storing new renders")
+    void shouldNotStoreBulkRenders() {
+        InvoicePdfCache cache = newCache();
+        byte[] cached = cache.getOrRender(invoice(1L, false));
+
+        assertThat(cache.getCachedOrRender(invoice(1L, false))).isSameAs(cached);
+        cache.getCachedOrRender(invoice(2L, false));
+        cache.getCachedOrRender(invoice(2L, false));
+
+        verify(pdfGeneratorService, times(3)).generateInvoicePdf(any());
+        assertThat(cache.memoryBytes()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should re-render when any rendered input changes")
+    void shouldReRenderOnChange() {
+        InvoicePdfCache cache = newCache();
+        Invoice invoice = invoice(1L, false);
+        String before = cache.fingerprint(invoice);
+        cache.getOrRender(invoice);
+
+        invoice.setIsPaid(true);
+        assertThat(cache.fingerprint(invoice)).isNotEqualTo(before);
+        cache.getOrRender(invoice);
+
+        invoice.getClient().setAddress("2 New Street");
+        cache.getOrRender(invoice);
+
+        company.setPhone("0123");
+        cache.getOrRender(invoice);
+
+        verify(pdfGeneratorService, times(4)).generateInvoicePdf(any());
+        // only the latest version of the invoice stays cached
+        assertThat(cache.memoryBytes()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used PDFs beyond the memory bound")
+    void shouldBoundMemory() {
+        properties.setMaxMemory(DataSize.ofBytes(6));
+        InvoicePdfCache cache = newCache();
+
+        cache.getOrRender(invoice(1L, false));
+        cache.getOrRender(invoice(2L, false));
+        cache.getOrRender(invoice(1L, false));
+        cache.getOrRender(invoice(3L, false));
+        cache.getOrRender(invoice(1L, false));
+        cache.getOrRender(invoice(2L, false));
+
+        assertThat(cache.memoryBytes()).isLessThanOrEqualTo(6);
+        // 1, 2, 3 rendered once each, then 2 again after being evicted by 3
+        verify(pdfGeneratorService, times(4)).generateInvoicePdf(any());
+    }
+
+    @Test
+    @DisplayName("Should keep PDFs on disk across cache instances and drop them on evict")
+    void shouldUseDiskTier(@TempDir Path directory) throws Exception {
+        properties.setDiskDirectory(directory.toString());
+        Invoice invoice = invoice(1L, false);
+
+        newCache().getOrRender(invoice);
+        InvoicePdfCache restarted = newCache();
+        byte[] pdf = restarted.getOrRender(invoice);
+
+        assertThat(pdf).containsExactly(1, 2, 3);
+        verify(pdfGeneratorService, times(1)).generateInvoicePdf(any());
+        assertThat(meterRegistry.counter("invoice.pdf.cache.hits", "tier", "disk").count()).isEqualTo(1);
+
+        restarted.evict(1L);
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop tracking invoices whose PDFs left the cache")
+    void shouldForgetEvictedInvoices() {
+        properties.setMaxMemory(DataSize.ofBytes(6));
+        InvoicePdfCache cache = newCache();
+
+        for (long id = 1; id <= 5; id++) {
+            cache.getOrRender(invoice(id, false));
+        }
+
+        assertThat(cache.trackedInvoices()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should delete least recently used files beyond the disk bound")
+    void shouldBoundDisk(@TempDir Path directory) throws Exception {
+        properties.setDiskDirectory(directory.toString());
+        properties.setMaxDisk(DataSize.ofBytes(6));
+        properties.setMaxMemory(DataSize.ofBytes(3));
+        InvoicePdfCache cache = newCache();
+
+        for (long id = 1; id <= 4; id++) {
+            cache.getOrRender(invoice(id, false));
+        }
+
+        assertThat(cache.diskBytes()).isEqualTo(6);
+        try (var files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+        assertThat(cache.trackedInvoices()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should sweep stale and superseded files at startup")
+    void shouldSweepDiskAtStartup(@TempDir Path directory) throws Exception {
+        properties.setDiskDirectory(directory.toString());
+        String fingerprint = newCache().fingerprint(invoice(1L, false));
+        String older = "0".repeat(64);
+        String version = "v" + PdfGeneratorService.LAYOUT_VERSION;
+        Files.write(directory.resolve(older + ".pdf"), new byte[]{9});
+        Files.write(directory.resolve("v1-1-" + older + ".pdf"), new byte[]{9});
+        Files.write(directory.resolve(older + "123.tmp"), new byte[]{9});
+        Files.write(directory.resolve("notes.txt"), new byte[]{9});
+        Path superseded = Files.write(directory.resolve(version + "-1-" + older + ".pdf"), new byte[]{9});
+        Files.setLastModifiedTime(superseded, FileTime.fromMillis(0));
+        Files.write(directory.resolve(version + "-1-" + fingerprint + ".pdf"), new byte[]{1, 2, 3});
+
+        InvoicePdfCache cache = newCache();
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .containsExactlyInAnyOrder("notes.txt", version + "-1-" + fingerprint + ".pdf");
+        }
+        assertThat(cache.getOrRender(invoice(1L, false))).containsExactly(1, 2, 3);
+        verify(pdfGeneratorService, never()).generateInvoicePdf(any());
+        assertThat(cache.trackedInvoices()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should stream a miss to the caller and serve the next request from the captured copy")
+    void shouldCaptureStreamedRender() throws Exception {
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(new byte[]{4, 5, 6});
+            return null;
+        }).when(pdfGeneratorService).writeInvoicePdf(any(), any());
+        InvoicePdfCache cache = newCache();
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        cache.writeTo(invoice(1L, false), first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        cache.writeTo(invoice(1L, false), second);
+
+        assertThat(first.toByteArray()).containsExactly(4, 5, 6);
+        assertThat(second.toByteArray()).containsExactly(4, 5, 6);
+        verify(pdfGeneratorService, times(1)).writeInvoicePdf(any(), any());
+        verify(pdfGeneratorService, never()).generateInvoicePdf(any());
+    }
+
+    @Test
+    @DisplayName("Should not capture streamed documents above the size limit")
+    void shouldSkipCapturingLargeDocuments() throws Exception {
+        properties.setMaxStreamedEntry(DataSize.ofBytes(2));
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(new byte[]{4, 5, 6});
+            return null;
+        }).when(pdfGeneratorService).writeInvoicePdf(any(), any());
+        InvoicePdfCache cache = newCache();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.writeTo(invoice(1L, false), out);
+        cache.writeTo(invoice(1L, false), new ByteArrayOutputStream());
+
+        assertThat(out.toByteArray()).containsExactly(4, 5, 6);
+        assertThat(cache.memoryBytes()).isZero();
+        verify(pdfGeneratorService, times(2)).writeInvoicePdf(any(), any());
+    }
+
+    private InvoicePdfCache newCache() {
+        return new InvoicePdfCache(pdfGeneratorService, company, properties, meterRegistry);
+    }
+
+    private Invoice invoice(Long id, boolean paid) {
+        return Invoice.builder()
+                .id(id)
+                .invoiceNumber("INV-" + id)
+                .issueDate(LocalDate.of(2025, 1, 1))
+                .dueDate(LocalDate.of(2025, 1, 31))
+                .isPaid(paid)
+                .totalAmount(Money.of(new BigDecimal("100.0")))
+                .client(Client.builder().name("Alice").address("1 High Street").build())
+                .lines(List.of(InvoiceLine.builder().productName("Logo Design").unitPrice(Money.of(new BigDecimal("100.0"))).quantity(1).lineTotal(Money.of(new BigDecimal("100.0"))).build()))
+                .build();
+    }
+}
@@ -1,16 +1,20 @@
 package com.smartinvoice.invoice.pdf;
 
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.company.CompanyProperties;
 import com.smartinvoice.company.CompanyProperties.BankDetails;
 import com.smartinvoice.client.entity.Client;
 import com.smartinvoice.invoice.entity.Invoice;
-import com.smartinvoice.product.entity.Product;
+import com.smartinvoice.invoice.entity.InvoiceLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -49,9 +53,11 @@ class PdfGeneratorServiceTest {
                 .postcode("E1 1AA")
                 .build();
 
-        Product product = Product.builder()
-                .name("Logo Design")
-                .price(250.0)
+        InvoiceLine line = InvoiceLine.builder()
+                .productName("Logo Design")
+                .unitPrice(Money.of(new BigDecimal("125.0")))
+                .quantity(2)
+                .lineTotal(Money.of(new BigDecimal("250.0")))
                 .build();
 
         Invoice invoice = Invoice.builder()
@@ -59,8 +65,8 @@ class PdfGeneratorServiceTest {
                 .invoiceNumber("INV-001")
                 .issueDate(LocalDate.now())
                 .dueDate(LocalDate.now().plusDays(7))
-                .products(List.of(product))
-                .totalAmount(250.0)
+                .lines(List.of(line))
+                .totalAmount(Money.of(new BigDecimal("250.0")))
                 .isPaid(false)
                 .build();
 
@@ -89,9 +95,11 @@ class PdfGeneratorServiceTest {
                 .postcode(null)
                 .build();
 
-        Product product = Product.builder()
-                .name("Logo Design")
-                .price(150.0)
+        InvoiceLine line = InvoiceLine.builder()
+                .productName("Logo Design")
+                .unitPrice(Money.of(new BigDecimal("150.0")))
+                .quantity(1)
+                .lineTotal(Money.of(new BigDecimal("150.0")))
                 .build();
 
         Invoice invoice = Invoice.builder()
@@ -99,8 +107,8 @@ class PdfGeneratorServiceTest {
                 .invoiceNumber("INV-002")
                 .issueDate(LocalDate.now())
                 .dueDate(LocalDate.now().plusDays(7))
-                .products(List.of(product))
-                .totalAmount(150.0)
+                .lines(List.of(line))
+                .totalAmount(Money.of(new BigDecimal("150.0")))
                 .isPaid(true)
                 .build();
 
@@ -125,12 +133,33 @@ class PdfGeneratorServiceTest {
                 .invoiceNumber("INV-003")
                 .issueDate(LocalDate.now())
                 .dueDate(LocalDate.now().plusDays(7))
-                .products(List.of())
-                .totalAmount(0.0)
+                .lines(List.of())
+                .totalAmount(Money.of(new BigDecimal("0.0")))
                 .isPaid(false)
                 .build();
 
         byte[] result = pdfGeneratorService.generateInvoicePdf(invoice);
         assertThat(result).isNotEmpty();
     }
+
+    @Test
+    @DisplayName("Should embed the classpath logo in every document rendered concurrently")
+    void shouldEmbedLogoInConcurrentRenders() {
+        Invoice invoice = Invoice.builder()
+                .client(Client.builder().name("Alice").build())
+                .invoiceNumber("INV-004")
+                .issueDate(LocalDate.now())
+                .dueDate(LocalDate.now().plusDays(7))
+                .lines(List.of(InvoiceLine.builder().productName("Logo Design").unitPrice(Money.of(new BigDecimal("250.0"))).quantity(1).lineTotal(Money.of(new BigDecimal("250.0"))).build()))
+                .totalAmount(Money.of(new BigDecimal("250.0")))
+                .isPaid(false)
+                .build();
+
+        List<byte[]> pdfs = IntStream.range(0, 8).parallel()
+                .mapToObj(i -> pdfGeneratorService.generateInvoicePdf(invoice))
+                .toList();
+
+        assertThat(pdfs).allSatisfy(pdf ->
+                assertThat(new String(pdf, StandardCharsets.ISO_8859_1)).contains("/Subtype/Image"));
+    }
 }
@@ -0,0 +1,117 @@
+package com.smartinvoice.invoice.scheduler;
+
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReminderSchedulerTest {
+
+    private InvoiceRepository invoiceRepository;
+    private EmailOutboxService emailOutboxService;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        emailOutboxService = spy(new EmailOutboxService(null));
+        doAnswer(inv -> inv.getArgument(0)).when(emailOutboxService).enqueueAll(anyList());
+
+        ReminderProperties properties = new ReminderProperties();
+        properties.setPersistBatchSize(2);
+
+        scheduler = new ReminderScheduler(invoiceRepository, emailOutboxService, properties,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Should select candidates in SQL using the reminder windows")
+    void shouldQueryReminderWindows() {
+        LocalDate today = LocalDate.now();
+
+        ReminderRunStats stats = scheduler.runReminderTask();
+
+        assertThat(stats.queued()).isZero();
+        verify(invoiceRepository).findReminderCandidates(today, today.plusDays(3),
+                List.of(today.minusDays(1), today.minusDays(5), today.minusDays(10)),
+                Invoice.InvoiceStatus.PENDING, Invoice.InvoiceStatus.OVERDUE);
+        verify(emailOutboxService, never()).enqueueAll(anyList());
+        verify(invoiceRepository, never()).recordReminderSent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should queue reminders in the outbox and record them in batches")
+    @SuppressWarnings("unchecked")
+    void shouldQueueRemindersAndRecordInBatches() {
+        List<Invoice> invoices = List.of(invoice(1L, Invoice.InvoiceStatus.PENDING), invoice(2L, Invoice.InvoiceStatus.OVERDUE),
+                invoice(3L, Invoice.InvoiceStatus.OVERDUE));
+        when(invoiceRepository.findReminderCandidates(any(), any(), any(), any(), any())).thenReturn(invoices);
+        when(invoiceRepository.recordReminderSent(anyList(), any())).thenAnswer(inv -> inv.getArgument(0));
+
+        ReminderRunStats stats = scheduler.runReminderTask();
+
+        assertThat(stats.candidates()).isEqualTo(3);
+        assertThat(stats.queued()).isEqualTo(3);
+
+        ArgumentCaptor<List<EmailOutboxMessage>> queued = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxService, times(2)).enqueueAll(queued.capture());
+        List<EmailOutboxMessage> messages = queued.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(messages).extracting(EmailOutboxMessage::getInvoiceId).containsExactly(1L, 2L, 3L);
+        assertThat(messages).allSatisfy(m -> {
+            assertThat(m.getRecipient()).isEqualTo("client@mail.com");
+            assertThat(m.getStatus()).isEqualTo(EmailOutboxMessage.DeliveryStatus.PENDING);
+        });
+        assertThat(messages.get(1).getSubject()).isEqualTo("URGENT: Overdue Invoice INV-2");
+        assertThat(messages.get(1).getAttachmentName()).isEqualTo("Invoice-INV-2.pdf");
+
+        verify(invoiceRepository).recordReminderSent(List.of(1L, 2L), LocalDate.now());
+        verify(invoiceRepository).recordReminderSent(List.of(3L), LocalDate.now());
+    }
+
+    @Test
+    @DisplayName("Should only queue reminders this run recorded, so a second run on the same day sends nothing twice")
+    @SuppressWarnings("unchecked")
+    void shouldSkipRemindersAlreadyRecorded() {
+        List<Invoice> invoices = List.of(invoice(1L, Invoice.InvoiceStatus.PENDING), invoice(2L, Invoice.InvoiceStatus.OVERDUE),
+                invoice(3L, Invoice.InvoiceStatus.OVERDUE));
+        when(invoiceRepository.findReminderCandidates(any(), any(), any(), any(), any())).thenReturn(invoices);
+        when(invoiceRepository.recordReminderSent(List.of(1L, 2L), LocalDate.now())).thenReturn(List.of(2L));
+        when(invoiceRepository.recordReminderSent(List.of(3L), LocalDate.now())).thenReturn(List.of());
+
+        ReminderRunStats stats = scheduler.runReminderTask();
+
+        assertThat(stats.candidates()).isEqualTo(3);
+        assertThat(stats.queued()).isEqualTo(1);
+        ArgumentCaptor<List<EmailOutboxMessage>> queued = ArgumentCaptor.forClass(List.class);
+        verify(emailOutboxService, times(1)).enqueueAll(queued.capture());
+        assertThat(queued.getValue()).extracting(EmailOutboxMessage::getInvoiceId).containsExactly(2L);
+    }
+
+    private Invoice invoice(Long id, Invoice.InvoiceStatus status) {
+        return Invoice.builder()
+                .id(id)
+                .invoiceNumber("INV-" + id)
+                .status(status)
+                .dueDate(LocalDate.now().minusDays(1))
+                .totalAmount(Money.of(new BigDecimal("100.0")))
+                .isPaid(false)
+                .client(Client.builder().name("Alice").email("client@mail.com").build())
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartinvoice.invoice.service;
+
+import com.smartinvoice.invoice.entity.InvoiceNumberSequence;
+import com.smartinvoice.invoice.repository.InvoiceNumberSequenceRepository;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvoiceNumberAllocatorTest {
+
+    private InvoiceNumberSequenceRepository sequenceRepository;
+    private InvoiceRepository invoiceRepository;
+    private InvoiceNumberSequence sequence;
+
+    @BeforeEach
+    void setUp() {
+        sequenceRepository = mock(InvoiceNumberSequenceRepository.class);
+        invoiceRepository = mock(InvoiceRepository.class);
+        sequence = new InvoiceNumberSequence(new InvoiceNumberSequence.Key(InvoiceNumberAllocator.DEFAULT_TENANT, 2025), 1);
+    }
+
+    private InvoiceNumberAllocator allocator(int blockSize) {
+        return new InvoiceNumberAllocator(sequenceRepository, invoiceRepository, mock(PlatformTransactionManager.class), blockSize);
+    }
+
+    @Test
+    @DisplayName("Should seed a new year's counter from the highest issued number")
+    void shouldSeedCounterFromExistingInvoices() {
+        when(sequenceRepository.findForUpdate(any()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new InvoiceNumberSequence(sequence.getId(), 42)));
+        when(invoiceRepository.findMaxInvoiceSequence("INV-2025-")).thenReturn(41L);
+
+        String number = allocator(10).nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025);
+
+        assertThat(number).isEqualTo("INV-2025-0042");
+        verify(sequenceRepository).insertIfAbsent(InvoiceNumberAllocator.DEFAULT_TENANT, 2025, 42L);
+    }
+
+    @Test
+    @DisplayName("Should serve numbers from the reserved block without further database round-trips")
+    void shouldServeNumbersFromReservedBlock() {
+        when(sequenceRepository.findForUpdate(any())).thenReturn(Optional.of(sequence));
+        InvoiceNumberAllocator allocator = allocator(3);
+
+        assertThat(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)).isEqualTo("INV-2025-0001");
+        assertThat(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)).isEqualTo("INV-2025-0002");
+        assertThat(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)).isEqualTo("INV-2025-0003");
+        verify(sequenceRepository, times(1)).findForUpdate(any());
+
+        assertThat(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)).isEqualTo("INV-2025-0004");
+        verify(sequenceRepository, times(2)).findForUpdate(any());
+        assertThat(sequence.getNextValue()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should allocate a batch larger than the block in one round-trip")
+    void shouldAllocateBatchInOneRoundTrip() {
+        when(sequenceRepository.findForUpdate(any())).thenReturn(Optional.of(sequence));
+        InvoiceNumberAllocator allocator = allocator(3);
+
+        assertThat(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)).isEqualTo("INV-2025-0001");
+        assertThat(allocator.allocate(InvoiceNumberAllocator.DEFAULT_TENANT, 2025, 5))
+                .containsExactly("INV-2025-0002", "INV-2025-0003", "INV-2025-0004", "INV-2025-0005", "INV-2025-0006");
+
+        verify(sequenceRepository, times(2)).findForUpdate(any());
+        assertThat(sequence.getNextValue()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should never hand out the same number to concurrent callers")
+    void shouldAllocateUniqueNumbersConcurrently() throws Exception {
+        when(sequenceRepository.findForUpdate(any())).thenReturn(Optional.of(sequence));
+        InvoiceNumberAllocator allocator = allocator(7);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            pool.submit(() -> numbers.add(allocator.nextInvoiceNumber(InvoiceNumberAllocator.DEFAULT_TENANT, 2025)));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(numbers).hasSize(400);
+    }
+}
@@ -3,24 +3,49 @@ package com.smartinvoice.invoice.service;
 import com.smartinvoice.audit.service.AuditLogService;
 import com.smartinvoice.client.entity.Client;
 import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.dto.CursorPage;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.exception.ResourceInUseException;
 import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.export.dto.InvoiceFilterRequest;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.invoice.dto.InvoiceCsvRow;
+import com.smartinvoice.invoice.dto.InvoiceCursor;
+import com.smartinvoice.invoice.dto.InvoiceProductRef;
 import com.smartinvoice.invoice.dto.InvoiceRequestDto;
+import com.smartinvoice.invoice.dto.InvoiceResponseDto;
+import com.smartinvoice.invoice.dto.InvoiceSearchFilter;
+import com.smartinvoice.invoice.dto.InvoiceSummary;
 import com.smartinvoice.invoice.dto.ProductDto;
 import com.smartinvoice.invoice.entity.Invoice;
-import com.smartinvoice.invoice.pdf.PdfGeneratorService;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import com.smartinvoice.invoice.pdf.InvoicePdfCache;
 import com.smartinvoice.invoice.repository.InvoiceRepository;
 import com.smartinvoice.product.entity.Product;
 import com.smartinvoice.product.repository.ProductRepository;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueRollupService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class InvoiceServiceTest {
@@ -28,8 +53,11 @@ class InvoiceServiceTest {
     private InvoiceRepository invoiceRepository;
     private ClientRepository clientRepository;
     private ProductRepository productRepository;
-    private PdfGeneratorService pdfGeneratorService;
+    private InvoicePdfCache invoicePdfCache;
     private AuditLogService auditLogService;
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+    private InvoiceStatsService invoiceStatsService;
+    private RevenueRollupService revenueRollupService;
     private InvoiceService invoiceService;
 
     @BeforeEach
@@ -37,9 +65,13 @@ class InvoiceServiceTest {
         invoiceRepository = mock(InvoiceRepository.class);
         clientRepository = mock(ClientRepository.class);
         productRepository = mock(ProductRepository.class);
-        pdfGeneratorService = mock(PdfGeneratorService.class);
+        invoicePdfCache = mock(InvoicePdfCache.class);
         auditLogService = mock(AuditLogService.class);
-        invoiceService = new InvoiceService(invoiceRepository, clientRepository, productRepository, pdfGeneratorService, null, auditLogService);
+        invoiceNumberAllocator = mock(InvoiceNumberAllocator.class);
+        invoiceStatsService = mock(InvoiceStatsService.class);
+        revenueRollupService = mock(RevenueRollupService.class);
+        invoiceService = new InvoiceService(invoiceRepository, clientRepository, productRepository, invoicePdfCache, null, auditLogService,
+                invoiceNumberAllocator, new ExportService(), invoiceStatsService, revenueRollupService);
     }
 
     @Test
@@ -50,7 +82,7 @@ class InvoiceServiceTest {
         Product product2 = Product.builder().id(11L).name("Website Mockup").build();
 
         InvoiceRequestDto dto = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
-                List.of(new ProductDto(10L, 1, 150.0), new ProductDto(11L, 1, 350.0)));
+                List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0"))), new ProductDto(11L, 1, Money.of(new BigDecimal("350.0")))));
 
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
         when(productRepository.findAllById(any())).thenReturn(List.of(product1, product2));
@@ -61,14 +93,99 @@ class InvoiceServiceTest {
         assertThat(result.invoiceNumber()).isEqualTo("INV-001");
         assertThat(result.clientId()).isEqualTo(1L);
         assertThat(result.productIds()).containsExactlyInAnyOrder(10L, 11L);
-        assertThat(result.totalAmount()).isEqualTo(500.0);
+        assertThat(result.totalAmount()).isEqualTo(Money.of(new BigDecimal("500.0")));
+    }
+
+    @Test
+    @DisplayName("Should snapshot product name, price and quantity into ordered lines")
+    void shouldCreateInvoiceLines() {
+        Client client = Client.builder().id(1L).name("Alice").invoices(new ArrayList<>()).build();
+        InvoiceRequestDto dto = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
+                List.of(new ProductDto(11L, 3, Money.of(new BigDecimal("20.0"))), new ProductDto(10L, 2, Money.of(new BigDecimal("150.0")))));
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(productRepository.findAllById(any())).thenReturn(List.of(
+                Product.builder().id(10L).name("Logo Design").price(Money.of(new BigDecimal("999.0"))).build(),
+                Product.builder().id(11L).name("Website Mockup").price(Money.of(new BigDecimal("999.0"))).build()));
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var result = invoiceService.createInvoice(dto);
+
+        ArgumentCaptor<Invoice> saved = ArgumentCaptor.forClass(Invoice.class);
+        verify(invoiceRepository).save(saved.capture());
+        assertThat(saved.getValue().getLines())
+                .extracting(InvoiceLine::getLineIndex, InvoiceLine::getProductName, InvoiceLine::getUnitPrice,
+                        InvoiceLine::getQuantity, InvoiceLine::getLineTotal)
+                .containsExactly(
+                        tuple(0, "Website Mockup", Money.of(new BigDecimal("20.0")), 3, Money.of(new BigDecimal("60.0"))),
+                        tuple(1, "Logo Design", Money.of(new BigDecimal("150.0")), 2, Money.of(new BigDecimal("300.0"))));
+        assertThat(result.productIds()).containsExactly(11L, 10L);
+        assertThat(result.totalAmount()).isEqualTo(Money.of(new BigDecimal("360.0")));
+    }
+
+    @Test
+    @DisplayName("Should fail if a product does not exist or a line has no product")
+    void shouldFailIfProductMissing() {
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(Client.builder().id(1L).invoices(new ArrayList<>()).build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(Product.builder().id(10L).build()));
+
+        InvoiceRequestDto unknown = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
+                List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0"))), new ProductDto(12L, 1, Money.of(new BigDecimal("5.0")))));
+        assertThatThrownBy(() -> invoiceService.createInvoice(unknown))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Product not found");
+
+        InvoiceRequestDto partial = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
+                List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0"))), new ProductDto(null, 1, Money.of(new BigDecimal("5.0")))));
+        assertThatThrownBy(() -> invoiceService.createInvoice(partial))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Every line must reference a product");
+        verify(invoiceRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject manual numbers in the allocator's format or already in use")
+    void shouldRejectConflictingManualNumbers() {
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(Client.builder().id(1L).invoices(new ArrayList<>()).build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(Product.builder().id(10L).build()));
+        when(invoiceRepository.existsByInvoiceNumber("ACME-7")).thenReturn(true);
+
+        InvoiceRequestDto allocated = new InvoiceRequestDto(1L, "INV-2025-0900", LocalDate.now(), LocalDate.now().plusDays(7),
+                false, List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0")))));
+        assertThatThrownBy(() -> invoiceService.createInvoice(allocated))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invoice numbers of the form INV-<year>-<number> are assigned automatically");
+
+        InvoiceRequestDto taken = new InvoiceRequestDto(1L, "ACME-7", LocalDate.now(), LocalDate.now().plusDays(7),
+                false, List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0")))));
+        assertThatThrownBy(() -> invoiceService.createInvoice(taken))
+                .isInstanceOf(ResourceInUseException.class)
+                .hasMessage("Invoice number ACME-7 is already in use");
+        verify(invoiceRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should allocate an invoice number when none is provided")
+    void shouldAllocateInvoiceNumber() {
+        Client client = Client.builder().id(1L).name("Alice").invoices(new ArrayList<>()).build();
+        InvoiceRequestDto dto = new InvoiceRequestDto(1L, null, LocalDate.now(), LocalDate.now().plusDays(7), false,
+                List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0")))));
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(productRepository.findAllById(any())).thenReturn(List.of(Product.builder().id(10L).build()));
+        when(invoiceRepository.save(any(Invoice.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(invoiceNumberAllocator.nextInvoiceNumber()).thenReturn("INV-2025-0042");
+
+        var result = invoiceService.createInvoice(dto);
+
+        assertThat(result.invoiceNumber()).isEqualTo("INV-2025-0042");
     }
 
     @Test
     @DisplayName("Should fail if client not found")
     void shouldFailIfClientNotFound() {
         InvoiceRequestDto dto = new InvoiceRequestDto(99L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
-                List.of(new ProductDto(10L, 1, 150.0)));
+                List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("150.0")))));
 
         when(clientRepository.findById(99L)).thenReturn(Optional.empty());
 
@@ -93,7 +210,7 @@ class InvoiceServiceTest {
     @DisplayName("Should fail if product IDs are invalid")
     void shouldFailIfProductIdsInvalid() {
         InvoiceRequestDto dto = new InvoiceRequestDto(1L, "INV-001", LocalDate.now(), LocalDate.now().plusDays(7), false,
-                List.of(new ProductDto(null, 1, 150.0)));
+                List.of(new ProductDto(null, 1, Money.of(new BigDecimal("150.0")))));
 
         when(clientRepository.findById(1L)).thenReturn(Optional.of(new Client()));
 
@@ -105,18 +222,20 @@ class InvoiceServiceTest {
     @Test
     @DisplayName("Should get invoice by ID")
     void shouldGetInvoiceById() {
-        Invoice invoice = Invoice.builder().id(1L).invoiceNumber("INV-001").client(Client.builder().id(1L).name("Alice").email("alice@mail.com").build()).products(List.of()).totalAmount(0.0).isPaid(false).build();
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        Invoice invoice = Invoice.builder().id(1L).invoiceNumber("INV-001").client(Client.builder().id(1L).name("Alice").email("alice@mail.com").build()).totalAmount(Money.of(new BigDecimal("0.0"))).isPaid(false).build();
+        invoice.getLines().add(InvoiceLine.builder().invoice(invoice).productId(10L).productName("Logo Design").build());
+        when(invoiceRepository.findWithDetailsById(1L)).thenReturn(Optional.of(invoice));
 
         var result = invoiceService.getInvoiceById(1L);
 
         assertThat(result.invoiceNumber()).isEqualTo("INV-001");
+        assertThat(result.productIds()).containsExactly(10L);
     }
 
     @Test
     @DisplayName("Should throw if invoice by ID not found")
     void shouldThrowIfInvoiceNotFoundById() {
-        when(invoiceRepository.findById(1L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findWithDetailsById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> invoiceService.getInvoiceById(1L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -124,20 +243,40 @@ class InvoiceServiceTest {
     }
 
     @Test
-    @DisplayName("Should delete invoice")
+    @DisplayName("Should delete invoice from its locked row")
     void shouldDeleteInvoice() {
-        Invoice invoice = Invoice.builder().id(5L).invoiceNumber("INV-005").build();
-        when(invoiceRepository.findById(5L)).thenReturn(Optional.of(invoice));
+        Invoice invoice = Invoice.builder().id(5L).invoiceNumber("INV-005").status(Invoice.InvoiceStatus.OVERDUE).build();
+        when(invoiceRepository.findForUpdate(5L)).thenReturn(Optional.of(invoice));
 
         invoiceService.deleteInvoice(5L);
 
+        verify(invoiceRepository, never()).findById(any());
         verify(invoiceRepository).delete(invoice);
+        verify(invoicePdfCache).evict(5L);
+        verify(invoiceStatsService).recordDeleted(invoice);
+        verify(revenueRollupService).recordDeleted(invoice);
+    }
+
+    @Test
+    @DisplayName("Should take paid revenue back out when the invoice was paid after a stale read")
+    void shouldDeletePaidRevenueFromLockedRow() {
+        LocalDate paidOn = LocalDate.of(2025, 3, 4);
+        Invoice stale = Invoice.builder().id(6L).isPaid(false).status(Invoice.InvoiceStatus.PENDING).build();
+        Invoice locked = Invoice.builder().id(6L).isPaid(true).status(Invoice.InvoiceStatus.PAID).paidDate(paidOn).build();
+        lenient().when(invoiceRepository.findById(6L)).thenReturn(Optional.of(stale));
+        when(invoiceRepository.findForUpdate(6L)).thenReturn(Optional.of(locked));
+
+        invoiceService.deleteInvoice(6L);
+
+        verify(revenueRollupService).recordDeleted(argThat(deleted ->
+                deleted.getStatus() == Invoice.InvoiceStatus.PAID && paidOn.equals(deleted.getPaidDate())));
+        verify(invoiceRepository).delete(locked);
     }
 
     @Test
     @DisplayName("Should throw when deleting non-existent invoice")
     void shouldFailToDeleteMissingInvoice() {
-        when(invoiceRepository.findById(404L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findForUpdate(404L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> invoiceService.deleteInvoice(404L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -145,21 +284,43 @@ class InvoiceServiceTest {
     }
 
     @Test
-    @DisplayName("Should mark invoice as paid")
+    @DisplayName("Should mark invoice as paid from its locked row")
     void shouldMarkInvoiceAsPaid() {
-        Invoice invoice = Invoice.builder().id(2L).isPaid(false).build();
-        when(invoiceRepository.findById(2L)).thenReturn(Optional.of(invoice));
+        Invoice invoice = Invoice.builder().id(2L).isPaid(false).status(Invoice.InvoiceStatus.OVERDUE).build();
+        when(invoiceRepository.findForUpdate(2L)).thenReturn(Optional.of(invoice));
 
         invoiceService.markAsPaid(2L);
 
         assertThat(invoice.getIsPaid()).isTrue();
+        verify(invoiceRepository, never()).findById(any());
         verify(invoiceRepository).save(invoice);
+        verify(invoiceStatsService).recordStatusChange(invoice, Invoice.InvoiceStatus.OVERDUE);
+        verify(revenueRollupService).recordPaid(invoice, Invoice.InvoiceStatus.OVERDUE);
+    }
+
+    @Test
+    @DisplayName("Should keep the original paid date when an invoice is paid twice and then deleted")
+    void shouldKeepPaidDateWhenPaidTwice() {
+        LocalDate paidOn = LocalDate.of(2025, 1, 10);
+        Invoice invoice = Invoice.builder().id(2L).isPaid(false).status(Invoice.InvoiceStatus.PENDING).build();
+        when(invoiceRepository.findForUpdate(2L)).thenReturn(Optional.of(invoice));
+
+        invoiceService.markAsPaid(2L);
+        invoice.setPaidDate(paidOn); // as if the first payment was booked on an earlier day
+        invoiceService.markAsPaid(2L);
+        invoiceService.deleteInvoice(2L);
+
+        assertThat(invoice.getPaidDate()).isEqualTo(paidOn);
+        verify(invoiceRepository, times(1)).save(invoice);
+        verify(invoiceStatsService, times(1)).recordStatusChange(invoice, Invoice.InvoiceStatus.PENDING);
+        verify(revenueRollupService, times(1)).recordPaid(any(), any());
+        verify(revenueRollupService).recordDeleted(argThat(deleted -> paidOn.equals(deleted.getPaidDate())));
     }
 
     @Test
     @DisplayName("Should throw when marking non-existent invoice as paid")
     void shouldFailToMarkMissingInvoicePaid() {
-        when(invoiceRepository.findById(999L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findForUpdate(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> invoiceService.markAsPaid(999L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -167,24 +328,109 @@ class InvoiceServiceTest {
     }
 
     @Test
-    @DisplayName("Should generate invoice PDF")
-    void shouldGenerateInvoicePdf() {
+    @DisplayName("Should stream invoice PDF through the cache")
+    void shouldStreamInvoicePdf() throws Exception {
         Invoice invoice = Invoice.builder().id(3L).build();
-        when(invoiceRepository.findById(3L)).thenReturn(Optional.of(invoice));
-        when(pdfGeneratorService.generateInvoicePdf(invoice)).thenReturn(new byte[]{1, 2, 3});
+        when(invoiceRepository.findWithDetailsById(3L)).thenReturn(Optional.of(invoice));
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(1).write(new byte[]{1, 2, 3});
+            return null;
+        }).when(invoicePdfCache).writeTo(eq(invoice), any());
 
-        byte[] result = invoiceService.getInvoicePdf(3L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoiceService.streamInvoicePdf(3L).writeTo(out);
 
-        assertThat(result).isEqualTo(new byte[]{1, 2, 3});
+        assertThat(out.toByteArray()).isEqualTo(new byte[]{1, 2, 3});
     }
 
     @Test
     @DisplayName("Should throw if PDF generation invoice not found")
     void shouldFailToGeneratePdfForMissingInvoice() {
-        when(invoiceRepository.findById(10L)).thenReturn(Optional.empty());
+        when(invoiceRepository.findWithDetailsById(10L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> invoiceService.getInvoicePdf(10L))
+        assertThatThrownBy(() -> invoiceService.streamInvoicePdf(10L))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Invoice not found");
+        verifyNoInteractions(invoicePdfCache);
+    }
+
+    @Test
+    @DisplayName("Should stream invoice CSV rows from the projection")
+    void shouldExportInvoicesToCsv() throws Exception {
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(LocalDate.of(2025, 1, 1), null, 1L, null);
+        when(invoiceRepository.streamCsvRows(LocalDate.of(2025, 1, 1), null, 1L, null)).thenReturn(Stream.of(
+                new InvoiceCsvRow(1L, "INV-001", LocalDate.of(2025, 1, 2), LocalDate.of(2025, 2, 1), "Alice, Ltd", Money.of(new BigDecimal("100.0")), true),
+                new InvoiceCsvRow(2L, "INV-002", LocalDate.of(2025, 1, 3), LocalDate.of(2025, 2, 2), "Bob", Money.of(new BigDecimal("50.5")), false)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        invoiceService.exportInvoicesToCsv(response, filters);
+
+        assertThat(response.getContentType()).startsWith("text/csv");
+        assertThat(response.getContentAsString().split("\r\n")).containsExactly(
+                "ID,Invoice Number,Issue Date,Due Date,Client Name,Total Amount,Is Paid",
+                "1,INV-001,2025-01-02,2025-02-01,\"Alice, Ltd\",100.00,Yes",
+                "2,INV-002,2025-01-03,2025-02-02,Bob,50.50,No");
+        verify(invoiceRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should write invoices as NDJSON with typed values")
+    void shouldWriteInvoicesAsNdjson() throws Exception {
+        InvoiceFilterRequest filters = new InvoiceFilterRequest(null, null, null, null);
+        when(invoiceRepository.streamCsvRows(null, null, null, null)).thenReturn(Stream.of(
+                new InvoiceCsvRow(1L, "INV-001", LocalDate.of(2025, 1, 2), LocalDate.of(2025, 2, 1), "Alice \"A\"", Money.of(new BigDecimal("100.0")), true)));
+        StringWriter writer = new StringWriter();
+
+        long rows = invoiceService.writeInvoices(writer, filters, ExportFormat.NDJSON, progress -> {});
+
+        assertThat(rows).isEqualTo(1);
+        assertThat(writer.toString()).isEqualTo("{\"id\":1,\"invoiceNumber\":\"INV-001\",\"issueDate\":\"2025-01-02\","
+                + "\"dueDate\":\"2025-02-01\",\"clientName\":\"Alice \\\"A\\\"\",\"totalAmount\":100.00,\"isPaid\":true}\n");
+    }
+
+    @Test
+    @DisplayName("Should return first invoice page with a cursor when more rows exist")
+    void shouldReturnFirstInvoicePageWithCursor() {
+        InvoiceSummary first = summary(3L, LocalDate.of(2025, 3, 1));
+        InvoiceSummary second = summary(2L, LocalDate.of(2025, 2, 1));
+        InvoiceSummary extra = summary(1L, LocalDate.of(2025, 1, 1));
+        when(invoiceRepository.findFirstSummaries(eq("%inv%"), isNull(), eq(Limit.of(3))))
+                .thenReturn(List.of(first, second, extra));
+        when(invoiceRepository.findProductRefsByInvoiceIds(List.of(3L, 2L)))
+                .thenReturn(List.of(new InvoiceProductRef(3L, 10L), new InvoiceProductRef(3L, 11L)));
+
+        CursorPage<InvoiceResponseDto> page = invoiceService.getInvoicePage(new InvoiceSearchFilter("INV", null), null, 2);
+
+        assertThat(page.items()).extracting(InvoiceResponseDto::id).containsExactly(3L, 2L);
+        assertThat(page.items().get(0).productIds()).containsExactly(10L, 11L);
+        assertThat(page.items().get(1).productIds()).isEmpty();
+        assertThat(InvoiceCursor.decode(page.nextCursor())).isEqualTo(new InvoiceCursor(LocalDate.of(2025, 2, 1), 2L));
+    }
+
+    @Test
+    @DisplayName("Should continue after cursor and end pagination on the last page")
+    void shouldContinueAfterCursor() {
+        String cursor = new InvoiceCursor(LocalDate.of(2025, 2, 1), 2L).encode();
+        when(invoiceRepository.findSummariesAfter(isNull(), eq(false), eq(LocalDate.of(2025, 2, 1)), eq(2L), any(Limit.class)))
+                .thenReturn(List.of(summary(1L, LocalDate.of(2025, 1, 1))));
+        when(invoiceRepository.findProductRefsByInvoiceIds(List.of(1L))).thenReturn(List.of());
+
+        CursorPage<InvoiceResponseDto> page = invoiceService.getInvoicePage(new InvoiceSearchFilter(null, false), cursor, null);
+
+        assertThat(page.items()).extracting(InvoiceResponseDto::id).containsExactly(1L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> invoiceService.getInvoicePage(new InvoiceSearchFilter(null, null), "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private InvoiceSummary summary(Long id, LocalDate issueDate) {
+        return new InvoiceSummary(id, "Alice", "alice@mail.com", "INV-" + id, issueDate, issueDate.plusDays(14),
+                Money.of(new BigDecimal("100.0")), 1L, false, Invoice.InvoiceStatus.PENDING);
     }
 }
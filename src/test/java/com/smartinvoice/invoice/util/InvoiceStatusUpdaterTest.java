@@ -0,0 +1,65 @@
+package com.smartinvoice.invoice.util;
+
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvoiceStatusUpdaterTest {
+
+    private InvoiceRepository invoiceRepository;
+    private InvoiceStatsService invoiceStatsService;
+    private SimpleMeterRegistry meterRegistry;
+    private InvoiceStatusUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        invoiceStatsService = mock(InvoiceStatsService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        updater = new InvoiceStatusUpdater(invoiceRepository, invoiceStatsService,
+                mock(PlatformTransactionManager.class), meterRegistry, 2);
+    }
+
+    @Test
+    @DisplayName("Should mark overdue invoices in a single statement when the backlog fits one chunk")
+    void shouldMarkOverdueInSingleStatement() {
+        when(invoiceRepository.markOverdue(LocalDate.now(), 2)).thenReturn(List.of(7L));
+
+        List<Long> ids = updater.updateInvoiceStatuses();
+
+        assertThat(ids).containsExactly(7L);
+        verify(invoiceRepository, times(1)).markOverdue(any(), eq(2));
+        verify(invoiceRepository, never()).save(any());
+        assertThat(meterRegistry.get("invoice.overdue.marked").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("invoice.overdue.transition").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep updating in chunks until the backlog is drained")
+    void shouldDrainBacklogInChunks() {
+        when(invoiceRepository.markOverdue(LocalDate.now(), 2))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L, 4L))
+                .thenReturn(List.of());
+
+        List<Long> ids = updater.updateInvoiceStatuses();
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L);
+        verify(invoiceRepository, times(3)).markOverdue(any(), eq(2));
+        verify(invoiceStatsService).recordOverdue(List.of(1L, 2L));
+        verify(invoiceStatsService).recordOverdue(List.of(3L, 4L));
+        assertThat(meterRegistry.get("invoice.overdue.marked").counter().count()).isEqualTo(4.0);
+    }
+}
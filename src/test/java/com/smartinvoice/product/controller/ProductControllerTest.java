@@ -1,10 +1,14 @@
 package com.smartinvoice.product.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.product.dto.ProductFilterRequest;
 import com.smartinvoice.product.dto.ProductRequestDto;
 import com.smartinvoice.product.dto.ProductResponseDto;
+import com.smartinvoice.product.dto.ProductSuggestionDto;
 import com.smartinvoice.product.service.ProductService;
+import com.smartinvoice.product.service.ProductSuggestService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -18,6 +22,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +46,11 @@ class ProductControllerTest {
             return Mockito.mock(ProductService.class);
         }
 
+        @Bean
+        public ProductSuggestService productSuggestService() {
+            return Mockito.mock(ProductSuggestService.class);
+        }
+
         @Bean
         public SecurityFilterChain testSecurityFilterChain(HttpSecurity http) throws Exception {
             return http
@@ -53,12 +63,15 @@ class ProductControllerTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSuggestService productSuggestService;
+
     @Test
     @WithMockUser
     @DisplayName("Should create product")
     void shouldCreateProduct() throws Exception {
-        ProductRequestDto request = new ProductRequestDto("Logo Design", "Professional logo", 100.0, 1);
-        ProductResponseDto response = new ProductResponseDto(1L, "Logo Design", "Professional logo", 100.0, 1);
+        ProductRequestDto request = new ProductRequestDto("Logo Design", "Professional logo", new BigDecimal("100.0"), 1);
+        ProductResponseDto response = new ProductResponseDto(1L, "Logo Design", "Professional logo", Money.of(new BigDecimal("100.0")), 1);
 
         Mockito.when(productService.create(any(ProductRequestDto.class))).thenReturn(response);
 
@@ -73,7 +86,7 @@ class ProductControllerTest {
     @WithMockUser
     @DisplayName("Should get all products")
     void shouldGetAllProducts() throws Exception {
-        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Professional logo", 100.0, 1);
+        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Professional logo", Money.of(new BigDecimal("100.0")), 1);
         Mockito.when(productService.getAll()).thenReturn(List.of(product));
 
         mockMvc.perform(get("/api/products"))
@@ -85,7 +98,7 @@ class ProductControllerTest {
     @WithMockUser
     @DisplayName("Should get product by ID")
     void shouldGetById() throws Exception {
-        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Professional logo", 100.0, 1);
+        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Professional logo", Money.of(new BigDecimal("100.0")), 1);
         Mockito.when(productService.getById(1L)).thenReturn(product);
 
         mockMvc.perform(get("/api/products/1"))
@@ -97,8 +110,8 @@ class ProductControllerTest {
     @WithMockUser
     @DisplayName("Should update product")
     void shouldUpdateProduct() throws Exception {
-        ProductRequestDto update = new ProductRequestDto("Logo Update", "Updated design", 120.0, 1);
-        ProductResponseDto updated = new ProductResponseDto(1L, "Logo Update", "Updated design", 120.0, 1);
+        ProductRequestDto update = new ProductRequestDto("Logo Update", "Updated design", new BigDecimal("120.0"), 1);
+        ProductResponseDto updated = new ProductResponseDto(1L, "Logo Update", "Updated design", Money.of(new BigDecimal("120.0")), 1);
 
         Mockito.when(productService.update(eq(1L), any(ProductRequestDto.class))).thenReturn(updated);
 
@@ -123,7 +136,7 @@ class ProductControllerTest {
     @WithMockUser
     @DisplayName("Should filter products")
     void shouldFilterProducts() throws Exception {
-        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Animated", 150.0, 1);
+        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Animated", Money.of(new BigDecimal("150.0")), 1);
         Mockito.when(productService.getFilteredProducts(any(ProductFilterRequest.class))).thenReturn(List.of(product));
 
         mockMvc.perform(get("/api/products/filter")
@@ -133,11 +146,43 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$[0].name").value("Logo Design"));
     }
 
+    @Test
+    @WithMockUser
+    @DisplayName("Should return a page of products")
+    void shouldGetProductPage() throws Exception {
+        ProductResponseDto product = new ProductResponseDto(1L, "Logo Design", "Professional logo", Money.of(new BigDecimal("100.0")), 1);
+        Mockito.when(productService.getProductPage(new ProductFilterRequest(null, "-price"), 0, null, 10, false))
+                .thenReturn(new ListingPage<>(List.of(product), null, null));
+
+        mockMvc.perform(get("/api/products/page")
+                        .param("sortBy", "-price")
+                        .param("page", "0")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Logo Design"))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("Should return typeahead suggestions")
+    void shouldSuggestProducts() throws Exception {
+        Mockito.when(productSuggestService.suggest("lo", 5))
+                .thenReturn(List.of(new ProductSuggestionDto(1L, "Logo Design", Money.of(new BigDecimal("100.0")))));
+
+        mockMvc.perform(get("/api/products/suggest")
+                        .param("q", "lo")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Logo Design"))
+                .andExpect(jsonPath("$[0].price").value(100.0));
+    }
+
     @Test
     @WithMockUser
     @DisplayName("Should return 400 on invalid create request")
     void shouldFailValidationOnCreate() throws Exception {
-        ProductRequestDto invalid = new ProductRequestDto("", "", -10.0, -1);
+        ProductRequestDto invalid = new ProductRequestDto("", "", new BigDecimal("-10.0"), -1);
 
         mockMvc.perform(post("/api/products")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -149,7 +194,7 @@ class ProductControllerTest {
     @WithMockUser
     @DisplayName("Should return 400 on invalid update request")
     void shouldFailValidationOnUpdate() throws Exception {
-        ProductRequestDto invalid = new ProductRequestDto("", null, -20.0, -1);
+        ProductRequestDto invalid = new ProductRequestDto("", null, new BigDecimal("-20.0"), -1);
 
         mockMvc.perform(put("/api/products/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -1,6 +1,9 @@
 package com.smartinvoice.product.service;
 
 import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.common.dto.ListingPage;
+import com.smartinvoice.common.listing.ListingQueryService;
+import com.smartinvoice.common.money.Money;
 import com.smartinvoice.exception.ResourceNotFoundException;
 import com.smartinvoice.product.dto.ProductFilterRequest;
 import com.smartinvoice.product.dto.ProductRequestDto;
@@ -16,6 +19,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +36,12 @@ class ProductServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private ProductSuggestService productSuggestService;
+
+    @Mock
+    private ListingQueryService listingQueryService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -43,8 +53,8 @@ class ProductServiceTest {
     @Test
     @DisplayName("Should create service product and log it")
     void shouldCreateProduct() {
-        ProductRequestDto request = new ProductRequestDto("Create a logo", "Design a unique logo for branding", 150.00, 1);
-        Product saved = Product.builder().id(1L).name("Create a logo").description("Design a unique logo for branding").price(150.00).quantity(1).build();
+        ProductRequestDto request = new ProductRequestDto("Create a logo", "Design a unique logo for branding", new BigDecimal("150.00"), 1);
+        Product saved = Product.builder().id(1L).name("Create a logo").description("Design a unique logo for branding").price(Money.of(new BigDecimal("150.00"))).quantity(1).build();
 
         when(repository.save(any(Product.class))).thenReturn(saved);
 
@@ -53,12 +63,13 @@ class ProductServiceTest {
         assertThat(result.id()).isEqualTo(1L);
         assertThat(result.name()).isEqualTo("Create a logo");
         verify(auditLogService).log("CREATE", "Product", "1");
+        verify(productSuggestService).put(saved);
     }
 
     @Test
     @DisplayName("Should get all service products")
     void shouldGetAllProducts() {
-        Product p = Product.builder().id(1L).name("Animate a logo").description("Provide animated logo for videos").price(200.00).quantity(1).build();
+        Product p = Product.builder().id(1L).name("Animate a logo").description("Provide animated logo for videos").price(Money.of(new BigDecimal("200.00"))).quantity(1).build();
         when(repository.findAll()).thenReturn(List.of(p));
 
         List<ProductResponseDto> products = productService.getAll();
@@ -70,7 +81,7 @@ class ProductServiceTest {
     @Test
     @DisplayName("Should return service product by ID")
     void shouldGetById() {
-        Product p = Product.builder().id(1L).name("Design webpage").description("Design landing page for startup").price(300.0).quantity(1).build();
+        Product p = Product.builder().id(1L).name("Design webpage").description("Design landing page for startup").price(Money.of(new BigDecimal("300.0"))).quantity(1).build();
         when(repository.findById(1L)).thenReturn(Optional.of(p));
 
         ProductResponseDto result = productService.getById(1L);
@@ -93,7 +104,7 @@ class ProductServiceTest {
     void shouldThrowWhenUpdatingNonExistentProduct() {
         when(repository.findById(1L)).thenReturn(Optional.empty());
 
-        ProductRequestDto dto = new ProductRequestDto("Edit", "Updated", 100.0, 1);
+        ProductRequestDto dto = new ProductRequestDto("Edit", "Updated", new BigDecimal("100.0"), 1);
 
         assertThatThrownBy(() -> productService.update(1L, dto))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -113,11 +124,11 @@ class ProductServiceTest {
     @Test
     @DisplayName("Should update existing service product")
     void shouldUpdateProduct() {
-        Product existing = Product.builder().id(1L).name("Design brochure").description("Marketing brochure").price(100.0).quantity(1).build();
+        Product existing = Product.builder().id(1L).name("Design brochure").description("Marketing brochure").price(Money.of(new BigDecimal("100.0"))).quantity(1).build();
         when(repository.findById(1L)).thenReturn(Optional.of(existing));
         when(repository.save(any(Product.class))).thenReturn(existing);
 
-        ProductRequestDto dto = new ProductRequestDto("Design updated brochure", "Updated brochure design", 120.00, 1);
+        ProductRequestDto dto = new ProductRequestDto("Design updated brochure", "Updated brochure design", new BigDecimal("120.00"), 1);
 
         ProductResponseDto updated = productService.update(1L, dto);
 
@@ -125,6 +136,21 @@ class ProductServiceTest {
         verify(auditLogService).log("UPDATE", "Product", "1");
     }
 
+    @Test
+    @DisplayName("Should page products through the listing query")
+    @SuppressWarnings("unchecked")
+    void shouldGetProductPage() {
+        ListingPage<ProductResponseDto> expected = new ListingPage<>(
+                List.of(new ProductResponseDto(1L, "Logo", "Design", Money.of(new BigDecimal("100.0")), 1)), "next", null);
+        when(listingQueryService.page(any(), any(Specification.class), eq("-price"), isNull(), eq("abc"), isNull(), eq(false)))
+                .thenReturn(expected);
+
+        ListingPage<ProductResponseDto> page = productService.getProductPage(
+                new ProductFilterRequest("logo", "-price"), null, "abc", null, false);
+
+        assertThat(page).isSameAs(expected);
+    }
+
     @Test
     @DisplayName("Should delete service product")
     void shouldDeleteProduct() {
@@ -135,13 +161,14 @@ class ProductServiceTest {
 
         verify(repository).delete(p);
         verify(auditLogService).log("DELETE", "Product", "1");
+        verify(productSuggestService).remove(1L);
     }
 
     @Test
     @DisplayName("Should filter service products by keyword")
     void shouldFilterProducts() {
         ProductFilterRequest filter = new ProductFilterRequest("logo", "name");
-        Product match = Product.builder().id(1L).name("Logo animation").description("Animated logo for branding").price(180.0).quantity(1).build();
+        Product match = Product.builder().id(1L).name("Logo animation").description("Animated logo for branding").price(Money.of(new BigDecimal("180.0"))).quantity(1).build();
         when(repository.findAll(any(Specification.class), any(Sort.class))).thenReturn(List.of(match));
 
         List<ProductResponseDto> result = productService.getFilteredProducts(filter);
@@ -0,0 +1,82 @@
+package com.smartinvoice.recurring.controller;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.exception.GlobalExceptionHandler;
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.recurring.dto.RecurringInvoiceResponseDto;
+import com.smartinvoice.recurring.entity.RecurringInvoice.Cadence;
+import com.smartinvoice.recurring.service.RecurringInvoiceGenerator;
+import com.smartinvoice.recurring.service.RecurringInvoiceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RecurringInvoiceControllerTest {
+
+    private MockMvc mockMvc;
+    private RecurringInvoiceService recurringInvoiceService;
+    private RecurringInvoiceGenerator recurringInvoiceGenerator;
+
+    @BeforeEach
+    void setUp() {
+        recurringInvoiceService = mock(RecurringInvoiceService.class);
+        recurringInvoiceGenerator = mock(RecurringInvoiceGenerator.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new RecurringInvoiceController(recurringInvoiceService, recurringInvoiceGenerator))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should create a recurring invoice")
+    void shouldCreateRecurringInvoice() throws Exception {
+        LocalDate nextRun = LocalDate.of(2025, 7, 1);
+        when(recurringInvoiceService.create(any())).thenReturn(new RecurringInvoiceResponseDto(5L, 1L, "Alice",
+                Cadence.MONTHLY, nextRun, null, null, 30, true, true, List.of(new ProductDto(10L, 2, Money.of(new BigDecimal("50.0"))))));
+
+        mockMvc.perform(post("/api/recurring-invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"clientId": 1, "cadence": "MONTHLY", "nextRunDate": "2025-07-01", "paymentTermDays": 30,
+                                 "sendEmail": true, "products": [{"productId": 10, "quantity": 2, "price": 50.0}]}
+                                """))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(5))
+                .andExpect(jsonPath("$.cadence").value("MONTHLY"));
+    }
+
+    @Test
+    @DisplayName("Should reject a template without products")
+    void shouldRejectTemplateWithoutProducts() throws Exception {
+        mockMvc.perform(post("/api/recurring-invoices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"clientId": 1, "cadence": "MONTHLY", "nextRunDate": "2025-07-01", "products": []}
+                                """))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(recurringInvoiceService);
+    }
+
+    @Test
+    @DisplayName("Should run the generator on demand")
+    void shouldRunGenerator() throws Exception {
+        when(recurringInvoiceGenerator.generateDue()).thenReturn(12);
+
+        mockMvc.perform(post("/api/recurring-invoices/run"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.generated").value(12));
+    }
+}
@@ -0,0 +1,232 @@
+package com.smartinvoice.recurring.service;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.email.EmailOutboxService;
+import com.smartinvoice.invoice.entity.EmailOutboxMessage;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.InvoiceLine;
+import com.smartinvoice.invoice.service.InvoiceNumberAllocator;
+import com.smartinvoice.product.repository.ProductRepository;
+import com.smartinvoice.recurring.entity.RecurringInvoice;
+import com.smartinvoice.recurring.entity.RecurringInvoice.Cadence;
+import com.smartinvoice.recurring.entity.RecurringInvoiceLine;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurringInvoiceGeneratorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    private RecurringInvoiceRepository repository;
+    private ProductRepository productRepository;
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+    private InvoiceStatsService invoiceStatsService;
+    private EmailOutboxService emailOutboxService;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RecurringInvoiceGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RecurringInvoiceRepository.class);
+        productRepository = mock(ProductRepository.class);
+        invoiceNumberAllocator = mock(InvoiceNumberAllocator.class);
+        invoiceStatsService = mock(InvoiceStatsService.class);
+        emailOutboxService = mock(EmailOutboxService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        generator = new RecurringInvoiceGenerator(repository, productRepository, invoiceNumberAllocator, invoiceStatsService,
+                mock(RevenueRollupService.class), emailOutboxService, mock(AuditLogService.class), jdbcTemplate,
+                mock(PlatformTransactionManager.class), meterRegistry, 10);
+
+        when(productRepository.findExistingIds(any())).thenAnswer(inv -> new ArrayList<>(inv.<Collection<Long>>getArgument(0)));
+        when(invoiceNumberAllocator.allocate(eq(InvoiceNumberAllocator.DEFAULT_TENANT), anyInt(), anyInt()))
+                .thenAnswer(inv -> {
+                    int year = inv.getArgument(1);
+                    int count = inv.getArgument(2);
+                    List<String> numbers = new ArrayList<>();
+                    for (int i = 1; i <= count; i++) {
+                        numbers.add("INV-" + year + "-000" + i);
+                    }
+                    return numbers;
+                });
+        when(jdbcTemplate.batchUpdate(any(PreparedStatementCreator.class), any(BatchPreparedStatementSetter.class),
+                any(KeyHolder.class))).thenAnswer(inv -> {
+            BatchPreparedStatementSetter setter = inv.getArgument(1);
+            KeyHolder keys = inv.getArgument(2);
+            for (int i = 0; i < setter.getBatchSize(); i++) {
+                keys.getKeyList().add(Map.of("id", 100L + i));
+            }
+            return new int[setter.getBatchSize()];
+        });
+        when(emailOutboxService.newMessage(any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> EmailOutboxMessage.builder().invoiceId(inv.getArgument(0)).build());
+    }
+
+    @Test
+    @DisplayName("Should issue a chunk of invoices with one number allocation and batched inserts")
+    @SuppressWarnings("unchecked")
+    void shouldGenerateChunk() {
+        RecurringInvoice monthly = template(1L, Cadence.MONTHLY, true, null,
+                new RecurringInvoiceLine(10L, 2, Money.of(new BigDecimal("50.0"))), new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        RecurringInvoice weekly = template(2L, Cadence.WEEKLY, false, TODAY.plusDays(3),
+                new RecurringInvoiceLine(11L, 1, Money.of(new BigDecimal("20.0"))));
+        when(repository.findDueForGeneration(eq(TODAY), any()))
+                .thenReturn(List.of(monthly, weekly))
+                .thenReturn(List.of());
+
+        int generated = generator.generateDue(TODAY);
+
+        assertThat(generated).isEqualTo(2);
+        verify(invoiceNumberAllocator, times(1)).allocate(InvoiceNumberAllocator.DEFAULT_TENANT, 2025, 2);
+
+        ArgumentCaptor<Collection<Invoice>> invoices = ArgumentCaptor.forClass(Collection.class);
+        verify(invoiceStatsService).recordCreated(invoices.capture());
+        assertThat(invoices.getValue())
+                .extracting(Invoice::getId, Invoice::getInvoiceNumber, Invoice::getTotalAmount, Invoice::getDueDate)
+                .containsExactly(
+                        tuple(100L, "INV-2025-0001", Money.of(new BigDecimal("105.0")), TODAY.plusDays(14)),
+                        tuple(101L, "INV-2025-0002", Money.of(new BigDecimal("20.0")), TODAY.plusDays(14)));
+
+        ArgumentCaptor<Collection<InvoiceLine>> lines = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(RecurringInvoiceGenerator.INSERT_LINE_SQL), lines.capture(), eq(3), any());
+        assertThat(lines.getValue())
+                .extracting(line -> line.getInvoice().getId(), InvoiceLine::getLineIndex, InvoiceLine::getProductId,
+                        InvoiceLine::getQuantity, InvoiceLine::getLineTotal)
+                .containsExactly(
+                        tuple(100L, 0, 10L, 2, Money.of(new BigDecimal("100.0"))),
+                        tuple(100L, 1, 10L, 1, Money.of(new BigDecimal("5.0"))),
+                        tuple(101L, 0, 11L, 1, Money.of(new BigDecimal("20.0"))));
+
+        verify(emailOutboxService).enqueueAll(argThat(messages -> messages.size() == 1
+                && messages.get(0).getInvoiceId().equals(100L)));
+        assertThat(meterRegistry.get("invoice.recurring.generated").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should advance templates and deactivate them after their end date")
+    void shouldAdvanceTemplates() {
+        RecurringInvoice monthly = template(1L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        RecurringInvoice weekly = template(2L, Cadence.WEEKLY, false, TODAY.plusDays(3), new RecurringInvoiceLine(11L, 1, Money.of(new BigDecimal("5.0"))));
+        when(repository.findDueForGeneration(eq(TODAY), any()))
+                .thenReturn(List.of(monthly, weekly))
+                .thenReturn(List.of());
+
+        generator.generateDue(TODAY);
+
+        assertThat(monthly.getLastRunDate()).isEqualTo(TODAY);
+        assertThat(monthly.getNextRunDate()).isEqualTo(TODAY.plusMonths(1));
+        assertThat(monthly.isActive()).isTrue();
+        assertThat(weekly.getNextRunDate()).isEqualTo(TODAY.plusWeeks(1));
+        assertThat(weekly.isActive()).isFalse();
+        verify(emailOutboxService, never()).enqueueAll(any());
+    }
+
+    @Test
+    @DisplayName("Should keep month-end templates on the anchor day across February")
+    void shouldKeepAnchorDayAcrossFebruary() {
+        LocalDate start = LocalDate.of(2025, 1, 31);
+        RecurringInvoice monthly = template(1L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        monthly.setNextRunDate(start);
+        monthly.setAnchorDate(start);
+        when(repository.findDueForGeneration(any(), any()))
+                .thenReturn(List.of(monthly), List.of(), List.of(monthly), List.of(), List.of(monthly), List.of());
+
+        generator.generateDue(start);
+        assertThat(monthly.getNextRunDate()).isEqualTo(LocalDate.of(2025, 2, 28));
+        generator.generateDue(monthly.getNextRunDate());
+        assertThat(monthly.getNextRunDate()).isEqualTo(LocalDate.of(2025, 3, 31));
+        generator.generateDue(monthly.getNextRunDate());
+        assertThat(monthly.getNextRunDate()).isEqualTo(LocalDate.of(2025, 4, 30));
+        assertThat(monthly.getLastRunDate()).isEqualTo(LocalDate.of(2025, 3, 31));
+    }
+
+    @Test
+    @DisplayName("Should number invoices caught up across a year end in the year they are issued")
+    @SuppressWarnings("unchecked")
+    void shouldAllocatePerIssueYear() {
+        LocalDate date = LocalDate.of(2026, 1, 5);
+        RecurringInvoice late = template(1L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        late.setNextRunDate(LocalDate.of(2025, 12, 1));
+        RecurringInvoice current = template(2L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        current.setNextRunDate(LocalDate.of(2026, 1, 1));
+        when(repository.findDueForGeneration(eq(date), any()))
+                .thenReturn(List.of(late, current))
+                .thenReturn(List.of());
+
+        generator.generateDue(date);
+
+        verify(invoiceNumberAllocator).allocate(InvoiceNumberAllocator.DEFAULT_TENANT, 2025, 1);
+        verify(invoiceNumberAllocator).allocate(InvoiceNumberAllocator.DEFAULT_TENANT, 2026, 1);
+        ArgumentCaptor<Collection<Invoice>> invoices = ArgumentCaptor.forClass(Collection.class);
+        verify(invoiceStatsService).recordCreated(invoices.capture());
+        assertThat(invoices.getValue())
+                .extracting(Invoice::getInvoiceNumber, Invoice::getIssueDate)
+                .containsExactly(
+                        tuple("INV-2025-0001", LocalDate.of(2025, 12, 1)),
+                        tuple("INV-2026-0001", LocalDate.of(2026, 1, 1)));
+    }
+
+    @Test
+    @DisplayName("Should deactivate templates that reference a deleted product instead of billing them")
+    @SuppressWarnings("unchecked")
+    void shouldDeactivateTemplatesWithDeletedProducts() {
+        RecurringInvoice broken = template(1L, Cadence.MONTHLY, false, null,
+                new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))), new RecurringInvoiceLine(99L, 1, Money.of(new BigDecimal("5.0"))));
+        RecurringInvoice valid = template(2L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        RecurringInvoice next = template(3L, Cadence.MONTHLY, false, null, new RecurringInvoiceLine(10L, 1, Money.of(new BigDecimal("5.0"))));
+        doReturn(List.of(10L)).when(productRepository).findExistingIds(any());
+        when(repository.findDueForGeneration(eq(TODAY), any()))
+                .thenReturn(List.of(broken))
+                .thenReturn(List.of(valid, next))
+                .thenReturn(List.of());
+
+        int generated = generator.generateDue(TODAY);
+
+        assertThat(generated).isEqualTo(2);
+        assertThat(broken.isActive()).isFalse();
+        assertThat(broken.getNextRunDate()).isEqualTo(TODAY);
+        assertThat(valid.getNextRunDate()).isEqualTo(TODAY.plusMonths(1));
+        ArgumentCaptor<Collection<Invoice>> invoices = ArgumentCaptor.forClass(Collection.class);
+        verify(invoiceStatsService).recordCreated(invoices.capture());
+        assertThat(invoices.getValue()).hasSize(2);
+    }
+
+    private RecurringInvoice template(Long id, Cadence cadence, boolean sendEmail, LocalDate endDate,
+                                      RecurringInvoiceLine... lines) {
+        return RecurringInvoice.builder()
+                .id(id)
+                .client(Client.builder().id(7L).name("Alice").email("alice@mail.com").build())
+                .cadence(cadence)
+                .nextRunDate(TODAY)
+                .endDate(endDate)
+                .paymentTermDays(14)
+                .sendEmail(sendEmail)
+                .lines(new ArrayList<>(List.of(lines)))
+                .build();
+    }
+}
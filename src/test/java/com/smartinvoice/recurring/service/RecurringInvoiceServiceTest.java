@@ -0,0 +1,80 @@
+package com.smartinvoice.recurring.service;
+
+import com.smartinvoice.audit.service.AuditLogService;
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.exception.ResourceNotFoundException;
+import com.smartinvoice.invoice.dto.ProductDto;
+import com.smartinvoice.product.entity.Product;
+import com.smartinvoice.product.repository.ProductRepository;
+import com.smartinvoice.recurring.dto.RecurringInvoiceRequestDto;
+import com.smartinvoice.recurring.entity.RecurringInvoice;
+import com.smartinvoice.recurring.entity.RecurringInvoice.Cadence;
+import com.smartinvoice.recurring.repository.RecurringInvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurringInvoiceServiceTest {
+
+    private RecurringInvoiceRepository repository;
+    private ClientRepository clientRepository;
+    private ProductRepository productRepository;
+    private RecurringInvoiceService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RecurringInvoiceRepository.class);
+        clientRepository = mock(ClientRepository.class);
+        productRepository = mock(ProductRepository.class);
+        service = new RecurringInvoiceService(repository, clientRepository, productRepository, mock(AuditLogService.class));
+    }
+
+    @Test
+    @DisplayName("Should create a recurring invoice template")
+    void shouldCreateTemplate() {
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(Client.builder().id(1L).name("Alice").build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of(Product.builder().id(10L).build()));
+        when(repository.save(any())).thenAnswer(inv -> {
+            RecurringInvoice template = inv.getArgument(0);
+            template.setId(5L);
+            return template;
+        });
+
+        var result = service.create(request(List.of(new ProductDto(10L, 2, Money.of(new BigDecimal("50.0"))))));
+
+        assertThat(result.id()).isEqualTo(5L);
+        assertThat(result.clientName()).isEqualTo("Alice");
+        assertThat(result.active()).isTrue();
+        assertThat(result.products()).containsExactly(new ProductDto(10L, 2, Money.of(new BigDecimal("50.0"))));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown clients and products")
+    void shouldRejectUnknownReferences() {
+        when(clientRepository.findById(1L)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> service.create(request(List.of(new ProductDto(10L, 1, Money.of(new BigDecimal("1.0")))))))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Client not found");
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(Client.builder().id(1L).build()));
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+        assertThatThrownBy(() -> service.create(request(List.of(new ProductDto(99L, 1, Money.of(new BigDecimal("1.0")))))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(repository, never()).save(any());
+    }
+
+    private RecurringInvoiceRequestDto request(List<ProductDto> products) {
+        return new RecurringInvoiceRequestDto(1L, Cadence.MONTHLY, LocalDate.of(2025, 7, 1), null, 30, false, products);
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartinvoice.report.controller;
+
+import com.smartinvoice.exception.GlobalExceptionHandler;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.report.dto.AgingReportDto;
+import com.smartinvoice.report.dto.AgingRowDto;
+import com.smartinvoice.report.service.AgingReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReportControllerTest {
+
+    private MockMvc mockMvc;
+    private AgingReportService agingReportService;
+
+    @BeforeEach
+    void setUp() {
+        agingReportService = mock(AgingReportService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReportController(agingReportService, new ExportService()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return the aging report for the requested date")
+    void shouldReturnAgingReport() throws Exception {
+        LocalDate asOf = LocalDate.of(2025, 6, 30);
+        AgingRowDto row = new AgingRowDto(1L, "Alice", 1, Money.ZERO, Money.of(new BigDecimal("80.0")), Money.ZERO, Money.ZERO, Money.ZERO, Money.of(new BigDecimal("80.0")));
+        when(agingReportService.getAgingReport(asOf)).thenReturn(new AgingReportDto(asOf,
+                new AgingRowDto(null, "Total", 1, Money.ZERO, Money.of(new BigDecimal("80.0")), Money.ZERO, Money.ZERO, Money.ZERO, Money.of(new BigDecimal("80.0"))), List.of(row)));
+
+        mockMvc.perform(get("/api/reports/aging").param("asOf", "2025-06-30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.days1To30").value(80.0))
+                .andExpect(jsonPath("$.clients[0].clientName").value("Alice"));
+    }
+
+    @Test
+    @DisplayName("Should export the aging report as gzip-compressed NDJSON")
+    void shouldExportAgingReport() throws Exception {
+        when(agingReportService.writeAgingReport(any(), isNull(), any(), any())).thenReturn(1L);
+
+        mockMvc.perform(get("/api/reports/aging/export").param("format", "NDJSON").param("gzip", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=aging-report.ndjson.gz"))
+                .andExpect(content().contentType("application/gzip"));
+    }
+}
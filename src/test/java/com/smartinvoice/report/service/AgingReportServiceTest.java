@@ -0,0 +1,70 @@
+package com.smartinvoice.report.service;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.export.service.ExportFormat;
+import com.smartinvoice.export.service.ExportService;
+import com.smartinvoice.report.dto.AgingReportDto;
+import com.smartinvoice.report.dto.AgingRowDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AgingReportServiceTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+    private JdbcTemplate jdbcTemplate;
+    private AgingReportService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new AgingReportService(jdbcTemplate, new ExportService());
+    }
+
+    @Test
+    @DisplayName("Should run one aggregated query for the as-of date and add overall totals")
+    void shouldBuildReportWithTotals() {
+        Date date = Date.valueOf(AS_OF);
+        when(jdbcTemplate.query(eq(AgingReportService.AGING_SQL), any(RowMapper.class), eq(date), eq(date), eq(date)))
+                .thenReturn(List.of(
+                        new AgingRowDto(1L, "Alice", 3, Money.of(new BigDecimal("100.10")), Money.of(new BigDecimal("50.20")), Money.ZERO, Money.ZERO, Money.of(new BigDecimal("25.05")), Money.of(new BigDecimal("175.35"))),
+                        new AgingRowDto(2L, "Bob", 1, Money.ZERO, Money.of(new BigDecimal("0.10")), Money.of(new BigDecimal("40.20")), Money.ZERO, Money.ZERO, Money.of(new BigDecimal("40.30")))));
+
+        AgingReportDto report = service.getAgingReport(AS_OF);
+
+        assertThat(report.asOf()).isEqualTo(AS_OF);
+        assertThat(report.clients()).hasSize(2);
+        assertThat(report.totals()).isEqualTo(new AgingRowDto(null, "Total", 4,
+                Money.of(new BigDecimal("100.10")), Money.of(new BigDecimal("50.30")), Money.of(new BigDecimal("40.20")), Money.ZERO, Money.of(new BigDecimal("25.05")), Money.of(new BigDecimal("215.65"))));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should export client rows followed by the totals row")
+    void shouldExportReport() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any()))
+                .thenReturn(List.of(new AgingRowDto(1L, "Alice", 2, Money.of(new BigDecimal("10.10")), Money.ZERO, Money.ZERO, Money.ZERO, Money.of(new BigDecimal("5.20")), Money.of(new BigDecimal("15.30")))));
+        StringWriter out = new StringWriter();
+
+        long rows = service.writeAgingReport(out, AS_OF, ExportFormat.CSV, written -> {});
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString().split("\r?\n")).containsExactly(
+                "clientId,clientName,invoiceCount,current,days1To30,days31To60,days61To90,over90,total",
+                "1,Alice,2,10.10,0.00,0.00,0.00,5.20,15.30",
+                ",Total,2,10.10,0.00,0.00,0.00,5.20,15.30");
+    }
+}
@@ -0,0 +1,95 @@
+package com.smartinvoice.stats.controller;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.exception.GlobalExceptionHandler;
+import com.smartinvoice.stats.dto.ClientStatsDto;
+import com.smartinvoice.stats.dto.DashboardStatsDto;
+import com.smartinvoice.stats.dto.RevenuePointDto;
+import com.smartinvoice.stats.dto.StatsBucketDto;
+import com.smartinvoice.stats.service.InvoiceStatsService;
+import com.smartinvoice.stats.service.RevenueGranularity;
+import com.smartinvoice.stats.service.RevenueRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StatsControllerTest {
+
+    private MockMvc mockMvc;
+    private InvoiceStatsService invoiceStatsService;
+    private RevenueRollupService revenueRollupService;
+
+    @BeforeEach
+    void setUp() {
+        invoiceStatsService = mock(InvoiceStatsService.class);
+        revenueRollupService = mock(RevenueRollupService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new StatsController(invoiceStatsService, revenueRollupService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should return dashboard statistics")
+    void shouldReturnDashboard() throws Exception {
+        when(invoiceStatsService.getDashboard()).thenReturn(new DashboardStatsDto(3, Money.of(new BigDecimal("300.0")), 1, Money.of(new BigDecimal("100.0")), 1, Money.of(new BigDecimal("100.0")), Money.of(new BigDecimal("200.0")),
+                List.of(new StatsBucketDto("OVERDUE", 1, Money.of(new BigDecimal("100.0"))), new StatsBucketDto("PAID", 2, Money.of(new BigDecimal("200.0")))),
+                List.of(new StatsBucketDto("2025-03", 3, Money.of(new BigDecimal("300.0"))))));
+
+        mockMvc.perform(get("/api/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.invoiceCount").value(3))
+                .andExpect(jsonPath("$.totalIncome").value(200.0))
+                .andExpect(jsonPath("$.byStatus[1].bucket").value("PAID"))
+                .andExpect(jsonPath("$.byMonth[0].invoiceCount").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return top clients")
+    void shouldReturnTopClients() throws Exception {
+        when(invoiceStatsService.getTopClients(5)).thenReturn(List.of(new ClientStatsDto(7L, "Alice", 4, Money.of(new BigDecimal("900.0")))));
+
+        mockMvc.perform(get("/api/stats/clients").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].clientName").value("Alice"))
+                .andExpect(jsonPath("$[0].totalAmount").value(900.0));
+    }
+
+    @Test
+    @DisplayName("Should return the revenue series for a range")
+    void shouldReturnRevenue() throws Exception {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 12, 31);
+        when(revenueRollupService.getRevenue(from, to, RevenueGranularity.MONTH))
+                .thenReturn(List.of(new RevenuePointDto(from, 4, Money.of(new BigDecimal("400.0")), 2, Money.of(new BigDecimal("150.0")))));
+
+        mockMvc.perform(get("/api/stats/revenue")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-12-31")
+                        .param("granularity", "MONTH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].issuedAmount").value(400.0))
+                .andExpect(jsonPath("$[0].paidCount").value(2));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the revenue rollup")
+    void shouldRebuildRevenue() throws Exception {
+        when(revenueRollupService.rebuild()).thenReturn(365);
+
+        mockMvc.perform(post("/api/stats/revenue/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days").value(365));
+    }
+}
@@ -0,0 +1,148 @@
+package com.smartinvoice.stats.service;
+
+import com.smartinvoice.client.entity.Client;
+import com.smartinvoice.client.repository.ClientRepository;
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.Invoice.InvoiceStatus;
+import com.smartinvoice.invoice.repository.InvoiceRepository;
+import com.smartinvoice.stats.dto.ClientStatsDto;
+import com.smartinvoice.stats.dto.DashboardStatsDto;
+import com.smartinvoice.stats.entity.InvoiceStat;
+import com.smartinvoice.stats.entity.InvoiceStat.Dimension;
+import com.smartinvoice.stats.repository.InvoiceStatRepository;
+import com.smartinvoice.stats.service.InvoiceStatsService.Delta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InvoiceStatsServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private InvoiceStatRepository statRepository;
+    private InvoiceRepository invoiceRepository;
+    private ClientRepository clientRepository;
+    private InvoiceStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        statRepository = mock(InvoiceStatRepository.class);
+        invoiceRepository = mock(InvoiceRepository.class);
+        clientRepository = mock(ClientRepository.class);
+        service = new InvoiceStatsService(jdbcTemplate, statRepository, invoiceRepository, clientRepository);
+    }
+
+    @Test
+    @DisplayName("Should add a created invoice to its status, month and client buckets")
+    void shouldRecordCreated() {
+        Invoice invoice = Invoice.builder()
+                .id(1L)
+                .status(InvoiceStatus.PENDING)
+                .issueDate(LocalDate.of(2025, 3, 14))
+                .client(Client.builder().id(42L).build())
+                .totalAmount(Money.of(new BigDecimal("250.0")))
+                .build();
+
+        service.recordCreated(invoice);
+
+        assertThat(appliedDeltas()).containsExactly(
+                new Delta(Dimension.STATUS, "PENDING", 1, Money.of(new BigDecimal("250.0"))),
+                new Delta(Dimension.MONTH, "2025-03", 1, Money.of(new BigDecimal("250.0"))),
+                new Delta(Dimension.CLIENT, "42", 1, Money.of(new BigDecimal("250.0"))));
+    }
+
+    @Test
+    @DisplayName("Should move a paid invoice between status buckets and ignore unchanged statuses")
+    void shouldRecordStatusChange() {
+        Invoice invoice = Invoice.builder().id(1L).status(InvoiceStatus.PAID).totalAmount(Money.of(new BigDecimal("80.0"))).build();
+
+        service.recordStatusChange(invoice, InvoiceStatus.PAID);
+        verifyNoInteractions(jdbcTemplate);
+
+        service.recordStatusChange(invoice, InvoiceStatus.OVERDUE);
+        assertThat(appliedDeltas()).containsExactlyInAnyOrder(
+                new Delta(Dimension.STATUS, "OVERDUE", -1, Money.of(new BigDecimal("-80.0"))),
+                new Delta(Dimension.STATUS, "PAID", 1, Money.of(new BigDecimal("80.0"))));
+    }
+
+    @Test
+    @DisplayName("Should move a chunk of overdue invoices from PENDING to OVERDUE")
+    void shouldRecordOverdue() {
+        when(invoiceRepository.sumTotalAmountByIdIn(List.of(1L, 2L))).thenReturn(new BigDecimal("300.00"));
+
+        service.recordOverdue(List.of(1L, 2L));
+        service.recordOverdue(List.of());
+
+        assertThat(appliedDeltas()).containsExactly(
+                new Delta(Dimension.STATUS, "OVERDUE", 2, Money.of(new BigDecimal("300.0"))),
+                new Delta(Dimension.STATUS, "PENDING", -2, Money.of(new BigDecimal("-300.0"))));
+        verify(invoiceRepository, times(1)).sumTotalAmountByIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Should build the dashboard from the aggregate rows only")
+    void shouldBuildDashboard() {
+        when(statRepository.findByDimension(Dimension.STATUS)).thenReturn(List.of(
+                stat(Dimension.STATUS, "PAID", 5, "500.0"),
+                stat(Dimension.STATUS, "PENDING", 3, "300.0"),
+                stat(Dimension.STATUS, "OVERDUE", 2, "150.0")));
+        String month = YearMonth.now().toString();
+        when(statRepository.findByDimensionAndBucketGreaterThanEqualOrderByBucket(
+                Dimension.MONTH, YearMonth.now().minusMonths(11).toString()))
+                .thenReturn(List.of(stat(Dimension.MONTH, month, 10, "950.0"), stat(Dimension.MONTH, "none", 0, "0")));
+
+        DashboardStatsDto dashboard = service.getDashboard();
+
+        assertThat(dashboard.invoiceCount()).isEqualTo(10);
+        assertThat(dashboard.totalInvoiced()).isEqualTo(Money.of(new BigDecimal("950.0")));
+        assertThat(dashboard.unpaidCount()).isEqualTo(5);
+        assertThat(dashboard.unpaidAmount()).isEqualTo(Money.of(new BigDecimal("450.0")));
+        assertThat(dashboard.overdueCount()).isEqualTo(2);
+        assertThat(dashboard.overdueAmount()).isEqualTo(Money.of(new BigDecimal("150.0")));
+        assertThat(dashboard.totalIncome()).isEqualTo(Money.of(new BigDecimal("500.0")));
+        assertThat(dashboard.byStatus()).extracting("bucket").containsExactly("OVERDUE", "PAID", "PENDING");
+        assertThat(dashboard.byMonth()).extracting("bucket").containsExactly(month);
+        verifyNoInteractions(invoiceRepository);
+    }
+
+    @Test
+    @DisplayName("Should return top clients with their names")
+    void shouldReturnTopClients() {
+        when(statRepository.findByDimensionOrderByTotalAmountDesc(Dimension.CLIENT, Limit.of(2)))
+                .thenReturn(List.of(stat(Dimension.CLIENT, "7", 4, "900.0"), stat(Dimension.CLIENT, "3", 1, "50.0")));
+        when(clientRepository.findAllById(List.of(7L, 3L))).thenReturn(List.of(
+                Client.builder().id(3L).name("Bob").build(),
+                Client.builder().id(7L).name("Alice").build()));
+
+        List<ClientStatsDto> clients = service.getTopClients(2);
+
+        assertThat(clients).containsExactly(
+                new ClientStatsDto(7L, "Alice", 4, Money.of(new BigDecimal("900.0"))),
+                new ClientStatsDto(3L, "Bob", 1, Money.of(new BigDecimal("50.0"))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Delta> appliedDeltas() {
+        ArgumentCaptor<Collection<Delta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(InvoiceStatsService.UPSERT_SQL), captor.capture(), anyInt(), any());
+        return List.copyOf(captor.getValue());
+    }
+
+    private InvoiceStat stat(Dimension dimension, String bucket, long count, String amount) {
+        return new InvoiceStat(dimension, bucket, count, Money.of(new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,109 @@
+package com.smartinvoice.stats.service;
+
+import com.smartinvoice.common.money.Money;
+import com.smartinvoice.invoice.entity.Invoice;
+import com.smartinvoice.invoice.entity.Invoice.InvoiceStatus;
+import com.smartinvoice.stats.dto.RevenuePointDto;
+import com.smartinvoice.stats.service.RevenueRollupService.Delta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RevenueRollupServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RevenueRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new RevenueRollupService(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should book a paid invoice as issued on its issue date and paid on its paid date")
+    void shouldRecordCreatedPaidInvoice() {
+        Invoice invoice = Invoice.builder()
+                .status(InvoiceStatus.PAID)
+                .issueDate(LocalDate.of(2025, 3, 14))
+                .paidDate(LocalDate.of(2025, 3, 2))
+                .totalAmount(Money.of(new BigDecimal("120.0")))
+                .build();
+
+        service.recordCreated(invoice);
+
+        assertThat(appliedDeltas()).containsExactly(
+                new Delta(LocalDate.of(2025, 3, 2), 0, Money.ZERO, 1, Money.of(new BigDecimal("120.0"))),
+                new Delta(LocalDate.of(2025, 3, 14), 1, Money.of(new BigDecimal("120.0")), 0, Money.ZERO));
+    }
+
+    @Test
+    @DisplayName("Should book a payment once and reverse issued amounts on delete")
+    void shouldRecordPaidAndDeleted() {
+        Invoice invoice = Invoice.builder()
+                .status(InvoiceStatus.PAID)
+                .issueDate(LocalDate.of(2025, 3, 14))
+                .paidDate(LocalDate.of(2025, 4, 1))
+                .totalAmount(Money.of(new BigDecimal("50.0")))
+                .build();
+
+        service.recordPaid(invoice, InvoiceStatus.PAID);
+        verifyNoInteractions(jdbcTemplate);
+
+        service.recordPaid(invoice, InvoiceStatus.PENDING);
+        assertThat(appliedDeltas()).containsExactly(new Delta(LocalDate.of(2025, 4, 1), 0, Money.ZERO, 1, Money.of(new BigDecimal("50.0"))));
+
+        clearInvocations(jdbcTemplate);
+        service.recordDeleted(invoice);
+        assertThat(appliedDeltas()).containsExactly(
+                new Delta(LocalDate.of(2025, 3, 14), -1, Money.of(new BigDecimal("-50.0")), 0, Money.ZERO),
+                new Delta(LocalDate.of(2025, 4, 1), 0, Money.ZERO, -1, Money.of(new BigDecimal("-50.0"))));
+    }
+
+    @Test
+    @DisplayName("Should sum the rollup by month and fill empty months with zeros")
+    void shouldReturnMonthlySeries() {
+        LocalDate from = LocalDate.of(2025, 1, 15);
+        LocalDate to = LocalDate.of(2025, 3, 10);
+        when(jdbcTemplate.query(eq(RevenueRollupService.SERIES_SQL), any(RowMapper.class),
+                eq("month"), eq(Date.valueOf(from)), eq(Date.valueOf(to))))
+                .thenReturn(List.of(new RevenuePointDto(LocalDate.of(2025, 2, 1), 4, Money.of(new BigDecimal("400.0")), 2, Money.of(new BigDecimal("150.0")))));
+
+        List<RevenuePointDto> series = service.getRevenue(from, to, RevenueGranularity.MONTH);
+
+        assertThat(series).containsExactly(
+                new RevenuePointDto(LocalDate.of(2025, 1, 1), 0, Money.ZERO, 0, Money.ZERO),
+                new RevenuePointDto(LocalDate.of(2025, 2, 1), 4, Money.of(new BigDecimal("400.0")), 2, Money.of(new BigDecimal("150.0"))),
+                new RevenuePointDto(LocalDate.of(2025, 3, 1), 0, Money.ZERO, 0, Money.ZERO));
+    }
+
+    @Test
+    @DisplayName("Should reject reversed or oversized ranges")
+    void shouldRejectInvalidRanges() {
+        assertThatThrownBy(() -> service.getRevenue(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), RevenueGranularity.DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getRevenue(LocalDate.of(2000, 1, 1), LocalDate.of(2025, 1, 1), RevenueGranularity.DAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Delta> appliedDeltas() {
+        ArgumentCaptor<Collection<Delta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(RevenueRollupService.UPSERT_SQL), captor.capture(), anyInt(), any());
+        return List.copyOf(captor.getValue());
+    }
+}